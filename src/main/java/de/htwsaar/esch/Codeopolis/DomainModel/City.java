@@ -1,13 +1,13 @@
 package de.htwsaar.esch.Codeopolis.DomainModel;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
 import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.*;
 import de.htwsaar.esch.Codeopolis.DomainModel.Plants.*;
-import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
-import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Diseases;
-import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Pests;
+import de.htwsaar.esch.Codeopolis.DomainModel.Weather.*;
 import de.htwsaar.esch.Codeopolis.Exceptions.*;
 
 /**
@@ -18,11 +18,18 @@ public class City extends GameEntity {
     private int residents;
     private int year = 0;
     private int fed = -1;
-	private Random fortune;
+	private RandomGenerator fortune;
+	private final Grain.Conditions conditions;
 	private Grain[] planted;
+	private Field field; // The field planted this year, if any. Excludes grain planted with plant(int[]) in the same year
+	private CropRegistry crops = CropRegistry.getDefault();
+	private WeatherModel weather = IndependentWeather.getInstance();
+	private final TurnPipeline pipeline = TurnPipeline.createDefault();
     private GameConfig config;
     private String name;
     private Depot depot;
+    private CityState state; // Cached state of the city, dropped by every mutation, see getState()
+    private long stateVersion; // Version of the depot the cached state was built from
     
     /**
      * Constructs a new City object with the specified name and game configuration.
@@ -31,10 +38,25 @@ public class City extends GameEntity {
      * @param config The game configuration.
      */
     public City(String id, String name, GameConfig config) {
+    	this(id, name, config, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new City object with the specified name and game configuration
+     * whose fortune is drawn from the given random generator.
+     * Cities with equally seeded random generators develop identically when given the same orders.
+     * The random generator must not be shared with other cities; split a generator per city instead.
+     * 
+     * @param name The name of the city.
+     * @param config The game configuration.
+     * @param fortune The random generator of the city.
+     */
+    public City(String id, String name, GameConfig config, RandomGenerator fortune) {
     	super(id);
     	this.name = name;
     	this.config = config;
-    	this.fortune = new Random();
+    	this.fortune = fortune;
+    	this.conditions = Grain.Conditions.generateRandomConditions(fortune);
     	setupCity();
     }
 
@@ -45,10 +67,23 @@ public class City extends GameEntity {
      * @param cityState The state of the city to use for initialization.
      */
     public City(CityState cityState, GameConfig config) {
+        this(cityState, config, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new City object using the state of an existing city
+     * whose fortune is drawn from the given random generator.
+     * 
+     * @param cityState The state of the city to use for initialization.
+     * @param config The game configuration.
+     * @param fortune The random generator of the city.
+     */
+    public City(CityState cityState, GameConfig config, RandomGenerator fortune) {
         super(cityState.getId());
         this.name = cityState.getName();
         this.config = config;  
-        this.fortune = new Random();
+        this.fortune = fortune;
+        this.conditions = Grain.Conditions.generateRandomConditions(fortune);
         
         this.acres = cityState.getAcres();
         this.planted = new Grain[Game.GrainType.values().length];
@@ -83,6 +118,7 @@ public class City extends GameEntity {
      */
     public void expandDepot(int numberOfSilos, int capacityPerSilo) {
     	this.depot.expand(numberOfSilos, capacityPerSilo);
+    	this.invalidateState();
     }
     
 	/**
@@ -97,6 +133,7 @@ public class City extends GameEntity {
 			return;
 		if(price * acres > this.depot.getTotalFillLevel())
 			throw new InsufficientResourcesException("Insufficient resources to buy " + acres + " acres.", price * acres, this.depot.getTotalFillLevel());
+		this.invalidateState();
 		this.depot.takeOut(price * acres);
 		if(this.acres + acres >= 0) //Avoid integer overflow
 			this.acres += acres;
@@ -117,6 +154,7 @@ public class City extends GameEntity {
 		if(acres>this.acres)
 			throw new LandOperationException("Attempting to sell more acres than available. You own "+this.acres+" acres and try to sell "+acres+" acres");
 		if(!this.depot.full()) {
+			this.invalidateState();
 			this.acres -= acres;
 			for(Harvest h : buildNewEquallyDistributedHarvest(price * acres))
 				this.depot.store(h); //Issue #39
@@ -135,17 +173,68 @@ public class City extends GameEntity {
 	public void feed(int feed) throws InsufficientResourcesException{
 		if(feed>this.depot.getTotalFillLevel())
 			throw new InsufficientResourcesException("Insufficient resources to feed " + feed + " bushels.", feed, this.depot.getTotalFillLevel());
+		this.invalidateState();
 		this.depot.takeOut(feed);
 		this.fed = feed;
 	}
 	
 	/**
      * Attempts to plant the specified number of acres.
+     * Not possible in a year in which a field was planted with {@link #plant(Field)}.
      * 
      * @param acres The number of acres to plant.
      * @return True if the planting was successful, false otherwise.
      */
 	public void plant(int[] acres) throws InsufficientResourcesException, LandOperationException{
+		if(this.field != null)
+			throw new LandOperationException("A field has already been planted this year.");
+		this.checkPlanting(acres);
+		this.invalidateState();
+
+		for (GrainType grainType : GrainType.values()) {
+			int grainTypeIndex = grainType.ordinal(); // Get the ordinal index of the enum
+			if(acres[grainTypeIndex] > 0) {
+				Grain seed = this.crops.create(grainType, this.fortune);
+				seed.plant(acres[grainTypeIndex]);
+				this.planted[grainTypeIndex] = seed;
+				this.depot.takeOut(acres[grainTypeIndex] * this.config.getBushelsPerAcre(), grainType);
+			}
+		}
+	}
+
+	/**
+	 * Plants the crops placed on a field. The field is harvested at the end of the year instead of
+	 * the grain planted with {@link #plant(int[])}, and cleared afterwards.
+	 * The crops of the field must not be changed until then.
+	 * Only one field can be planted per year, and not in a year in which grain was planted with {@link #plant(int[])}.
+	 * 
+	 * @param field The field with the crops placed on its plots.
+	 */
+	public void plant(Field field) throws InsufficientResourcesException, LandOperationException{
+		if(this.field != null)
+			throw new LandOperationException("A field has already been planted this year.");
+		for(Grain seed : this.planted) {
+			if(seed != null)
+				throw new LandOperationException("Grain has already been planted this year.");
+		}
+		int[] acres = field.getAcres();
+		this.checkPlanting(acres);
+		this.invalidateState();
+
+		for (GrainType grainType : GrainType.values()) {
+			int grainTypeIndex = grainType.ordinal();
+			if(acres[grainTypeIndex] > 0)
+				this.depot.takeOut(acres[grainTypeIndex] * this.config.getBushelsPerAcre(), grainType);
+		}
+		this.field = field;
+	}
+
+	/**
+	 * Checks whether the city has the bushels, acres and residents to plant the specified number of acres.
+	 * 
+	 * @param acres The number of acres to plant of each grain type.
+	 */
+	private void checkPlanting(int[] acres) throws InsufficientResourcesException, LandOperationException{
 		int acresSum = 0;
 		for (GrainType grainType : GrainType.values()) {
 	        int i = grainType.ordinal();
@@ -166,93 +255,6 @@ public class City extends GameEntity {
 			throw new LandOperationException(
 		            "Not enough residents to plant " + acresSum + " acres. You can plant "+this.config.getAcrePerResident()+" acres per resident."
 		        );
-
-		Grain seed = null;
-		for (GrainType grainType : GrainType.values()) {
-			seed = null;
-			int grainTypeIndex = grainType.ordinal(); // Get the ordinal index of the enum
-
-			switch (grainType) {
-	        case BARLEY:
-	            seed = new Barley();
-	            break;
-	        case CORN:
-	            seed = new Corn();
-	            break;
-	        case MILLET:
-	            seed = new Millet();
-	            break;
-	        case RICE:
-	            seed = new Rice();
-	            break;
-	        case RYE:
-	            seed = new Rye();
-	            break;
-	        case WHEAT: {
-	        	Grain g13Amnesia = new WinterGrain(6f, 0.4f, 0.1f) {
-	        		@Override
-	        		public int harvest() {
-	        			return 2 * super.harvest();
-	        		}
-	        		
-					@Override
-					public void pestInfestation(Pests pest, Conditions conditions) {
-						switch(pest) {
-						case FritFly:
-							this.yieldRatio *= 0.75f;
-							break;
-						case BarleyGoutFly:
-							this.yieldRatio *= 0.7f;
-							break;
-						default:
-							break;
-					}
-						
-					}
-					
-					@Override
-					public void drought() {
-						this.yieldRatio *= 0.5;
-						
-					}
-					
-					@Override
-					public void diseaseOutbreak(Diseases disease, Conditions conditions) {
-						switch (disease) {
-							case PowderyMildew:
-								this.yieldRatio *= 0.7f;
-								break;
-							case LeafDrought:
-								if(conditions.getAverageTemperatureWinter() > this.getOPTIMAL_WINTER_TEMPERATURE() + 2f) {
-									this.yieldRatio *= 0.6f;
-								}
-								else {
-									this.yieldRatio *= 0.7;
-								}
-								break;
-							default:
-								break;
-						}
-						
-					}
-				};
-				int luckySpin = fortune.nextInt(1, 100);
-				
-	        	seed = new Wheat();
-				if(luckySpin <= 10) {
-					seed = g13Amnesia;
-				}
-				
-	            break;
-	        }
-	        // No default case needed as we are covering all enum constants
-			}
-			if(acres[grainTypeIndex] > 0 && seed != null) {
-				seed.plant(acres[grainTypeIndex]);
-				this.planted[grainTypeIndex] = seed;
-				this.depot.takeOut(acres[grainTypeIndex] * this.config.getBushelsPerAcre(), grainType);
-			}
-		}
 	}
 
 	
@@ -287,91 +289,25 @@ public class City extends GameEntity {
      * @return The result of the turn.
      */
 	public TurnResult runTurn() {
-		//Calculate how many inhabitants of the city starved to death:
-		int peopleStarved = this.residents- this.fed/this.config.getBushelsPerResident();
-		if(peopleStarved < 0)
-			peopleStarved = 0;
-		int peopleStarvedPercentage = (peopleStarved*100) / this.residents;
-		
-		//Calculate the new population size
-		int newResidents = 0;
-		if(peopleStarvedPercentage < 40)
-			newResidents = (this.residents * this.fortune.nextInt(40))/100;
-		this.residents -= peopleStarved;
-		if(this.residents + newResidents >= 0) //Avoid integer overflow
-			this.residents += newResidents;
-		else 
-			this.residents = Integer.MAX_VALUE;
-
-		//Calculation of the harvest:
-		int[] harvested = new int[Game.GrainType.values().length];
-		Grain.Conditions thisYearsConditions = Grain.Conditions.generateRandomConditions();
-
-		boolean drought = this.fortune.nextFloat() > 0.8 ? true : false;
-		boolean fusarium = this.fortune.nextFloat() > 0.8 ? true : false;
-		boolean leafDrought = this.fortune.nextFloat() > 0.8 ? true : false;
-		boolean powderyMildew = this.fortune.nextFloat() > 0.8 ? true : false;
-		boolean barleyGoutFly = this.fortune.nextFloat() > 0.8 ? true : false;
-		boolean deliaFly = this.fortune.nextFloat() > 0.8 ? true : false;
-		boolean fritFly = this.fortune.nextFloat() > 0.8 ? true : false;
-		
-		for(int i = 0; i< Game.GrainType.values().length; i++) {
-			if(this.planted[i] != null) {
-				this.planted[i].grow(thisYearsConditions);
-				if(drought)
-					this.planted[i].drought();
-				if(fusarium)
-					this.planted[i].diseaseOutbreak(Grain.Diseases.Fusarium, thisYearsConditions);
-				if(leafDrought)
-					this.planted[i].diseaseOutbreak(Grain.Diseases.LeafDrought, thisYearsConditions);
-				if(powderyMildew)
-					this.planted[i].diseaseOutbreak(Grain.Diseases.PowderyMildew, thisYearsConditions);
-				if(barleyGoutFly)
-					this.planted[i].pestInfestation(Grain.Pests.BarleyGoutFly, thisYearsConditions);
-				if(deliaFly)
-					this.planted[i].pestInfestation(Grain.Pests.DeliaFly, thisYearsConditions);
-				if(fritFly)
-					this.planted[i].pestInfestation(Grain.Pests.FritFly, thisYearsConditions);
-				harvested[i] = this.planted[i].harvest();	
-			}
-		}		
-		Harvest[] thisYearsHarvest = new Harvest[] {Harvest.createHarvest(Game.GrainType.BARLEY, harvested[Game.GrainType.BARLEY.ordinal()], this.year), 
-		        Harvest.createHarvest(Game.GrainType.CORN, harvested[Game.GrainType.CORN.ordinal()], this.year), 
-		        Harvest.createHarvest(Game.GrainType.MILLET, harvested[Game.GrainType.MILLET.ordinal()], this.year), 
-		        Harvest.createHarvest(Game.GrainType.RICE, harvested[Game.GrainType.RICE.ordinal()], this.year), 
-		        Harvest.createHarvest(Game.GrainType.RYE, harvested[Game.GrainType.RYE.ordinal()], this.year), 
-		        Harvest.createHarvest(Game.GrainType.WHEAT, harvested[Game.GrainType.WHEAT.ordinal()], this.year)};
-		
-		for(Harvest h : thisYearsHarvest)
-			this.depot.store(h); //Issue #40
-		
-		//Calculation of how much grain was eaten by rats: 
-		int ateByRates = 0;
-		if(this.depot.getTotalFillLevel() > 0)
-			ateByRates = this.fortune.nextInt((this.depot.getTotalFillLevel()*this.config.getMaxRateInfestation())/100);
-		this.depot.takeOut(ateByRates);
-		
-		//Bushels in the depot decay. 
-		int bushelsDecayed = this.depot.decay(this.year);
-		
-		//Increment the year by 1:
-		this.year++;
-		
-		
-		return new TurnResult(this.name, 
-				this.year, 
-				newResidents, 
-				harvested, 
-				this.residents, 
-				this.depot.getBushelsCategorizedByGrainType(), 
-				peopleStarved, 
-				this.acres, 
-				ateByRates, 
-				peopleStarvedPercentage, 
-				bushelsDecayed, 
-				this.depot.totalCapacity(), 
-				this.depot.totalCapacity() - this.depot.getTotalFillLevel(), 
-				this.depot.toString());
+		this.invalidateState();
+		TurnContext context = new TurnContext(this.name, this.residents, this.fed, this.acres, this.year, this.config,
+				this.fortune, this.conditions, this.weather, this.crops, this.planted, this.field, this.depot);
+		this.pipeline.run(context);
+		this.residents = context.getResidents();
+		this.year = context.getYear();
+		this.field = context.getField();
+		Arrays.fill(this.planted, null); // The grain has been harvested, so the next year starts with nothing planted
+		return context.getResult();
+	}
+
+	/**
+	 * Returns the pipeline of stages which make up the turn of the city.
+	 * The pipeline can be changed to replace, reorder or remove stages, or to profile them.
+	 * 
+	 * @return The turn pipeline of the city.
+	 */
+	public TurnPipeline getTurnPipeline() {
+		return this.pipeline;
 	}
 	
 	/**
@@ -388,17 +324,133 @@ public class City extends GameEntity {
 
 	/**
      * Returns the current state of the city.
+     * The state is built on the first call after a mutation of the city and returned by all further calls
+     * until the city is mutated again, so repeated reads between mutations do not scan or copy the depot.
+     * The version of the depot is checked as well, so the state is also rebuilt if the depot changed without going through the city.
+     * The silos of the state are taken from a snapshot of the depot, so building the state leaves the silos of the depot untouched.
      * 
      * @return The CityState object representing the current state.
      */
 	public CityState getState() {
-		return new CityState(this.name, this.getId(), this.residents, this.depot.getBushelsCategorizedByGrainType(), this.acres, this.year, this.depot.totalCapacity() - this.depot.getTotalFillLevel(), this.depot.getSilos());
+		if(this.state == null || this.stateVersion != this.depot.getVersion()) {
+			this.state = new CityState(this.name, this.getId(), this.residents, this.depot.getBushelsCategorizedByGrainTypeLong(), this.acres, this.year, this.depot.totalCapacityLong() - this.depot.getTotalFillLevelLong(), this.depot.snapshot().getSilos());
+			this.stateVersion = this.depot.getVersion();
+		}
+		return this.state;
+	}
+
+	/**
+	 * Drops the cached state of the city before the city is mutated.
+	 * Called only once an order has been validated, so a rejected order keeps the cached state.
+	 */
+	private void invalidateState() {
+		this.state = null;
+	}
+
+	/**
+	 * Returns the number of residents without copying the state of the city.
+	 * 
+	 * @return The number of residents.
+	 */
+	int getResidents() {
+		return this.residents;
+	}
+
+	/**
+	 * Returns the number of acres without copying the state of the city.
+	 * 
+	 * @return The number of acres.
+	 */
+	int getAcres() {
+		return this.acres;
+	}
+
+	/**
+	 * Returns the current year without copying the state of the city.
+	 * 
+	 * @return The current year.
+	 */
+	int getYear() {
+		return this.year;
+	}
+
+	/**
+	 * Returns the number of bushels fed to the residents for the next turn.
+	 * 
+	 * @return The bushels fed, or -1 if the residents were never fed.
+	 */
+	int getFed() {
+		return this.fed;
+	}
+
+	/**
+	 * Restores the number of bushels fed to the residents for the next turn, e.g. from a {@link CityJournal} snapshot.
+	 * 
+	 * @param fed The bushels fed.
+	 */
+	void setFed(int fed) {
+		this.fed = fed;
+	}
+
+	/**
+	 * Returns the conditions of the last year. The weather of the next year may depend on them, see {@link WeatherModel}.
+	 * 
+	 * @return The conditions object of the city, changed in place by every turn.
+	 */
+	Grain.Conditions getConditions() {
+		return this.conditions;
+	}
+
+	/**
+	 * Returns the depot of the city itself. The depot must only be read, orders go through the city.
+	 * 
+	 * @return The depot of the city.
+	 */
+	Depot getDepot() {
+		return this.depot;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the city's depot.
+	 * 
+	 * @return The snapshot of the depot.
+	 * @see Depot#snapshot()
+	 */
+	public DepotSnapshot getDepotSnapshot() {
+		return this.depot.snapshot();
+	}
+
+	/**
+	 * Sets the crop registry from which the city creates the grain it plants.
+	 * By default, the city uses {@link CropRegistry#getDefault()}.
+	 *
+	 * @param crops The crop registry.
+	 * @throws IllegalArgumentException If the crop registry is null.
+	 */
+	public void setCropRegistry(CropRegistry crops) {
+		if(crops == null)
+			throw new IllegalArgumentException("The crop registry cannot be null.");
+		this.crops = crops;
+	}
+
+	/**
+	 * Sets the weather model which determines the conditions of each year from those of the year before.
+	 * By default, the city uses {@link IndependentWeather}.
+	 *
+	 * @param weather The weather model.
+	 * @throws IllegalArgumentException If the weather model is null.
+	 */
+	public void setWeatherModel(WeatherModel weather) {
+		if(weather == null)
+			throw new IllegalArgumentException("The weather model cannot be null.");
+		this.weather = weather;
 	}
 
 	/**
 	 * The method sets bushels and acres to max integer when the cheat code IDKFA was entered. Used for testing the game.
 	 */
 	public void IDKFA() {
+		this.invalidateState();
 	    this.depot.expand(6, Integer.MAX_VALUE);
 	    this.depot.store(Harvest.createHarvest(Game.GrainType.BARLEY, 100000, this.year)); 
 	    this.depot.store(Harvest.createHarvest(Game.GrainType.CORN, 100000, this.year)); 
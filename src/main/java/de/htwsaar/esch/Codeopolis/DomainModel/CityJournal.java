@@ -0,0 +1,538 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+import de.htwsaar.esch.Codeopolis.Utils.SplitMixRandom;
+
+/**
+ * The CityJournal class runs a city in event-sourced mode.
+ *
+ * Every order given to the city and the outcome of every turn is appended to a compact binary command log in the directory
+ * of the journal. The city draws its fortune from a {@link SplitMixRandom}, whose state is just its seed and position, so a
+ * turn record only needs the position of the generator after the turn to pin down every random number drawn during the turn.
+ * Every few years, right after a turn, the journal writes a full snapshot of the city together with the length of the log
+ * at that time.
+ *
+ * {@link #open(Path)} restores a city after a crash by loading the latest snapshot and replaying only the tail of the log.
+ * {@link #audit(Path, int)} reconstructs the state of the city in any past year the same way, starting at the latest
+ * snapshot before that year. Replaying a turn checks its outcome against the log, so a log that does not fit
+ * the snapshot is detected instead of silently producing a different city. A record that was only partially written
+ * when the process died is discarded.
+ *
+ * Log format: a header (magic number, format version, snapshot interval), then one record per order or turn,
+ * each starting with a one-byte opcode followed by its int and long arguments in big-endian byte order.
+ */
+public final class CityJournal implements Closeable {
+	/**
+	 * The number of years between two snapshots if not specified otherwise.
+	 */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 10;
+
+	private static final String LOG = "commands.log";
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".bin";
+	private static final int MAGIC = 0x434A4C47; // "CJLG"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+
+	private static final byte EXPAND_DEPOT = 1;
+	private static final byte BUY = 2;
+	private static final byte SELL = 3;
+	private static final byte FEED = 4;
+	private static final byte PLANT = 5;
+	private static final byte TURN = 6;
+
+	/**
+	 * The state of the city right after a turn, together with the length of the log at that time.
+	 */
+	private static final class Snapshot implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final CityState state;
+		private final GameConfig config;
+		private final int fed;
+		private final float soilConditions;
+		private final float averageTemperatureSummer;
+		private final float averageTemperatureWinter;
+		private final int events;
+		private final long seed;
+		private final long position;
+		private final long logOffset;
+
+		private Snapshot(City city, GameConfig config, SplitMixRandom random, long logOffset) {
+			Grain.Conditions conditions = city.getConditions();
+			this.state = city.getState();
+			this.config = config;
+			this.fed = city.getFed();
+			this.soilConditions = conditions.getSoilConditions();
+			this.averageTemperatureSummer = conditions.getAverageTemperatureSummer();
+			this.averageTemperatureWinter = conditions.getAverageTemperatureWinter();
+			this.events = conditions.getEvents();
+			this.seed = random.getSeed();
+			this.position = random.getPosition();
+			this.logOffset = logOffset;
+		}
+
+		/**
+		 * Creates a city in the state of the snapshot, drawing its fortune from the given generator.
+		 */
+		private City restore(SplitMixRandom random) {
+			City city = new City(this.state, this.config, random);
+			random.setPosition(this.position);
+			city.setFed(this.fed);
+			Grain.Conditions conditions = city.getConditions();
+			conditions.setSoilConditions(this.soilConditions);
+			conditions.setAverageTemperatureSummer(this.averageTemperatureSummer);
+			conditions.setAverageTemperatureWinter(this.averageTemperatureWinter);
+			conditions.setEvents(this.events);
+			return city;
+		}
+	}
+
+	private final Path directory;
+	private final City city;
+	private final GameConfig config;
+	private final SplitMixRandom random;
+	private final int snapshotInterval;
+	private final FileChannel log;
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+	private final DataOutputStream record = new DataOutputStream(this.buffer);
+	private long logOffset;
+
+	private CityJournal(Path directory, City city, GameConfig config, SplitMixRandom random, int snapshotInterval, FileChannel log, long logOffset) {
+		this.directory = directory;
+		this.city = city;
+		this.config = config;
+		this.random = random;
+		this.snapshotInterval = snapshotInterval;
+		this.log = log;
+		this.logOffset = logOffset;
+	}
+
+	/**
+	 * Creates a journal with a new city, taking a snapshot every {@link #DEFAULT_SNAPSHOT_INTERVAL} years.
+	 *
+	 * @param directory  The directory of the journal, created if it does not exist.
+	 * @param id         The ID of the city.
+	 * @param name       The name of the city.
+	 * @param difficulty The difficulty level of the city.
+	 * @param seed       The seed of the random generator of the city.
+	 * @return The journal.
+	 * @throws IOException If the journal cannot be written, or the directory already contains a journal.
+	 */
+	public static CityJournal create(Path directory, String id, String name, Game.Difficulty difficulty, long seed) throws IOException {
+		return create(directory, id, name, difficulty, seed, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Creates a journal with a new city.
+	 *
+	 * @param directory        The directory of the journal, created if it does not exist.
+	 * @param id               The ID of the city.
+	 * @param name             The name of the city.
+	 * @param difficulty       The difficulty level of the city.
+	 * @param seed             The seed of the random generator of the city.
+	 * @param snapshotInterval The number of years between two snapshots.
+	 * @return The journal.
+	 * @throws IOException If the journal cannot be written, or the directory already contains a journal.
+	 * @throws IllegalArgumentException If the snapshot interval is not positive.
+	 */
+	public static CityJournal create(Path directory, String id, String name, Game.Difficulty difficulty, long seed, int snapshotInterval) throws IOException {
+		if(snapshotInterval <= 0)
+			throw new IllegalArgumentException("The snapshot interval must be positive: " + snapshotInterval);
+		Files.createDirectories(directory);
+		Path logFile = directory.resolve(LOG);
+		if(Files.exists(logFile))
+			throw new FileAlreadyExistsException(logFile.toString());
+
+		SplitMixRandom random = new SplitMixRandom(seed);
+		GameConfig config = new GameConfig(difficulty, random);
+		City city = new City(id, name, config, random);
+
+		FileChannel log = FileChannel.open(logFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		CityJournal journal = new CityJournal(directory, city, config, random, snapshotInterval, log, 0);
+		journal.record.writeInt(MAGIC);
+		journal.record.writeInt(VERSION);
+		journal.record.writeInt(snapshotInterval);
+		journal.flushRecord();
+		journal.snapshot();
+		return journal;
+	}
+
+	/**
+	 * Opens an existing journal and restores its city from the latest snapshot and the tail of the log.
+	 * A record at the end of the log which was only partially written is discarded.
+	 *
+	 * @param directory The directory of the journal.
+	 * @return The journal, continuing the log where it ended.
+	 * @throws IOException If the journal cannot be read.
+	 * @throws IllegalStateException If the log does not fit the snapshot.
+	 */
+	public static CityJournal open(Path directory) throws IOException {
+		Snapshot snapshot = readSnapshot(directory, Integer.MAX_VALUE);
+		SplitMixRandom random = new SplitMixRandom(snapshot.seed);
+		City city = snapshot.restore(random);
+		int snapshotInterval;
+		long end;
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(LOG))))) {
+			snapshotInterval = readHeader(in);
+			in.skipNBytes(snapshot.logOffset - HEADER_SIZE);
+			end = replay(in, city, random, snapshot.logOffset, Integer.MAX_VALUE);
+		}
+
+		FileChannel log = FileChannel.open(directory.resolve(LOG), StandardOpenOption.WRITE);
+		log.truncate(end);
+		log.position(end);
+		return new CityJournal(directory, city, snapshot.config, random, snapshotInterval, log, end);
+	}
+
+	/**
+	 * Reconstructs the state of the city of a journal at the end of a past year.
+	 * Only the log between the latest snapshot before that year and the end of the year is replayed.
+	 *
+	 * @param directory The directory of the journal.
+	 * @param year      The year, 0 for the state of the new city.
+	 * @return The state of the city at the end of the year.
+	 * @throws IOException If the journal cannot be read.
+	 * @throws IllegalArgumentException If the journal does not reach the year.
+	 * @throws IllegalStateException If the log does not fit the snapshot.
+	 */
+	public static CityState audit(Path directory, int year) throws IOException {
+		Snapshot snapshot = readSnapshot(directory, year);
+		SplitMixRandom random = new SplitMixRandom(snapshot.seed);
+		City city = snapshot.restore(random);
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(LOG))))) {
+			readHeader(in);
+			in.skipNBytes(snapshot.logOffset - HEADER_SIZE);
+			replay(in, city, random, snapshot.logOffset, year);
+		}
+		if(city.getYear() != year)
+			throw new IllegalArgumentException("The journal ends in year " + city.getYear() + " before year " + year + ".");
+		return city.getState();
+	}
+
+	private static int readHeader(DataInputStream in) throws IOException {
+		if(in.readInt() != MAGIC)
+			throw new IOException("Not a city journal.");
+		int version = in.readInt();
+		if(version != VERSION)
+			throw new IOException("Unsupported journal version " + version + ".");
+		return in.readInt();
+	}
+
+	/**
+	 * Applies the records of the log to the city until the log ends or the city reaches the given year.
+	 *
+	 * @return The offset behind the last complete record that was applied.
+	 */
+	private static long replay(DataInputStream in, City city, SplitMixRandom random, long offset, int untilYear) throws IOException {
+		while(city.getYear() < untilYear) {
+			int opcode = in.read();
+			if(opcode < 0)
+				return offset;
+			try {
+				switch(opcode) {
+				case EXPAND_DEPOT:
+					city.expandDepot(in.readInt(), in.readInt());
+					offset += 9;
+					break;
+				case BUY:
+					city.buy(in.readInt(), in.readInt());
+					offset += 9;
+					break;
+				case SELL:
+					city.sell(in.readInt(), in.readInt());
+					offset += 9;
+					break;
+				case FEED:
+					city.feed(in.readInt());
+					offset += 5;
+					break;
+				case PLANT:
+					int[] acres = new int[in.readUnsignedByte()];
+					for(int i = 0; i < acres.length; i++)
+						acres[i] = in.readInt();
+					city.plant(acres);
+					offset += 2 + 4 * acres.length;
+					break;
+				case TURN:
+					int year = in.readInt();
+					int residents = in.readInt();
+					long bushels = in.readLong();
+					long position = in.readLong();
+					city.runTurn();
+					if(city.getYear() != year || city.getResidents() != residents
+							|| city.getDepot().getTotalFillLevelLong() != bushels || random.getPosition() != position)
+						throw new IllegalStateException("The replay of year " + year + " does not match the log.");
+					offset += 25;
+					break;
+				default:
+					throw new IOException("Unknown record " + opcode + " at offset " + offset + ".");
+				}
+			}
+			catch(EOFException e) {
+				return offset; // The last record was not written completely
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Reads the latest snapshot taken at the end of the given year or earlier.
+	 */
+	private static Snapshot readSnapshot(Path directory, int year) throws IOException {
+		Path latest = null;
+		int latestYear = -1;
+		try(Stream<Path> files = Files.list(directory)) {
+			for(Path file : (Iterable<Path>) files::iterator) {
+				String name = file.getFileName().toString();
+				if(name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+					int snapshotYear = Integer.parseInt(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+					if(snapshotYear <= year && snapshotYear > latestYear) {
+						latest = file;
+						latestYear = snapshotYear;
+					}
+				}
+			}
+		}
+		if(latest == null)
+			throw new NoSuchFileException(directory.resolve(SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX).toString());
+		try(ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(latest)))) {
+			return (Snapshot) in.readObject();
+		}
+		catch(ClassNotFoundException e) {
+			throw new IOException("Invalid snapshot " + latest + ".", e);
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the city at the current end of the log. The snapshot is written to a temporary file first
+	 * and then moved into place, so a crash never leaves a partial snapshot behind.
+	 */
+	private void snapshot() throws IOException {
+		Path file = this.directory.resolve(String.format("%s%010d%s", SNAPSHOT_PREFIX, this.city.getYear(), SNAPSHOT_SUFFIX));
+		Path temporary = this.directory.resolve(file.getFileName() + ".tmp");
+		try(ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			out.writeObject(new Snapshot(this.city, this.config, this.random, this.logOffset));
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Appends the record in the buffer to the log with a single write.
+	 */
+	private void flushRecord() throws IOException {
+		this.record.flush();
+		ByteBuffer bytes = ByteBuffer.wrap(this.buffer.toByteArray());
+		while(bytes.hasRemaining())
+			this.log.write(bytes);
+		this.logOffset += this.buffer.size();
+		this.buffer.reset();
+	}
+
+	private void append(byte opcode, int first, int second) {
+		try {
+			this.record.writeByte(opcode);
+			this.record.writeInt(first);
+			this.record.writeInt(second);
+			this.flushRecord();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Expands the depot of the city, see {@link City#expandDepot(int, int)}, and logs the order.
+	 *
+	 * @param numberOfSilos   The number of silos to add.
+	 * @param capacityPerSilo The capacity of each silo.
+	 * @throws UncheckedIOException If the order cannot be logged.
+	 */
+	public void expandDepot(int numberOfSilos, int capacityPerSilo) {
+		this.city.expandDepot(numberOfSilos, capacityPerSilo);
+		this.append(EXPAND_DEPOT, numberOfSilos, capacityPerSilo);
+	}
+
+	/**
+	 * Buys land for the city, see {@link City#buy(int, int)}, and logs the order if it was carried out.
+	 *
+	 * @param price The price per acre.
+	 * @param acres The number of acres to buy.
+	 * @throws UncheckedIOException If the order cannot be logged.
+	 */
+	public void buy(int price, int acres) {
+		this.city.buy(price, acres);
+		this.append(BUY, price, acres);
+	}
+
+	/**
+	 * Sells land of the city, see {@link City#sell(int, int)}, and logs the order if it was carried out.
+	 *
+	 * @param price The price per acre.
+	 * @param acres The number of acres to sell.
+	 * @throws UncheckedIOException If the order cannot be logged.
+	 */
+	public void sell(int price, int acres) {
+		this.city.sell(price, acres);
+		this.append(SELL, price, acres);
+	}
+
+	/**
+	 * Feeds the residents of the city, see {@link City#feed(int)}, and logs the order if it was carried out.
+	 *
+	 * @param feed The number of bushels to feed.
+	 * @throws UncheckedIOException If the order cannot be logged.
+	 */
+	public void feed(int feed) {
+		this.city.feed(feed);
+		try {
+			this.record.writeByte(FEED);
+			this.record.writeInt(feed);
+			this.flushRecord();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Plants grain in the city, see {@link City#plant(int[])}, and logs the order if it was carried out.
+	 *
+	 * @param acres The number of acres to plant of each grain type.
+	 * @throws UncheckedIOException If the order cannot be logged.
+	 */
+	public void plant(int[] acres) {
+		this.city.plant(acres);
+		try {
+			this.record.writeByte(PLANT);
+			this.record.writeByte(acres.length);
+			for(int acre : acres)
+				this.record.writeInt(acre);
+			this.flushRecord();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Runs a turn of the city, see {@link City#runTurn()}, and logs its outcome.
+	 * Every {@link #getSnapshotInterval()} years, a snapshot of the city is taken after the turn.
+	 *
+	 * @return The result of the turn.
+	 * @throws UncheckedIOException If the outcome or the snapshot cannot be written.
+	 */
+	public TurnResult runTurn() {
+		TurnResult result = this.city.runTurn();
+		try {
+			this.record.writeByte(TURN);
+			this.record.writeInt(this.city.getYear());
+			this.record.writeInt(this.city.getResidents());
+			this.record.writeLong(this.city.getDepot().getTotalFillLevelLong());
+			this.record.writeLong(this.random.getPosition());
+			this.flushRecord();
+			if(this.city.getYear() % this.snapshotInterval == 0)
+				this.snapshot();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Forces the log to the storage device, so it survives a crash of the operating system as well.
+	 * Without calling this method, the log survives a crash of the process.
+	 *
+	 * @throws IOException If the log cannot be forced.
+	 */
+	public void sync() throws IOException {
+		this.log.force(false);
+	}
+
+	/**
+	 * Returns the current state of the city.
+	 *
+	 * @return The state of the city.
+	 */
+	public CityState getState() {
+		return this.city.getState();
+	}
+
+	/**
+	 * Checks if the city is extinct.
+	 *
+	 * @return True if the city is extinct, false otherwise.
+	 */
+	public boolean cityExtinct() {
+		return this.city.cityExtinct();
+	}
+
+	/**
+	 * Returns an immutable snapshot of the city's depot.
+	 *
+	 * @return The snapshot of the depot.
+	 */
+	public DepotSnapshot getDepotSnapshot() {
+		return this.city.getDepotSnapshot();
+	}
+
+	/**
+	 * Returns the configuration of the city.
+	 *
+	 * @return The game configuration.
+	 */
+	public GameConfig getConfig() {
+		return this.config;
+	}
+
+	/**
+	 * Returns the number of years between two snapshots.
+	 *
+	 * @return The snapshot interval.
+	 */
+	public int getSnapshotInterval() {
+		return this.snapshotInterval;
+	}
+
+	/**
+	 * Returns the length of the log in bytes.
+	 *
+	 * @return The length of the log.
+	 */
+	public long getLogSize() {
+		return this.logOffset;
+	}
+
+	/**
+	 * Closes the log. The journal can be opened again with {@link #open(Path)}.
+	 *
+	 * @throws IOException If the log cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.log.close();
+	}
+}
@@ -4,19 +4,23 @@ import java.io.Serializable;
 import java.util.Arrays;
 
 import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+import de.htwsaar.esch.Codeopolis.Utils.LongAccounting;
 
 /**
  * Represents the state of a city.
+ * A state is shared by all readers of the city until the city changes, see {@link City#getState()},
+ * so it hands out copies of its arrays and silos.
  */
 public class CityState implements Serializable{
 	private int residents;
 	private int[] bushels;
+	private long[] bushelsLong;
 	private int acres;
 	private int year;
 	private String name;
 	private String id;
 	private LinkedList<Silo> silos;
-	private int freeStorage;
+	private long freeStorage;
 	
 	/**
      * Constructs a new CityState object with the specified residents, bushels, and acres.
@@ -35,6 +39,32 @@ public class CityState implements Serializable{
 		this.id = id;
 		this.residents = residents;
 		this.bushels = bushels;
+		this.bushelsLong = LongAccounting.toLong(bushels);
+		this.acres = acres;
+		this.year = year;
+		this.freeStorage = freeStorage;
+		this.silos = silos;
+	}
+	
+	/**
+     * Constructs a new CityState object with 64-bit bushel counts and free storage.
+     * Used for depots whose contents or capacity exceed the range of int.
+     * 
+     * @param name      The name of the city.
+     * @param id        The unique identifier of the city.
+     * @param residents The number of residents in the city.
+     * @param bushels   The stockpile of bushels in the city, divided by grain type.
+     * @param acres     The amount of land area of the city.
+     * @param year      The current year of the city state.
+     * @param freeStorage The number of free storage. 
+     * @param silos     The array of silos representing the city's grain storage facilities.
+     */
+	public CityState(String name, String id, int residents, long[] bushels, int acres, int year, long freeStorage, LinkedList<Silo> silos) {
+		this.name = name;
+		this.id = id;
+		this.residents = residents;
+		this.bushels = LongAccounting.toIntSaturated(bushels);
+		this.bushelsLong = bushels;
 		this.acres = acres;
 		this.year = year;
 		this.freeStorage = freeStorage;
@@ -62,30 +92,50 @@ public class CityState implements Serializable{
 
     /**
      * Returns the number of free storage. 
-     * @return The number of free storage. 
+     * @return The number of free storage, saturated at {@link Integer#MAX_VALUE}. 
      */
 	public int getFreeStorage() {
+		return LongAccounting.toIntSaturated(this.freeStorage);
+	}
+	
+    /**
+     * Returns the number of free storage as a 64-bit value. 
+     * @return The number of free storage. 
+     */
+	public long getFreeStorageLong() {
 		return this.freeStorage;
 	}
 	
     /**
-     * Returns the silos in the city.
+     * Returns copies of the silos in the city. The silos of a state are never modified,
+     * so the stock of the copies is shared copy-on-write, see {@link Silo#Silo(Silo, boolean)}.
      *
      * @return The array of silos.
      */
     public LinkedList<Silo> getSilos() {
-        return silos;
+        LinkedList<Silo> silosCopy = new LinkedList<Silo>();
+        this.silos.forEach(silo -> silosCopy.addLast(new Silo(silo, true)));
+        return silosCopy;
     }
 
     /**
      * Returns the total number of bushels in the city.
      *
-     * @return The total number of bushels.
+     * @return The total number of bushels, saturated at {@link Integer#MAX_VALUE}.
      */
 	public int getTotalAmountOfBushels() {
-		int total = 0;
+	    return LongAccounting.toIntSaturated(this.getTotalAmountOfBushelsLong());
+	}
+	
+    /**
+     * Returns the total number of bushels in the city as a 64-bit value.
+     *
+     * @return The total number of bushels.
+     */
+	public long getTotalAmountOfBushelsLong() {
+		long total = 0;
 	    for (Game.GrainType grainType : Game.GrainType.values()) {
-	        total += this.bushels[grainType.ordinal()];
+	        total += this.bushelsLong[grainType.ordinal()];
 	    }
 	    return total;
 	}
@@ -99,14 +149,24 @@ public class CityState implements Serializable{
 	public int getBushels(Game.GrainType grainType) {
 		return bushels[grainType.ordinal()];
 	}
+	
+    /**
+     * Returns the number of bushels of a specific grain type in the city as a 64-bit value.
+     *
+     * @param grainType The type of grain.
+     * @return The number of bushels of the specified grain type.
+     */
+	public long getBushelsLong(Game.GrainType grainType) {
+		return bushelsLong[grainType.ordinal()];
+	}
 
 	/**
      * Returns the number of bushels in the city.
      * 
-     * @return The number of bushels.
+     * @return A copy of the number of bushels of each grain type.
      */
 	public int[] getBushels() {
-		return bushels;
+		return bushels.clone();
 	}
 
 	/**
@@ -173,7 +233,7 @@ public class CityState implements Serializable{
                 acres == other.acres &&
                 year == other.year &&
                 name.equals(other.name) &&
-                Arrays.equals(bushels, other.bushels) &&
+                Arrays.equals(bushelsLong, other.bushelsLong) &&
                 silos.equals(other.silos);
     }
 
@@ -5,33 +5,62 @@ import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
 import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.*;
 import de.htwsaar.esch.Codeopolis.Utils.DepotVisualizer;
 import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+import de.htwsaar.esch.Codeopolis.Utils.LongAccounting;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
 
+/**
+ * The Depot class manages the silos of a city. The silos are organized in warehouses of up to
+ * {@link Warehouse#CAPACITY} silos, which keep subtotals per grain type. Aggregate queries are answered
+ * from these subtotals, and storing and taking out grain only visits warehouses that can contribute.
+ */
 public class Depot {
-    private LinkedList<Silo> silos;
+	private static final DepotListener[] NO_LISTENERS = new DepotListener[0];
+	
+    private Warehouse[] warehouses;
+    private int warehouseCount = 0;
+    private int siloCount = 0;
+    private Object epoch = new Object(); // Epochs are told apart by identity, so no counter is shared between depots
+    private boolean warehousesShared = false;
+    private long version = 0;
+    private DepotSnapshot snapshot;
+    private DepotListener[] listeners = NO_LISTENERS;
+    private int batchDepth = 0;
+    private boolean batchFailed = false;
+    private DepotEvent[] pendingEvents;
+    private int pendingEventCount = 0;
     
     private class DepotIterator implements Iterator<Status> {
+    	private int warehouse;
     	private int index;
     	private GrainType type;
     	
     	public DepotIterator(GrainType type) {
+    		this.warehouse = 0;
     		this.index = 0;
     		this.type = type;
     	}
     	
 		@Override
 		public boolean hasNext() {
-			for(int currentPosition = this.index; currentPosition < silos.size(); currentPosition++) {
-				Silo silo = silos.get(currentPosition);
+			for(; this.warehouse < warehouseCount; this.warehouse++, this.index = 0) {
+				Warehouse currentWarehouse = warehouses[this.warehouse];
+				if(!currentWarehouse.contains(this.type) && !currentWarehouse.contains(null)) {
+					continue;
+				}
 				
-				if(silo.getGrainType() == this.type || (silo.getGrainType() == null && silo.getFillLevel() == 0)) {
-					index = currentPosition;
-					return true;
+				for(; this.index < currentWarehouse.size(); this.index++) {
+					Silo silo = currentWarehouse.silo(this.index);
+					
+					if(silo.getGrainType() == this.type || (silo.getGrainType() == null && silo.getFillLevel() == 0)) {
+						return true;
+					}
 				}
 			}
 			
@@ -44,7 +73,7 @@ public class Depot {
 				throw new NoSuchElementException();
 			}
 			
-			Silo currentSilo = silos.get(index);
+			Silo currentSilo = warehouses[this.warehouse].silo(this.index);
 			this.index++;
 			return currentSilo.getStatus();
 		}
@@ -58,99 +87,424 @@ public class Depot {
      * @param capacityPerSilo  The capacity per silo.
      */
     public Depot(int numberOfSilos, int capacityPerSilo) {
-        this.silos = new LinkedList<Silo>();
+        this.warehouses = new Warehouse[Math.max(1, (numberOfSilos + Warehouse.CAPACITY - 1) / Warehouse.CAPACITY)];
         for (int index = 0; index < numberOfSilos; index++) {
-            this.silos.addLast(new Silo(capacityPerSilo));
+            this.addSilo(new Silo(capacityPerSilo));
         }
     }
     
     /**
      * Constructs a Depot object with the specified array of silos.
-     * Each silo in the array is deeply copied to ensure that the Depot has its own separate instances.
+     * Each silo in the array is copied to ensure that the Depot has its own separate instances.
+     * The copies share their stock copy-on-write, see {@link Silo#Silo(Silo)}.
      *
      * @param silosArray The array of Silo objects to be copied into the depot.
      */
     public Depot(LinkedList<Silo> silos) {
-    	if (silos == null) {
-            this.silos = silos;
-        } else {
-            this.silos = new LinkedList<Silo>();
+    	if (silos != null) {
+            this.warehouses = new Warehouse[Math.max(1, (silos.size() + Warehouse.CAPACITY - 1) / Warehouse.CAPACITY)];
             
-            silos.forEach(this.silos::addLast);
+            silos.forEach(silo -> this.addSilo(new Silo(silo)));
         }
     }
+    
+    /**
+     * Constructs a Depot object on top of the given warehouses without copying them.
+     * Used by {@link DepotSnapshot} to provide read access to the warehouses of a snapshot.
+     * The depot starts in its own epoch, so none of the shared warehouses is ever modified in place.
+     *
+     * @param warehouses     The warehouses of the depot.
+     * @param warehouseCount The number of warehouses in use.
+     * @param siloCount      The number of silos in the warehouses.
+     */
+    Depot(Warehouse[] warehouses, int warehouseCount, int siloCount) {
+    	this.warehouses = warehouses;
+    	this.warehouseCount = warehouseCount;
+    	this.siloCount = siloCount;
+    	this.warehousesShared = true;
+    }
+    
+    /**
+     * Returns the version of the depot. The version is incremented by every modification of the depot,
+     * so two snapshots with the same version show the same content.
+     *
+     * @return The current version of the depot.
+     */
+    public long getVersion() {
+    	return this.version;
+    }
+    
+    /**
+     * Takes an immutable snapshot of the depot.
+     * Taking a snapshot is O(1): the snapshot keeps the current warehouses, and the depot starts a new epoch.
+     * The first modification after a snapshot copies the list of warehouses, each warehouse is copied when
+     * one of its silos is modified for the first time, and each silo copies its stock only when it is modified itself.
+     * As long as the depot is not modified, repeated calls return the same snapshot.
+     *
+     * @return An immutable snapshot of the current state of the depot.
+     */
+    public DepotSnapshot snapshot() {
+    	if(this.snapshot == null || this.snapshot.getVersion() != this.version) {
+    		this.snapshot = new DepotSnapshot(new Depot(this.warehouses, this.warehouseCount, this.siloCount), this.version);
+    		this.warehousesShared = true;
+    		this.epoch = new Object();
+    	}
+    	return this.snapshot;
+    }
+    
+    /**
+     * Creates a new query over a snapshot of the depot.
+     *
+     * @return A query matching all silos of the depot.
+     * @see DepotSnapshot#query()
+     */
+    public DepotQuery query() {
+    	return this.snapshot().query();
+    }
+    
+    /**
+     * Prepares the depot for a modification. 
+     * If the list of warehouses is still shared with a snapshot, the depot continues on a copy of the list.
+     * The warehouses themselves are copied on demand by {@link #writable(int)}.
+     */
+    private void beforeModification() {
+    	if(this.warehousesShared) {
+    		this.warehouses = Arrays.copyOf(this.warehouses, this.warehouses.length);
+    		this.warehousesShared = false;
+    	}
+    	this.version++;
+    }
+    
+    /**
+     * Returns a warehouse that may be modified by the depot.
+     * Warehouses from an earlier epoch may be shared with a snapshot and are replaced by a copy first.
+     *
+     * @param warehouse The index of the warehouse.
+     * @return The warehouse, owned by the current epoch of the depot.
+     */
+    private Warehouse writable(int warehouse) {
+    	Warehouse current = this.warehouses[warehouse];
+    	if(current.getEpoch() != this.epoch) {
+    		current = current.copy(this.epoch);
+    		this.warehouses[warehouse] = current;
+    	}
+    	return current;
+    }
+    
+    /**
+     * Appends a silo to the last warehouse of the depot, opening a new warehouse if the last one is full.
+     *
+     * @param silo The silo to append.
+     */
+    private void addSilo(Silo silo) {
+    	if(this.warehouseCount == 0 || this.warehouses[this.warehouseCount - 1].isFull()) {
+    		if(this.warehouseCount == this.warehouses.length) {
+    			this.warehouses = Arrays.copyOf(this.warehouses, this.warehouses.length * 2);
+    		}
+    		this.warehouses[this.warehouseCount++] = new Warehouse(this.epoch);
+    	}
+    	this.writable(this.warehouseCount - 1).add(silo);
+    	this.siloCount++;
+    }
+    
+    /**
+     * Returns the silo at the given position of the depot. The silo must not be modified.
+     *
+     * @param position The position of the silo.
+     * @return The silo at the given position.
+     * @throws IndexOutOfBoundsException If the position does not exist.
+     */
+    Silo silo(int position) throws IndexOutOfBoundsException {
+    	if(position < 0 || position >= this.siloCount) {
+    		throw new IndexOutOfBoundsException();
+    	}
+    	return this.warehouses[position / Warehouse.CAPACITY].silo(position % Warehouse.CAPACITY);
+    }
+    
+    /**
+     * Returns the number of silos in the depot.
+     *
+     * @return The number of silos.
+     */
+    int siloCount() {
+    	return this.siloCount;
+    }
+    
+    /**
+     * Performs the given action for each silo of the depot in depot order. The silos must not be modified.
+     *
+     * @param action The action to perform.
+     */
+    void forEachSilo(Consumer<Silo> action) {
+    	for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    		for(int index = 0; index < this.warehouses[warehouse].size(); index++) {
+    			action.accept(this.warehouses[warehouse].silo(index));
+    		}
+    	}
+    }
+
+    /**
+     * Registers a listener that is notified about all changes of the silos of the depot.
+     *
+     * @param listener The listener to register.
+     */
+    public void addListener(DepotListener listener) {
+    	this.listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+    	this.listeners[this.listeners.length - 1] = listener;
+    }
+    
+    /**
+     * Removes a listener registered with {@link #addListener(DepotListener)}.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(DepotListener listener) {
+    	for(int index = 0; index < this.listeners.length; index++) {
+    		if(this.listeners[index] == listener) {
+    			DepotListener[] remaining = new DepotListener[this.listeners.length - 1];
+    			System.arraycopy(this.listeners, 0, remaining, 0, index);
+    			System.arraycopy(this.listeners, index + 1, remaining, index, remaining.length - index);
+    			this.listeners = remaining;
+    			return;
+    		}
+    	}
+    }
+    
+    /**
+     * Starts a batch of events. Operations calling other operations of the depot join the batch of the outermost operation.
+     * Without listeners, no batch is started and no events are recorded.
+     */
+    private void beginBatch() {
+    	if(this.batchDepth > 0 || this.listeners.length > 0) {
+    		this.batchDepth++;
+    	}
+    }
+    
+    /**
+     * Marks the current batch as failed because an operation threw an exception.
+     */
+    private void failBatch() {
+    	if(this.batchDepth > 0) {
+    		this.batchFailed = true;
+    	}
+    }
+    
+    /**
+     * Ends a batch of events. At the end of the outermost operation, the recorded events are delivered to the listeners.
+     * If the operation failed, the events are discarded instead, so listeners are only notified of completed operations
+     * and never run while the exception of the operation propagates.
+     * Every listener is notified even if an earlier one throws; the first exception is rethrown afterwards
+     * with the exceptions of later listeners attached as suppressed exceptions.
+     */
+    private void endBatch() {
+    	if(this.batchDepth == 0 || --this.batchDepth > 0) {
+    		return;
+    	}
+    	
+    	boolean failed = this.batchFailed;
+    	int eventCount = this.pendingEventCount;
+    	DepotEvent[] events = failed || eventCount == 0 ? null : Arrays.copyOf(this.pendingEvents, eventCount);
+    	this.pendingEvents = null;
+    	this.pendingEventCount = 0;
+    	this.batchFailed = false;
+    	if(events == null) {
+    		return;
+    	}
+    	
+    	RuntimeException failure = null;
+    	for(DepotListener listener : this.listeners) {
+    		try {
+    			listener.depotChanged(this, events);
+    		} catch(RuntimeException e) {
+    			if(failure == null)
+    				failure = e;
+    			else
+    				failure.addSuppressed(e);
+    		}
+    	}
+    	if(failure != null) {
+    		throw failure;
+    	}
+    }
+    
+    /**
+     * Records an event for the current batch, if a batch is in progress.
+     *
+     * @param type      The kind of change.
+     * @param position  The position of the silo.
+     * @param grainType The grain type affected by the change.
+     * @param delta     The change of the fill level or capacity of the silo.
+     */
+    private void record(DepotEvent.Type type, int position, GrainType grainType, int delta) {
+    	if(this.batchDepth == 0 || delta == 0) {
+    		return;
+    	}
+    	
+    	if(this.pendingEvents == null) {
+    		this.pendingEvents = new DepotEvent[16];
+    	}
+    	else if(this.pendingEventCount == this.pendingEvents.length) {
+    		this.pendingEvents = Arrays.copyOf(this.pendingEvents, this.pendingEvents.length * 2);
+    	}
+    	this.pendingEvents[this.pendingEventCount++] = new DepotEvent(type, position, grainType, delta);
+    }
+    
+    /**
+     * Stores a harvest in a silo and records the change.
+     *
+     * @param warehouse The index of the warehouse.
+     * @param index     The index of the silo within the warehouse.
+     * @param harvest   The harvest to store.
+     * @return The part of the harvest that could not be stored, or {@code null} if the whole harvest was stored.
+     */
+    private Harvest storeInSilo(int warehouse, int index, Harvest harvest) {
+    	Warehouse currentWarehouse = this.writable(warehouse);
+    	if(this.batchDepth == 0) {
+    		return currentWarehouse.store(index, harvest);
+    	}
+    	int fillLevel = currentWarehouse.silo(index).getFillLevel();
+    	Harvest remaining = currentWarehouse.store(index, harvest);
+    	this.record(DepotEvent.Type.STORED, warehouse * Warehouse.CAPACITY + index, harvest.getGrainType(), currentWarehouse.silo(index).getFillLevel() - fillLevel);
+    	return remaining;
+    }
+    
+    /**
+     * Takes out grain from a silo and records the change.
+     *
+     * @param warehouse The index of the warehouse.
+     * @param index     The index of the silo within the warehouse.
+     * @param amount    The amount of grain to take out.
+     * @return The actual amount of grain taken out.
+     */
+    private int takeOutOfSilo(int warehouse, int index, int amount) {
+    	Warehouse currentWarehouse = this.writable(warehouse);
+    	if(this.batchDepth == 0) {
+    		return currentWarehouse.takeOut(index, amount);
+    	}
+    	GrainType grainType = currentWarehouse.silo(index).getGrainType();
+    	int taken = currentWarehouse.takeOut(index, amount);
+    	this.record(DepotEvent.Type.TAKEN, warehouse * Warehouse.CAPACITY + index, grainType, -taken);
+    	return taken;
+    }
+    
+    /**
+     * Empties a silo and records the change.
+     *
+     * @param warehouse The index of the warehouse.
+     * @param index     The index of the silo within the warehouse.
+     * @return The harvests removed from the silo, or {@code null} if the silo did not contain any harvests.
+     */
+    private LinkedList<Harvest> emptySilo(int warehouse, int index) {
+    	Warehouse currentWarehouse = this.writable(warehouse);
+    	if(this.batchDepth == 0) {
+    		return currentWarehouse.emptySilo(index);
+    	}
+    	GrainType grainType = currentWarehouse.silo(index).getGrainType();
+    	int fillLevel = currentWarehouse.silo(index).getFillLevel();
+    	LinkedList<Harvest> harvests = currentWarehouse.emptySilo(index);
+    	this.record(DepotEvent.Type.EMPTIED, warehouse * Warehouse.CAPACITY + index, grainType, currentWarehouse.silo(index).getFillLevel() - fillLevel);
+    	return harvests;
+    }
+    
+    /**
+     * Lets the grain in a silo decay and records the change.
+     *
+     * @param warehouse   The index of the warehouse.
+     * @param index       The index of the silo within the warehouse.
+     * @param currentYear The current year used to calculate the decay.
+     * @return The amount of grain that decayed in the silo.
+     */
+    private int decaySilo(int warehouse, int index, int currentYear) {
+    	Warehouse currentWarehouse = this.writable(warehouse);
+    	if(this.batchDepth == 0) {
+    		return currentWarehouse.decay(index, currentYear);
+    	}
+    	GrainType grainType = currentWarehouse.silo(index).getGrainType();
+    	int decayed = currentWarehouse.decay(index, currentYear);
+    	this.record(DepotEvent.Type.DECAYED, warehouse * Warehouse.CAPACITY + index, grainType, -decayed);
+    	return decayed;
+    }
 
     /**
      * Retrieves the current fill level of the depot for a specific grain type.
      *
      * @param grainType The grain type for which to retrieve the fill level.
-     * @return The total amount of grain stored in the depot for the specified grain type.
+     * @return The total amount of grain stored in the depot for the specified grain type, saturated at {@link Integer#MAX_VALUE}.
      */
     public int getFillLevel(Game.GrainType grainType) {
-        int totalFillLevel = 0;
-        Iterator<Status> iterator = this.getIterator(grainType);
-        
-        while(iterator.hasNext()) {
-        	try {
-        		Silo.Status status = iterator.next();
-            	totalFillLevel += status.getFillLevel();
-        	} catch(Exception e) {
-        		continue;
-        	}
+        return LongAccounting.toIntSaturated(this.getFillLevelLong(grainType));
+    }
+    
+    /**
+     * Retrieves the current fill level of the depot for a specific grain type as a 64-bit value.
+     *
+     * @param grainType The grain type for which to retrieve the fill level.
+     * @return The total amount of grain stored in the depot for the specified grain type.
+     */
+    public long getFillLevelLong(Game.GrainType grainType) {
+        long totalFillLevel = 0;
+        for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+        	totalFillLevel += this.warehouses[warehouse].getFillLevel(grainType);
         }
-        
         return totalFillLevel;
     }
     
     /**
      * Creates and returns a copy of the silos array.
-     * This method creates a new array and populates it with copies of the Silo objects,
-     * ensuring that modifications to the returned array do not affect the original silos.
+     * The copies are taken from a {@link #snapshot()} of the depot, so the silos of the depot are not touched,
+     * and modifications to the returned silos do not affect the original silos.
      *
      * @return A copy of the silos array.
      */
-    //TODO: Implement the array copy
     public LinkedList<Silo> getSilos() {
-        // Create a new array of Silo with the same length as the original
-        LinkedList<Silo> silosCopy = new LinkedList<Silo>();
-        
-        this.silos.forEach(silosCopy::addLast);
-        
-
-        return silosCopy;
+        return this.snapshot().getSilos();
     }
 
     /**
      * Gets the total amount of bushels (grain) stored in the depot.
      *
-     * @return The total amount of bushels stored in the depot.
+     * @return The total amount of bushels stored in the depot, saturated at {@link Integer#MAX_VALUE}.
      */
     public int getTotalFillLevel(){    	
-    	return (int)this.silos.sum((silo)-> (double)silo.getFillLevel());
+    	return LongAccounting.toIntSaturated(this.getTotalFillLevelLong());
+    }
+    
+    /**
+     * Gets the total amount of bushels (grain) stored in the depot as a 64-bit value.
+     *
+     * @return The total amount of bushels stored in the depot.
+     */
+    public long getTotalFillLevelLong(){    	
+    	long totalFillLevel = 0;
+    	for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    		totalFillLevel += this.warehouses[warehouse].getTotalFillLevel();
+    	}
+    	return totalFillLevel;
     }
     
     /**
      * Retrieves the capacity of the depot for a specific grain type.
      *
      * @param grainType The grain type for which to retrieve the capacity.
+     * @return The total capacity of the depot for the specified grain type, saturated at {@link Integer#MAX_VALUE}.
+     */
+    public int getCapacity(Game.GrainType grainType) {
+    	return LongAccounting.toIntSaturated(this.getCapacityLong(grainType));
+    }
+    
+    /**
+     * Retrieves the capacity of the depot for a specific grain type as a 64-bit value.
+     *
+     * @param grainType The grain type for which to retrieve the capacity.
      * @return The total capacity of the depot for the specified grain type.
      */
-    public int getCapacity(Game.GrainType grainType) {    	
-        int totalCapacity = 0;
-        Iterator<Status> iterator = this.getIterator(grainType);
-        
-        while(iterator.hasNext()) {
-        	try {
-            	Silo.Status siloStatus = iterator.next();
-            	totalCapacity += siloStatus.getCapacity();
-        	} catch(Exception e) {
-        		continue;
-        	}
-        	
+    public long getCapacityLong(Game.GrainType grainType) {    	
+        long totalCapacity = 0;
+        for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+        	// Empty silos can take any grain type
+        	totalCapacity += this.warehouses[warehouse].getCapacity(grainType) + this.warehouses[warehouse].getEmptyCapacity();
         }
-        
         return totalCapacity;
-        
     }
 
     /**
@@ -159,27 +513,74 @@ public class Depot {
      * @param harvest The harvest to be stored in the depot.
      * @return True if the harvest was successfully stored, false otherwise.
      */
-    public boolean store(Harvest harvest) { 
-    	final GrainType harvestGrainType = harvest.getGrainType();
-    	LinkedList<Silo> silosOfGrainType = this.silos.filter((silo)-> silo.getGrainType() == harvestGrainType || silo.getFillLevel() == 0);
-    	
-        for (Silo silo : silosOfGrainType) {
-        	harvest = silo.store(harvest);
-            if(harvest == null) {
-                return true;
-            }
-        }
-        defragment();
-        for (Silo silo : silosOfGrainType) {
-        	harvest = silo.store(harvest);
-            if(harvest == null) {
-                return true;
-            }
-        }
-        return false;
+    public boolean store(Harvest harvest) {
+    	beginBatch();
+    	try {
+    		beforeModification();
+    		harvest = this.storeInWarehouses(harvest);
+    		if(harvest == null) {
+    			return true;
+    		}
+    	    defragment();
+    	    return this.storeInWarehouses(harvest) == null;
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
+    }
+    
+    /**
+     * Stores a harvest in the silos of the depot which either contain the grain type of the harvest or are empty.
+     * Warehouses without such a silo that still has free capacity are skipped.
+     *
+     * @param harvest The harvest to be stored.
+     * @return The part of the harvest that could not be stored, or {@code null} if the whole harvest was stored.
+     */
+    private Harvest storeInWarehouses(Harvest harvest) {
+    	GrainType grainType = harvest.getGrainType();
+    	for(int warehouse = 0; warehouse < this.warehouseCount && harvest != null; warehouse++) {
+    		if(!this.warehouses[warehouse].canStore(grainType)) {
+    			continue;
+    		}
+    		
+    		for(int index = 0; index < this.warehouses[warehouse].size() && harvest != null; index++) {
+    			Silo silo = this.warehouses[warehouse].silo(index);
+    			if(silo.getGrainType() == grainType || silo.getFillLevel() == 0) {
+    				harvest = this.storeInSilo(warehouse, index, harvest);
+    			}
+    		}
+    	}
+    	return harvest;
     }
     
 
+    /**
+     * Stores an amount of grain that may exceed the size of a single harvest in the depot.
+     * The amount is split into harvests of at most {@link Integer#MAX_VALUE} bushels, see {@link Harvest#createHarvests(GrainType, long, int)}.
+     *
+     * @param grainType The grain type of the grain to be stored.
+     * @param amount    The amount of grain to be stored.
+     * @param year      The year of the harvest.
+     * @return True if the whole amount was successfully stored, false otherwise.
+     */
+    public boolean store(Game.GrainType grainType, long amount, int year) {
+    	beginBatch();
+    	try {
+    		boolean stored = true;
+    		for(Harvest harvest : Harvest.createHarvests(grainType, amount, year)) {
+    			stored &= this.store(harvest);
+    		}
+    		return stored;
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
+    }
+
     /**
      * Takes out a specified amount of grain from the depot for a specific grain type.
      *
@@ -188,18 +589,35 @@ public class Depot {
      * @return The actual amount of grain taken out from the depot.
      */
     public int takeOut(int amount, Game.GrainType grainType) {
-        LinkedList<Silo> listOfGrainType = this.silos.filter((silo)->silo.getGrainType() == grainType);
+    	beginBatch();
+    	try {
+    		beforeModification();
     	
-    	int takenAmount = 0;
-        for (Silo silo : listOfGrainType) {
-            int amountTaken = silo.takeOut(amount);
-            amount -= amountTaken;
-            takenAmount += amountTaken;
-            if (amount <= 0) {
-                break;
-            }
-        }
-        return takenAmount;
+    		int takenAmount = 0;
+    		for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    			if(!this.warehouses[warehouse].contains(grainType)) {
+    				continue;
+    			}
+    		
+    			for(int index = 0; index < this.warehouses[warehouse].size(); index++) {
+    				if(this.warehouses[warehouse].silo(index).getGrainType() != grainType) {
+    					continue;
+    				}
+    				int amountTaken = this.takeOutOfSilo(warehouse, index, amount);
+    				amount -= amountTaken;
+    				takenAmount += amountTaken;
+    				if (amount <= 0) {
+    					return takenAmount;
+    				}
+    			}
+    		}
+    	    return takenAmount;
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
     }
     
     /**
@@ -212,35 +630,111 @@ public class Depot {
      * @return The actual amount of grain taken out from the silo.
      */
     public int takeOut(int amount) {
-    	if(amount >= this.getTotalFillLevel()){
-    		int totalAmountOfBushels =  this.getTotalFillLevel();
-    		
-    		this.silos.forEach(Silo::emptySilo);
-    		
-    		return totalAmountOfBushels;
+    	beginBatch();
+    	try {
+    		beforeModification();
+    		int takenAmount = (int) Math.min(amount, this.getTotalFillLevelLong());
+    		this.takeOutEvenly(amount, false, 0);
+    		return takenAmount;
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
     	}
-    	int partion = amount / this.silos.size();
-    	int remainder = amount % this.silos.size();
+    }
+    
+    /**
+     * Stores the harvest of a year, lets the rats eat and lets the grain decay in a single pass over the depot.
+     * The result is the same as storing each harvest with {@link #store(Harvest)}, followed by {@link #takeOut(int)}
+     * with the amount eaten by rats and {@link #decay(int)}.
+     *
+     * @param harvests    The harvests of the year.
+     * @param ratLosses   Determines the amount of grain eaten by rats from the total fill level of the depot after storing the harvests.
+     * @param currentYear The current year used to calculate the decay.
+     * @return The losses of the year and the state of the depot afterwards.
+     */
+    public DepotTurnSummary endOfYear(Harvest[] harvests, IntUnaryOperator ratLosses, int currentYear) {
+    	beginBatch();
+    	try {
+    		for(Harvest harvest : harvests) {
+    			this.store(harvest);
+    		}
     	
-    	for(Silo silo: this.silos) {
-    		if(silo.getFillLevel() < partion) {
-    			remainder += partion - silo.getFillLevel();
-    			silo.emptySilo();
+    		int ateByRats = ratLosses.applyAsInt(this.getTotalFillLevel());
+    		beforeModification();
+    		int bushelsDecayed = LongAccounting.toIntSaturated(this.takeOutEvenly(ateByRats, true, currentYear));
+    		for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    			this.warehouses[warehouse].refreshDecayHorizon();
+    		}
+
+    		return new DepotTurnSummary(ateByRats, bushelsDecayed, this.getBushelsCategorizedByGrainTypeLong(), this.getTotalFillLevelLong(), this.totalCapacityLong());
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
+    }
+    
+    /**
+     * Takes out the given amount of grain evenly from all silos, see {@link #takeOut(int)}, and optionally lets the grain decay in the same pass.
+     * Only the first silos take part in distributing the remainder, so they are decayed after the remainder has been taken out.
+     *
+     * @param amount      The amount of grain to be taken out.
+     * @param decay       Whether the grain in the silos decays.
+     * @param currentYear The current year used to calculate the decay.
+     * @return The total amount of grain that decayed in the depot.
+     */
+    private long takeOutEvenly(int amount, boolean decay, int currentYear) {
+    	long decayed = 0;
+    	if(amount >= this.getTotalFillLevelLong()){
+    		for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    			Warehouse currentWarehouse = this.writable(warehouse);
+    			for(int index = 0; index < currentWarehouse.size(); index++) {
+    				this.emptySilo(warehouse, index);
+    				if(decay) {
+    					decayed += this.decaySilo(warehouse, index, currentYear);
+    				}
+    			}
     		}
-    		else {	
-    			silo.takeOut(partion);
+    		
+    		return decayed;
+    	}
+    	int partion = amount / this.siloCount;
+    	int remainder = amount % this.siloCount;
+    	int remainderSilos = Game.GrainType.values().length;
+    	
+    	for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    		Warehouse currentWarehouse = this.writable(warehouse);
+    		for(int index = 0; index < currentWarehouse.size(); index++) {
+    			int fillLevel = currentWarehouse.silo(index).getFillLevel();
+    			if(fillLevel < partion) {
+    				remainder += partion - fillLevel;
+    				this.emptySilo(warehouse, index);
+    			}
+    			else {	
+    				this.takeOutOfSilo(warehouse, index, partion);
+    			}
+    			if(decay && warehouse * Warehouse.CAPACITY + index >= remainderSilos) {
+    				decayed += this.decaySilo(warehouse, index, currentYear);
+    			}
     		}
     	}
     	
     	int siloPosition = 0;
     	while(remainder > 0) {
-    		if(this.silos.get(siloPosition).getFillLevel() > 0) {
-    			this.silos.get(siloPosition).takeOut(1);
+    		if(this.silo(siloPosition).getFillLevel() > 0) {
+    			this.takeOutOfSilo(siloPosition / Warehouse.CAPACITY, siloPosition % Warehouse.CAPACITY, 1);
     			remainder--;
     		}
-    		siloPosition = (siloPosition+1)%Game.GrainType.values().length;	
+    		siloPosition = (siloPosition+1)%remainderSilos;	
+    	}
+    	
+    	for(int position = 0; decay && position < Math.min(remainderSilos, this.siloCount); position++) {
+    		decayed += this.decaySilo(position / Warehouse.CAPACITY, position % Warehouse.CAPACITY, currentYear);
     	}
-    	return amount;
+    	return decayed;
     }
 
     /**
@@ -249,52 +743,73 @@ public class Depot {
      * @param numberOfSilos    The number of silos to add.
      * @param capacityPerSilo  The capacity per silo.
      */
-    public void expand(int numberOfSilos, int capacityPerSilo) {        
-        int newSiloSize = this.silos.size() + numberOfSilos;
-        for(int i = silos.size(); i < newSiloSize; i++) {
-        	this.silos.addLast(new Silo(capacityPerSilo));
-        }
+    public void expand(int numberOfSilos, int capacityPerSilo) {
+    	beginBatch();
+    	try {
+    		beforeModification();
+    	    for(int i = 0; i < numberOfSilos; i++) {
+    	    	this.addSilo(new Silo(capacityPerSilo));
+    	    	this.record(DepotEvent.Type.EXPANDED, this.siloCount - 1, null, capacityPerSilo);
+    	    }
         
-        this.takeOut((int)(numberOfSilos * GameConfig.DEPOT_EXPANSION_COST)); //#Issue42
+    	    this.takeOut((int)(numberOfSilos * GameConfig.DEPOT_EXPANSION_COST)); //#Issue42
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
     }
 
     /**
      * Performs defragmentation on the depot to redistribute grain across silos.
      */
     public void defragment() {
-        Harvest[] allHarvests = new Harvest[getTotalHarvestCount()];
-        
-        int index = 0;
+    	beginBatch();
+    	try {
+    		beforeModification();
+    	    LinkedList<Harvest> allHarvests = new LinkedList<Harvest>();
+    	    Harvest pending = null; // Adjacent fragments of the same grain type and year are stored as one harvest
         
-        
-        for (Silo silo : silos) {
-            LinkedList<Harvest> siloHarvests = silo.emptySilo();
-            siloHarvests = siloHarvests.filter((harvest)-> harvest != null);
-            
-        	for (Harvest harvest : siloHarvests) {
-                allHarvests[index++] = harvest;
-            }
-        }
+    	    for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    	    	Warehouse currentWarehouse = this.writable(warehouse);
+    	    	for(int index = 0; index < currentWarehouse.size(); index++) {
+    	    		LinkedList<Harvest> siloHarvests = this.emptySilo(warehouse, index);
+    	    		if(siloHarvests == null) {
+    	    			continue;
+    	    		}
+        		
+    	    		for (Harvest harvest : siloHarvests) {
+    	    			if (harvest == null) {
+    	    				continue;
+    	    			}
+    	    			if (pending != null && pending.getGrainType() == harvest.getGrainType() && pending.getYear() == harvest.getYear()
+    	    					&& pending.getAmount() <= Integer.MAX_VALUE - harvest.getAmount()) {
+    	    				pending = Harvest.createHarvest(pending.getGrainType(), pending.getAmount() + harvest.getAmount(), pending.getYear());
+    	    			}
+    	    			else {
+    	    				if (pending != null) {
+    	    					allHarvests.addLast(pending);
+    	    				}
+    	    				pending = harvest;
+    	    			}
+    	    		}
+    	    	}
+    	    }
+    	    if (pending != null) {
+    	    	allHarvests.addLast(pending);
+    	    }
 
-        // Add all harvests back. Store method takes care that silos are not fragmented. 
-        for (Harvest harvest : allHarvests) {
-            if (harvest != null) {
-                store(harvest);
-            }
-        }
-    }
-
-    /**
-     * Retrieves the total count of harvests across all silos.
-     *
-     * @return The total count of harvests stored in all silos combined.
-     */
-    private int getTotalHarvestCount() {
-        int totalCount = 0;
-        for (Silo silo : silos) {
-            totalCount += silo.getHarvestCount();
-        }
-        return totalCount;
+    	    // Add all harvests back. Store method takes care that silos are not fragmented. 
+    	    for (Harvest harvest : allHarvests) {
+    	        store(harvest);
+    	    }
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
     }
 
 
@@ -304,7 +819,27 @@ public class Depot {
      * @return The total amount of grain that decayed in the depot.
      */
     public int decay(int currentYear) {
-        return (int) silos.sum(silo -> (double)silo.decay(currentYear));
+    	beginBatch();
+    	try {
+    		beforeModification();
+    		long decayed = 0;
+    		for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+    			// Warehouses whose grain is still within its shelf life are neither visited nor copied
+    			if(currentYear < this.warehouses[warehouse].getDecayHorizon()) {
+    				continue;
+    			}
+    			for(int index = 0; index < this.warehouses[warehouse].size(); index++) {
+    				decayed += this.decaySilo(warehouse, index, currentYear);
+    			}
+    			this.writable(warehouse).refreshDecayHorizon();
+    		}
+    	    return LongAccounting.toIntSaturated(decayed);
+    	} catch(RuntimeException | Error e) {
+    		failBatch();
+    		throw e;
+    	} finally {
+    		endBatch();
+    	}
     }
 
 
@@ -314,7 +849,7 @@ public class Depot {
      * @return {@code true} if the total fill level of all silos equals or exceeds the total capacity of the storage system, {@code false} otherwise.
      */
 	public boolean full() {
-		if(this.getTotalFillLevel()>=this.totalCapacity())
+		if(this.getTotalFillLevelLong()>=this.totalCapacityLong())
 			return true;
 		return false;
 	}
@@ -322,10 +857,23 @@ public class Depot {
 	/**
 	 * Calculates the total capacity of the depot by summing the capacities of all silos.
 	 * 
-	 * @return The total capacity of the storage system.
+	 * @return The total capacity of the storage system, saturated at {@link Integer#MAX_VALUE}.
 	 */
 	public int totalCapacity() {		
-		return (int)silos.sum(silo -> (double)silo.getCapacity());
+		return LongAccounting.toIntSaturated(this.totalCapacityLong());
+	}
+	
+	/**
+	 * Calculates the total capacity of the depot by summing the capacities of all silos as a 64-bit value.
+	 * 
+	 * @return The total capacity of the storage system.
+	 */
+	public long totalCapacityLong() {		
+		long totalCapacity = 0;
+		for(int warehouse = 0; warehouse < this.warehouseCount; warehouse++) {
+			totalCapacity += this.warehouses[warehouse].getTotalCapacity();
+		}
+		return totalCapacity;
 	}
 
 	/**
@@ -334,11 +882,24 @@ public class Depot {
 	 * @return An array containing the total amount of grain for each grain type, indexed by the grain type constants defined in the {@code GameConfig} class.
 	 */
 	public int[] getBushelsCategorizedByGrainType() {
-	    int[] result = new int[Game.GrainType.values().length];
-	    for(Game.GrainType grainType : Game.GrainType.values()) {
-	        result[grainType.ordinal()] = getFillLevel(grainType);
-	    }
-	    return result;
+    	int[] result = new int[Game.GrainType.values().length];
+    	for(Game.GrainType grainType : Game.GrainType.values()) {
+    	    result[grainType.ordinal()] = getFillLevel(grainType);
+    	}
+    	return result;
+	}
+	
+	/**
+	 * Retrieves the total amount of grain categorized by grain type as 64-bit values.
+	 * 
+	 * @return An array containing the total amount of grain for each grain type, indexed by the ordinal of the grain type.
+	 */
+	public long[] getBushelsCategorizedByGrainTypeLong() {
+    	long[] result = new long[Game.GrainType.values().length];
+    	for(Game.GrainType grainType : Game.GrainType.values()) {
+    	    result[grainType.ordinal()] = getFillLevelLong(grainType);
+    	}
+    	return result;
 	}
 	
 	
@@ -352,7 +913,7 @@ public class Depot {
 	@Override
 	public String toString() {
 		DepotVisualizer visualizer = new DepotVisualizer();
-		this.silos.forEach(visualizer::appendSiloInfo);
+		this.forEachSilo(visualizer::appendSiloInfo);
 		
 		
 		return visualizer.visualize();
@@ -360,13 +921,16 @@ public class Depot {
 	
 	
 	
+	/**
+	 * Returns a string representation of the silos matching the given predicate, sorted by the given comparator.
+	 * The predicate and the comparator are applied to copies of the silos, see {@link DepotSnapshot#toString(Predicate, Comparator)}.
+	 *
+	 * @param predicateToPrint The predicate selecting the silos to print.
+	 * @param sortComparator   The comparator used to sort the selected silos.
+	 * @return A string containing information about the selected silos.
+	 */
 	public String toString(Predicate<Silo> predicateToPrint, Comparator<Silo> sortComparator) {
-		DepotVisualizer visualizer = new DepotVisualizer();
-		LinkedList<Silo> matchedSilos = this.silos.filter(predicateToPrint);
-		matchedSilos.sort(sortComparator);
-		
-		matchedSilos.forEach(visualizer::appendSiloInfo);
-		return visualizer.visualize();
+		return this.snapshot().toString(predicateToPrint, sortComparator);
 	}
 	
 	public DepotIterator getIterator(GrainType grainType) {
@@ -0,0 +1,81 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+/**
+ * The DepotEvent class describes a single change of a silo in a {@link Depot}.
+ * Events are delivered to {@link DepotListener}s in batches, one batch per operation on the depot.
+ */
+public final class DepotEvent {
+	/**
+	 * The Type enum defines the kinds of changes of a silo.
+	 */
+	public enum Type {
+		STORED,   // Grain was stored in the silo
+		TAKEN,    // Grain was taken out of the silo
+		DECAYED,  // Grain decayed in the silo
+		EMPTIED,  // The silo was emptied, e.g. during defragmentation
+		EXPANDED  // The silo was added to the depot
+	}
+
+	private final Type type;
+	private final int siloIndex;
+	private final Game.GrainType grainType;
+	private final int delta;
+
+	/**
+	 * Constructs a DepotEvent object.
+	 *
+	 * @param type      The kind of change.
+	 * @param siloIndex The position of the silo in the depot.
+	 * @param grainType The grain type affected by the change, or {@code null} for {@link Type#EXPANDED}.
+	 * @param delta     The change of the fill level of the silo, or the capacity of the silo for {@link Type#EXPANDED}.
+	 */
+	DepotEvent(Type type, int siloIndex, Game.GrainType grainType, int delta) {
+		this.type = type;
+		this.siloIndex = siloIndex;
+		this.grainType = grainType;
+		this.delta = delta;
+	}
+
+	/**
+	 * Returns the kind of change.
+	 *
+	 * @return The type of the event.
+	 */
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * Returns the position of the changed silo in the depot.
+	 *
+	 * @return The position of the silo.
+	 */
+	public int getSiloIndex() {
+		return this.siloIndex;
+	}
+
+	/**
+	 * Returns the grain type affected by the change.
+	 *
+	 * @return The grain type, or {@code null} for {@link Type#EXPANDED}.
+	 */
+	public Game.GrainType getGrainType() {
+		return this.grainType;
+	}
+
+	/**
+	 * Returns the change of the fill level of the silo. Grain that was stored yields a positive delta,
+	 * grain that was taken out, decayed or removed by emptying the silo yields a negative delta.
+	 * For {@link Type#EXPANDED}, the delta is the capacity of the new silo.
+	 *
+	 * @return The bushel delta of the event.
+	 */
+	public int getDelta() {
+		return this.delta;
+	}
+
+	@Override
+	public String toString() {
+		return this.type + " silo " + this.siloIndex + (this.grainType == null ? "" : " " + this.grainType) + " " + this.delta;
+	}
+}
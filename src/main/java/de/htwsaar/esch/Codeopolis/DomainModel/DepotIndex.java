@@ -0,0 +1,164 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.util.Arrays;
+
+/**
+ * The DepotIndex class holds the indexes used by {@link DepotQuery} to answer queries on a {@link DepotSnapshot}.
+ * Since snapshots are immutable, the index is built once per snapshot and reused by all queries on it.
+ *
+ * For every silo, the index stores its grain type, fill level, capacity and the year of its oldest harvest in primitive arrays.
+ * In addition, the positions of the silos are grouped by grain type and sorted by fill level,
+ * so that grain type and fill level filters can be answered by a binary search instead of a scan over all silos.
+ */
+final class DepotIndex {
+	/**
+	 * The bucket index used for empty silos, which do not have a grain type.
+	 */
+	static final int EMPTY = Game.GrainType.values().length;
+
+	private final Silo[] silos;
+	private final int[] grainTypes;
+	private final int[] fillLevels;
+	private final int[] capacities;
+	private final int[] oldestHarvestYears;
+	private final int[] allByFillLevel;
+	private final int[][] byGrainTypeAndFillLevel;
+
+	/**
+	 * Builds the index over the given silos.
+	 *
+	 * @param depot The read-only depot of the snapshot.
+	 */
+	DepotIndex(Depot depot) {
+		int size = depot.siloCount();
+		this.silos = new Silo[size];
+		this.grainTypes = new int[size];
+		this.fillLevels = new int[size];
+		this.capacities = new int[size];
+		this.oldestHarvestYears = new int[size];
+
+		int[] bucketSizes = new int[EMPTY + 1];
+		for(int position = 0; position < size; position++) {
+			Silo silo = depot.silo(position);
+			Game.GrainType grainType = silo.getGrainType();
+			this.silos[position] = silo;
+			this.grainTypes[position] = grainType == null ? EMPTY : grainType.ordinal();
+			this.fillLevels[position] = silo.getFillLevel();
+			this.capacities[position] = silo.getCapacity();
+			this.oldestHarvestYears[position] = silo.getOldestHarvestYear();
+			bucketSizes[this.grainTypes[position]]++;
+		}
+
+		this.allByFillLevel = sortByFillLevel(-1, size);
+		this.byGrainTypeAndFillLevel = new int[EMPTY + 1][];
+		for(int bucket = 0; bucket <= EMPTY; bucket++) {
+			this.byGrainTypeAndFillLevel[bucket] = sortByFillLevel(bucket, bucketSizes[bucket]);
+		}
+	}
+
+	/**
+	 * Collects the positions of all silos of a bucket, sorted by fill level and position.
+	 *
+	 * @param bucket The bucket to collect, or -1 for all silos.
+	 * @param size   The number of silos in the bucket.
+	 * @return The positions of the silos in the bucket sorted by fill level.
+	 */
+	private int[] sortByFillLevel(int bucket, int size) {
+		long[] keys = new long[size];
+		int count = 0;
+		for(int position = 0; position < this.silos.length; position++) {
+			if(bucket == -1 || this.grainTypes[position] == bucket) {
+				keys[count++] = key(this.fillLevels[position], position);
+			}
+		}
+		Arrays.sort(keys);
+
+		int[] positions = new int[size];
+		for(int index = 0; index < size; index++) {
+			positions[index] = position(keys[index]);
+		}
+		return positions;
+	}
+
+	/**
+	 * Combines a sort key and a silo position into a single long, which sorts by key first and by position second.
+	 *
+	 * @param sortKey  The sort key.
+	 * @param position The position of the silo.
+	 * @return The combined key.
+	 */
+	static long key(int sortKey, int position) {
+		return ((long) sortKey << 32) | (position & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Extracts the silo position from a key created by {@link #key(int, int)}.
+	 *
+	 * @param key The combined key.
+	 * @return The position of the silo.
+	 */
+	static int position(long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Returns the positions of all silos sorted by fill level.
+	 *
+	 * @return The positions of all silos.
+	 */
+	int[] byFillLevel() {
+		return this.allByFillLevel;
+	}
+
+	/**
+	 * Returns the positions of all silos storing the given grain type, sorted by fill level.
+	 *
+	 * @param grainType The grain type.
+	 * @return The positions of the silos storing the grain type.
+	 */
+	int[] byFillLevel(Game.GrainType grainType) {
+		return this.byGrainTypeAndFillLevel[grainType.ordinal()];
+	}
+
+	/**
+	 * Finds the first index in the given positions whose silo has a fill level of at least the given fill level.
+	 *
+	 * @param positions The positions sorted by fill level.
+	 * @param fillLevel The fill level to search for.
+	 * @return The first index with a fill level greater than or equal to the fill level.
+	 */
+	int firstWithFillLevel(int[] positions, long fillLevel) {
+		int low = 0;
+		int high = positions.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(this.fillLevels[positions[middle]] < fillLevel) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	Silo silo(int position) {
+		return this.silos[position];
+	}
+
+	int grainType(int position) {
+		return this.grainTypes[position];
+	}
+
+	int fillLevel(int position) {
+		return this.fillLevels[position];
+	}
+
+	int capacity(int position) {
+		return this.capacities[position];
+	}
+
+	int oldestHarvestYear(int position) {
+		return this.oldestHarvestYears[position];
+	}
+}
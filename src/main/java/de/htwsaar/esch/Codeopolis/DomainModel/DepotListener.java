@@ -0,0 +1,18 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+/**
+ * The DepotListener interface is implemented by consumers that keep track of the changes of a {@link Depot},
+ * for example dashboards, incremental saves or indexes, without re-reading the whole depot.
+ */
+public interface DepotListener {
+	/**
+	 * Called after an operation on the depot has changed at least one silo.
+	 * All changes of the operation are delivered in a single batch, in the order in which they happened.
+	 * Operations that fail with an exception are not reported, so a listener that needs an exact picture
+	 * should re-read the depot after catching such an exception.
+	 *
+	 * @param depot  The depot that was changed.
+	 * @param events The changes of the operation.
+	 */
+	void depotChanged(Depot depot, DepotEvent[] events);
+}
@@ -0,0 +1,259 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.util.Arrays;
+
+import de.htwsaar.esch.Codeopolis.Utils.DepotVisualizer;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+
+/**
+ * The DepotQuery class selects, sorts and pages the silos of a {@link DepotSnapshot}.
+ * Queries are created with {@link DepotSnapshot#query()} and configured by chaining the filter, sort and paging methods:
+ *
+ * <pre>
+ * snapshot.query().grainType(GrainType.WHEAT).fillLevel(100, 1000).sortBy(SortKey.FILL_LEVEL, true).offset(20).limit(10).render();
+ * </pre>
+ *
+ * Grain type and fill level filters are answered from the index of the snapshot,
+ * so only the matching silos are visited and only the requested page is copied and rendered.
+ */
+public class DepotQuery {
+	/**
+	 * The SortKey enum defines the criteria by which the result of a query can be sorted.
+	 */
+	public enum SortKey {
+		NONE,           // Keeps the order of the depot
+		GRAIN_TYPE,     // Sorts by grain type, empty silos last
+		FILL_LEVEL,     // Sorts by fill level
+		CAPACITY,       // Sorts by capacity
+		OLDEST_HARVEST  // Sorts by the year of the oldest harvest, empty silos last
+	}
+
+	private final DepotIndex index;
+	private Game.GrainType grainType = null;
+	private int minFillLevel = 0;
+	private int maxFillLevel = Integer.MAX_VALUE;
+	private int minCapacity = 0;
+	private int maxCapacity = Integer.MAX_VALUE;
+	private SortKey sortKey = SortKey.NONE;
+	private boolean descending = false;
+	private int offset = 0;
+	private int limit = Integer.MAX_VALUE;
+
+	/**
+	 * Constructs a query over the given index which matches all silos.
+	 *
+	 * @param index The index of the snapshot to query.
+	 */
+	DepotQuery(DepotIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * Restricts the query to silos storing the given grain type.
+	 *
+	 * @param grainType The grain type, or {@code null} to match silos of any grain type including empty silos.
+	 * @return This query.
+	 */
+	public DepotQuery grainType(Game.GrainType grainType) {
+		this.grainType = grainType;
+		return this;
+	}
+
+	/**
+	 * Restricts the query to silos whose fill level lies within the given range.
+	 *
+	 * @param min The minimum fill level (inclusive).
+	 * @param max The maximum fill level (inclusive).
+	 * @return This query.
+	 */
+	public DepotQuery fillLevel(int min, int max) {
+		this.minFillLevel = min;
+		this.maxFillLevel = max;
+		return this;
+	}
+
+	/**
+	 * Restricts the query to silos whose capacity lies within the given range.
+	 *
+	 * @param min The minimum capacity (inclusive).
+	 * @param max The maximum capacity (inclusive).
+	 * @return This query.
+	 */
+	public DepotQuery capacity(int min, int max) {
+		this.minCapacity = min;
+		this.maxCapacity = max;
+		return this;
+	}
+
+	/**
+	 * Sorts the result of the query. Silos with equal keys keep the order of the depot.
+	 *
+	 * @param sortKey    The criterion to sort by.
+	 * @param descending {@code true} to sort in descending order, {@code false} to sort in ascending order.
+	 * @return This query.
+	 */
+	public DepotQuery sortBy(SortKey sortKey, boolean descending) {
+		this.sortKey = sortKey == null ? SortKey.NONE : sortKey;
+		this.descending = descending;
+		return this;
+	}
+
+	/**
+	 * Skips the given number of matching silos.
+	 *
+	 * @param offset The number of matching silos to skip.
+	 * @return This query.
+	 */
+	public DepotQuery offset(int offset) {
+		if(offset < 0) {
+			throw new IllegalArgumentException("The offset must not be negative");
+		}
+		this.offset = offset;
+		return this;
+	}
+
+	/**
+	 * Limits the result of the query to the given number of silos.
+	 *
+	 * @param limit The maximum number of silos to return.
+	 * @return This query.
+	 */
+	public DepotQuery limit(int limit) {
+		if(limit < 0) {
+			throw new IllegalArgumentException("The limit must not be negative");
+		}
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Counts the silos matching the filters of the query, regardless of offset and limit.
+	 *
+	 * @return The number of matching silos.
+	 */
+	public int count() {
+		return this.collect(null);
+	}
+
+	/**
+	 * Executes the query.
+	 *
+	 * @return Copies of the silos on the requested page in the requested order.
+	 */
+	public LinkedList<Silo> execute() {
+		LinkedList<Silo> result = new LinkedList<Silo>();
+		for(int position : this.select()) {
+			result.addLast(new Silo(this.index.silo(position), true));
+		}
+		return result;
+	}
+
+	/**
+	 * Executes the query and renders the silos on the requested page.
+	 * Each silo is labelled with its position in the depot.
+	 *
+	 * @return A string containing information about the silos on the requested page.
+	 */
+	public String render() {
+		DepotVisualizer visualizer = new DepotVisualizer();
+		for(int position : this.select()) {
+			visualizer.appendSiloInfo(position, this.index.silo(position));
+		}
+		return visualizer.visualizeInOrder();
+	}
+
+	/**
+	 * Selects the positions of the silos on the requested page in the requested order.
+	 *
+	 * @return The positions of the selected silos.
+	 */
+	private int[] select() {
+		long[] keys = new long[this.candidates().length];
+		int count = this.collect(keys);
+
+		// Candidates are delivered sorted by fill level, so an ascending sort by fill level is already done.
+		if(this.sortKey != SortKey.FILL_LEVEL || this.descending) {
+			Arrays.sort(keys, 0, count);
+		}
+
+		int from = (int) Math.min(this.offset, count);
+		int to = (int) Math.min((long) from + this.limit, count);
+		int[] positions = new int[to - from];
+		for(int index = from; index < to; index++) {
+			positions[index - from] = DepotIndex.position(keys[index]);
+		}
+		return positions;
+	}
+
+	/**
+	 * Returns the candidate positions of the query, sorted by fill level.
+	 *
+	 * @return The positions of all silos, or of the silos of the requested grain type.
+	 */
+	private int[] candidates() {
+		return this.grainType == null ? this.index.byFillLevel() : this.index.byFillLevel(this.grainType);
+	}
+
+	/**
+	 * Collects the sort keys of all silos matching the filters of the query.
+	 *
+	 * @param keys The array to store the keys in, or {@code null} to only count the matching silos.
+	 * @return The number of matching silos.
+	 */
+	private int collect(long[] keys) {
+		int[] candidates = this.candidates();
+		int from = this.index.firstWithFillLevel(candidates, this.minFillLevel);
+		int to = this.index.firstWithFillLevel(candidates, (long) this.maxFillLevel + 1);
+
+		int count = 0;
+		for(int index = from; index < to; index++) {
+			int position = candidates[index];
+			int capacity = this.index.capacity(position);
+			if(capacity < this.minCapacity || capacity > this.maxCapacity) {
+				continue;
+			}
+			if(keys != null) {
+				keys[count] = this.key(position);
+			}
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Determines the key of a silo, which orders the silos by their sort key and then by their position.
+	 * Empty silos have no grain type and no oldest harvest, so they are sorted last by these criteria
+	 * in either direction: their key is not negated for a descending order.
+	 *
+	 * @param position The position of the silo.
+	 * @return The key of the silo.
+	 */
+	private long key(int position) {
+		if((this.sortKey == SortKey.GRAIN_TYPE || this.sortKey == SortKey.OLDEST_HARVEST) && this.index.grainType(position) == DepotIndex.EMPTY) {
+			return DepotIndex.key(Integer.MAX_VALUE, position);
+		}
+		int sortKey = this.sortKey(position);
+		return DepotIndex.key(this.descending ? ~sortKey : sortKey, position);
+	}
+
+	/**
+	 * Determines the sort key of a silo.
+	 *
+	 * @param position The position of the silo.
+	 * @return The sort key of the silo.
+	 */
+	private int sortKey(int position) {
+		switch(this.sortKey) {
+			case GRAIN_TYPE:
+				return this.index.grainType(position);
+			case FILL_LEVEL:
+				return this.index.fillLevel(position);
+			case CAPACITY:
+				return this.index.capacity(position);
+			case OLDEST_HARVEST:
+				return this.index.oldestHarvestYear(position);
+			default:
+				return 0;
+		}
+	}
+}
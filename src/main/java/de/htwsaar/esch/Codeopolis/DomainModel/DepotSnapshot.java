@@ -0,0 +1,179 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+import de.htwsaar.esch.Codeopolis.Utils.DepotVisualizer;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+
+/**
+ * The DepotSnapshot class represents an immutable view of a {@link Depot} at a specific version.
+ * Snapshots are taken with {@link Depot#snapshot()} in O(1) and stay consistent while the depot
+ * continues to change, which makes them suitable for readers such as the depot details dialog,
+ * saving the game or collecting metrics. A snapshot may be read by several threads at once.
+ */
+public final class DepotSnapshot {
+	private final Depot view;
+	private final long version;
+	private volatile DepotIndex index;
+
+	/**
+	 * Constructs a snapshot over the given view of the depot. The silos of the view are not copied;
+	 * the depot guarantees that it does not modify them after the snapshot was taken.
+	 *
+	 * @param view    A read-only depot sharing the warehouses of the depot at the time of the snapshot.
+	 * @param version The version of the depot at the time of the snapshot.
+	 */
+	DepotSnapshot(Depot view, long version) {
+		this.view = view;
+		this.version = version;
+	}
+
+	/**
+	 * Returns the version of the depot this snapshot was taken from.
+	 *
+	 * @return The version of the depot.
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Creates a new query over the silos of this snapshot.
+	 * The index used to answer queries is built on the first query and shared by all later queries on this snapshot,
+	 * so paging through a large depot only pays for building the index once.
+	 * Threads racing for the first query may each build an index; the index is published safely either way.
+	 *
+	 * @return A query matching all silos of this snapshot.
+	 */
+	public DepotQuery query() {
+		DepotIndex index = this.index;
+		if(index == null) {
+			index = new DepotIndex(this.view);
+			this.index = index;
+		}
+		return new DepotQuery(index);
+	}
+
+	/**
+	 * Returns copies of the silos in this snapshot. Modifying the copies does neither affect the snapshot nor the depot.
+	 *
+	 * @return A copy of the silos of the snapshot.
+	 */
+	public LinkedList<Silo> getSilos() {
+		LinkedList<Silo> silos = new LinkedList<Silo>();
+		this.view.forEachSilo(silo -> silos.addLast(new Silo(silo, true)));
+		return silos;
+	}
+
+	/**
+	 * Retrieves the fill level of the snapshot for a specific grain type.
+	 *
+	 * @param grainType The grain type for which to retrieve the fill level.
+	 * @return The total amount of grain stored for the specified grain type.
+	 */
+	public int getFillLevel(Game.GrainType grainType) {
+		return this.view.getFillLevel(grainType);
+	}
+
+	/**
+	 * Retrieves the fill level of the snapshot for a specific grain type as a 64-bit value.
+	 *
+	 * @param grainType The grain type for which to retrieve the fill level.
+	 * @return The total amount of grain stored for the specified grain type.
+	 */
+	public long getFillLevelLong(Game.GrainType grainType) {
+		return this.view.getFillLevelLong(grainType);
+	}
+
+	/**
+	 * Gets the total amount of bushels stored in the snapshot.
+	 *
+	 * @return The total amount of bushels.
+	 */
+	public int getTotalFillLevel() {
+		return this.view.getTotalFillLevel();
+	}
+
+	/**
+	 * Gets the total amount of bushels stored in the snapshot as a 64-bit value.
+	 *
+	 * @return The total amount of bushels.
+	 */
+	public long getTotalFillLevelLong() {
+		return this.view.getTotalFillLevelLong();
+	}
+
+	/**
+	 * Retrieves the capacity of the snapshot for a specific grain type.
+	 *
+	 * @param grainType The grain type for which to retrieve the capacity.
+	 * @return The total capacity for the specified grain type.
+	 */
+	public int getCapacity(Game.GrainType grainType) {
+		return this.view.getCapacity(grainType);
+	}
+
+	/**
+	 * Calculates the total capacity of all silos in the snapshot.
+	 *
+	 * @return The total capacity.
+	 */
+	public int totalCapacity() {
+		return this.view.totalCapacity();
+	}
+
+	/**
+	 * Calculates the total capacity of all silos in the snapshot as a 64-bit value.
+	 *
+	 * @return The total capacity.
+	 */
+	public long totalCapacityLong() {
+		return this.view.totalCapacityLong();
+	}
+
+	/**
+	 * Retrieves the total amount of grain categorized by grain type.
+	 *
+	 * @return An array containing the total amount of grain for each grain type, indexed by the ordinal of the grain type.
+	 */
+	public int[] getBushelsCategorizedByGrainType() {
+		return this.view.getBushelsCategorizedByGrainType();
+	}
+
+	/**
+	 * Retrieves the total amount of grain categorized by grain type as 64-bit values.
+	 *
+	 * @return An array containing the total amount of grain for each grain type, indexed by the ordinal of the grain type.
+	 */
+	public long[] getBushelsCategorizedByGrainTypeLong() {
+		return this.view.getBushelsCategorizedByGrainTypeLong();
+	}
+
+	/**
+	 * Returns a string representation of all silos in the snapshot.
+	 *
+	 * @return A string containing information about each silo.
+	 */
+	@Override
+	public String toString() {
+		return this.view.toString();
+	}
+
+	/**
+	 * Returns a string representation of the silos matching the given predicate, sorted by the given comparator.
+	 * The predicate and the comparator only get to see copies of the silos, so they cannot modify the snapshot.
+	 *
+	 * @param predicateToPrint The predicate selecting the silos to print.
+	 * @param sortComparator   The comparator used to sort the selected silos.
+	 * @return A string containing information about the selected silos.
+	 */
+	public String toString(Predicate<Silo> predicateToPrint, Comparator<Silo> sortComparator) {
+		LinkedList<Silo> matchedSilos = this.getSilos().filter(predicateToPrint);
+		matchedSilos.sort(sortComparator);
+
+		DepotVisualizer visualizer = new DepotVisualizer();
+		matchedSilos.forEach(visualizer::appendSiloInfo);
+		return visualizer.visualize();
+	}
+}
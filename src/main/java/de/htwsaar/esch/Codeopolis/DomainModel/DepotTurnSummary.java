@@ -0,0 +1,84 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+/**
+ * The `DepotTurnSummary` class represents the result of {@link Depot#endOfYear(de.htwsaar.esch.Codeopolis.DomainModel.Harvest.Harvest[], java.util.function.IntUnaryOperator, int)}.
+ * It contains the losses of the year and the state of the depot afterwards.
+ */
+public class DepotTurnSummary {
+	private final int ateByRats; // Number of bushels eaten by rats
+	private final int bushelsDecayed; // Number of bushels decayed in the depot
+	private final long[] bushels; // Number of bushels in the depot per grain type
+	private final long totalFillLevel; // Number of bushels in the depot
+	private final long totalCapacity; // Capacity of the depot
+
+	/**
+	 * Constructs a `DepotTurnSummary` object.
+	 *
+	 * @param ateByRats      Number of bushels eaten by rats.
+	 * @param bushelsDecayed Number of bushels decayed in the depot.
+	 * @param bushels        Number of bushels in the depot per grain type, indexed by the ordinal of the grain type.
+	 * @param totalFillLevel Number of bushels in the depot.
+	 * @param totalCapacity  Capacity of the depot.
+	 */
+	DepotTurnSummary(int ateByRats, int bushelsDecayed, long[] bushels, long totalFillLevel, long totalCapacity) {
+		this.ateByRats = ateByRats;
+		this.bushelsDecayed = bushelsDecayed;
+		this.bushels = bushels;
+		this.totalFillLevel = totalFillLevel;
+		this.totalCapacity = totalCapacity;
+	}
+
+	/**
+	 * Returns the number of bushels eaten by rats.
+	 *
+	 * @return The number of bushels eaten by rats.
+	 */
+	public int getAteByRats() {
+		return this.ateByRats;
+	}
+
+	/**
+	 * Returns the number of bushels decayed in the depot.
+	 *
+	 * @return The number of bushels decayed.
+	 */
+	public int getBushelsDecayed() {
+		return this.bushelsDecayed;
+	}
+
+	/**
+	 * Returns the number of bushels in the depot per grain type.
+	 *
+	 * @return The number of bushels, indexed by the ordinal of the grain type.
+	 */
+	public long[] getBushels() {
+		return this.bushels;
+	}
+
+	/**
+	 * Returns the number of bushels in the depot.
+	 *
+	 * @return The total fill level of the depot.
+	 */
+	public long getTotalFillLevel() {
+		return this.totalFillLevel;
+	}
+
+	/**
+	 * Returns the capacity of the depot.
+	 *
+	 * @return The total capacity of the depot.
+	 */
+	public long getTotalCapacity() {
+		return this.totalCapacity;
+	}
+
+	/**
+	 * Returns the free capacity of the depot.
+	 *
+	 * @return The number of free storage spaces in the depot.
+	 */
+	public long getFreeCapacity() {
+		return this.totalCapacity - this.totalFillLevel;
+	}
+}
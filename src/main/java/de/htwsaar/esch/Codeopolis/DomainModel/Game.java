@@ -1,12 +1,11 @@
 package de.htwsaar.esch.Codeopolis.DomainModel;
 
 import java.util.Comparator;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 
 import de.htwsaar.esch.Codeopolis.Exceptions.*;
-import de.htwsaar.esch.Codeopolis.Utils.DepotVisualizer;
-import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
 
 /**
  * The Game class represents a game instance of the Codeopolis game.
@@ -59,7 +58,7 @@ public class Game extends GameEntity{
     private GameState state;
 	private City city;
 	private UserInterface ui;
-	private Random fortune;
+	private RandomGenerator fortune;
 	private GameConfig config;
 	
 	/**
@@ -71,11 +70,26 @@ public class Game extends GameEntity{
      * @param ui         the user interface for the game
      */
 	public Game(String id, String name, Game.Difficulty difficulty, UserInterface ui){
+		this(id, name, difficulty, ui, new SplittableRandom());
+	}
+	
+	/**
+     * Constructs a new Game object whose randomness is drawn from the given random generator.
+     * The configuration and the city each get a generator split off from it, so games with equally
+     * seeded generators are reproducible and never share the state of a random generator.
+     *
+     * @param id         the ID of the game
+     * @param name       the name of the game
+     * @param difficulty the difficulty level of the game
+     * @param ui         the user interface for the game
+     * @param random     the random generator of the game
+     */
+	public Game(String id, String name, Game.Difficulty difficulty, UserInterface ui, RandomGenerator.SplittableGenerator random){
 		super(id); //Issue #4
-		this.config = new GameConfig(difficulty);	
-		this.city = new City(java.util.UUID.randomUUID().toString(), name, this.config); //Issue #1, Issue #3
+		this.config = new GameConfig(difficulty, random.split());	
+		this.city = new City(java.util.UUID.randomUUID().toString(), name, this.config, random.split()); //Issue #1, Issue #3
 		this.ui = ui;
-		this.fortune = new Random();
+		this.fortune = random;
 		this.state = GameState.PREPARED;
 	}
 	
@@ -88,16 +102,30 @@ public class Game extends GameEntity{
      * @param ui         the user interface for the game
      */
 	public Game(String id, CityState cityState, GameConfig gameConfig, UserInterface ui){
+		this(id, cityState, gameConfig, ui, new SplittableRandom());
+	}
+	
+	/**
+     * Constructs a Game object with the specified city state whose randomness is drawn from the given random generator.
+     *
+     * @param id         the ID of the game
+     * @param cityState  the state of the city
+     * @param gameConfig the configuration of the game
+     * @param ui         the user interface for the game
+     * @param random     the random generator of the game
+     */
+	public Game(String id, CityState cityState, GameConfig gameConfig, UserInterface ui, RandomGenerator.SplittableGenerator random){
 		super(id); 
 		this.config = gameConfig;
-		this.city = new City(cityState, gameConfig); 
+		this.city = new City(cityState, gameConfig, random.split()); 
 		this.ui = ui;
-		this.fortune = new Random();
+		this.fortune = random;
 		this.state = GameState.PREPARED;
 	}
 	
 	/**
      * Starts the game and enters the game loop until the game is over.
+     * Each iteration of the loop plays one year, so the stack does not grow with the number of years played.
      */
 	public void startGame() {
 		if(this.state == GameState.GAMEOVER) {
@@ -105,8 +133,9 @@ public class Game extends GameEntity{
 		}
 
 		this.state = GameState.RUNNING;
-		gameLoop();
-		startGame();
+		while(this.state != GameState.GAMEOVER) {
+			gameLoop();
+		}
 	}
 	
 	/**
@@ -290,9 +319,35 @@ public class Game extends GameEntity{
 		this.state = GameState.GAMEOVER;
 	}
 
+	/**
+	 * Returns an immutable snapshot of the city's depot.
+	 * The snapshot stays consistent while the game continues and can be used for reporting or saving.
+	 *
+	 * @return The snapshot of the depot.
+	 */
+	public DepotSnapshot getDepotSnapshot() {
+		return this.city.getDepotSnapshot();
+	}
+
+	/**
+	 * Creates a new query over a snapshot of the city's depot.
+	 *
+	 * @return A query matching all silos of the depot.
+	 * @see DepotQuery
+	 */
+	public DepotQuery queryDepot() {
+		return this.getDepotSnapshot().query();
+	}
+
+	/**
+	 * Returns a string representation of the silos in the depot matching the filter criteria, sorted by the sorting criteria.
+	 *
+	 * @param filterCriteria  The predicate selecting the silos to show, or {@code null} to show all silos.
+	 * @param sortingCriteria The comparator used to sort the silos, or {@code null} to keep the order of the depot.
+	 * @return A string containing information about the selected silos.
+	 */
 	public String getDepotDetails(Predicate<Silo> filterCriteria, Comparator<Silo> sortingCriteria) {
-		DepotVisualizer depotVisualizer = new DepotVisualizer();
-		Depot depot = new Depot(this.getCityState().getSilos());
+		DepotSnapshot depot = this.getDepotSnapshot();
 		
 		if(filterCriteria == null) {
 			filterCriteria = (silo) -> true;
@@ -1,7 +1,8 @@
 package de.htwsaar.esch.Codeopolis.DomainModel;
 
 import java.io.Serializable;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
 
@@ -25,6 +26,7 @@ public class GameConfig implements Serializable{
 	
 	public static final double DECAY_PERCENTAGE_PER_YEAR = 0.02;
 	public static final double DEPOT_EXPANSION_COST = 0.05;
+	public static final int MAX_NEW_SILOS = 1024; // The maximum number of silos a city can build in one year
 
 
 	
@@ -34,15 +36,29 @@ public class GameConfig implements Serializable{
      * @param difficulty The difficulty level of the game.
      */
 	public GameConfig(Game.Difficulty difficulty) {
+		this(difficulty, new SplittableRandom());
+	}
+
+	/**
+     * Constructs a new GameConfig object with the specified difficulty level.
+     * The random parts of the configuration are drawn from the given random generator,
+     * so the same seed always yields the same configuration.
+     * 
+     * @param difficulty The difficulty level of the game.
+     * @param random The random generator to draw the initial bushels from.
+     */
+	public GameConfig(Game.Difficulty difficulty, RandomGenerator random) {
 		this.difficulty = difficulty;
 		this.initialBushels = new int[Game.GrainType.values().length];
-		setup();
+		setup(random);
 	}
 	/**
 	 * Setup the game config according to the given difficulty.
+	 * 
+	 * @param random The random generator to draw the initial bushels from.
 	 */
-	private void setup() {
-		int[] grainDistribution = distributeBushelsRandomly(3000, Game.GrainType.values().length);
+	private void setup(RandomGenerator random) {
+		int[] grainDistribution = distributeBushelsRandomly(3000, Game.GrainType.values().length, random);
 		switch(this.difficulty) {
 		case EASY:
 			this.initialAcres = 1000;
@@ -111,15 +127,15 @@ public class GameConfig implements Serializable{
 	 *
 	 * @param x The total quantity of grain to distribute.
 	 * @param n The number of grain types.
+	 * @param random The random generator to draw the distribution from.
 	 * @return An array representing the distribution of grain among types.
 	 */
-	private int[] distributeBushelsRandomly(int x, int n) {
+	private int[] distributeBushelsRandomly(int x, int n, RandomGenerator random) {
 	     if (x <= 0 || n <= 0) {
 	            throw new IllegalArgumentException();
 	        }
 
 	        int[] result = new int[n];
-	        Random random = new Random();
 
 	        // Calculate the mean value for the distribution
 	        int mean = x / n;
@@ -144,7 +160,7 @@ public class GameConfig implements Serializable{
 	        result[n - 1] = x - sum;
 
 	        // Optional: Shuffle the array to get a random distribution
-	        shuffleArray(result);
+	        shuffleArray(result, random);
 
 	        return result;
     }
@@ -153,9 +169,9 @@ public class GameConfig implements Serializable{
 	 * Shuffles the elements of an integer array to achieve a random distribution.
 	 *
 	 * @param array The array to shuffle.
+	 * @param random The random generator to draw the permutation from.
 	 */
-	private void shuffleArray(int[] array) {
-        Random random = new Random();
+	private void shuffleArray(int[] array, RandomGenerator random) {
         for (int i = array.length - 1; i > 0; i--) {
             int index = random.nextInt(i + 1);
             int temp = array[index];
@@ -0,0 +1,96 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Harvest;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+
+/**
+ * The DecayRule class describes how the grain of a grain type decays once its shelf life has passed.
+ *
+ * In the first year of decay, the decay percentage is the initial percentage. In every following year,
+ * the percentage of the previous year is multiplied by a factor and increased by an increment.
+ * This covers both grains whose decay grows linearly (factor 1) and grains whose decay doubles (factor 2, increment 0)
+ * with a single formula, so {@link Harvest#decay(int)} does not need to dispatch on the grain type.
+ */
+final class DecayRule {
+	/**
+	 * The number of decay percentages computed in advance for each rule.
+	 */
+	private static final int PRECOMPUTED_YEARS = 32;
+
+	/**
+	 * The decay rules indexed by the ordinal of the grain type.
+	 */
+	private static final DecayRule[] RULES = new DecayRule[Game.GrainType.values().length];
+
+	static {
+		RULES[Game.GrainType.BARLEY.ordinal()] = new DecayRule(2, 0.02, 1, 0.03); // +3% per year
+		RULES[Game.GrainType.CORN.ordinal()] = new DecayRule(2, 0.02, 1, 0.03);   // +3% per year
+		RULES[Game.GrainType.MILLET.ordinal()] = new DecayRule(4, 0.01, 1, 0.02); // +2% per year
+		RULES[Game.GrainType.RICE.ordinal()] = new DecayRule(1, 0.02, 2, 0);      // doubles every year
+		RULES[Game.GrainType.RYE.ordinal()] = new DecayRule(4, 0.01, 1, 0.02);    // +2% per year
+		RULES[Game.GrainType.WHEAT.ordinal()] = new DecayRule(1, 0.02, 2, 0);     // doubles every year
+	}
+
+	private final int shelfLife;
+	private final double factor;
+	private final double increment;
+	private final double[] percentages; // percentages[i] is the decay percentage in year i + 1 of decay
+
+	/**
+	 * Constructs a DecayRule object.
+	 *
+	 * @param shelfLife         The number of years the grain can be stored without decaying.
+	 * @param initialPercentage The decay percentage in the first year of decay.
+	 * @param factor            The factor applied to the percentage of the previous year.
+	 * @param increment         The increment added to the percentage of the previous year.
+	 */
+	private DecayRule(int shelfLife, double initialPercentage, double factor, double increment) {
+		this.shelfLife = shelfLife;
+		this.factor = factor;
+		this.increment = increment;
+		this.percentages = new double[PRECOMPUTED_YEARS];
+		this.percentages[0] = initialPercentage;
+		for(int i = 1; i < PRECOMPUTED_YEARS; i++) {
+			this.percentages[i] = this.next(this.percentages[i - 1]);
+		}
+	}
+
+	/**
+	 * Retrieves the decay rule of a grain type.
+	 *
+	 * @param grainType The grain type.
+	 * @return The decay rule of the grain type.
+	 */
+	static DecayRule of(Game.GrainType grainType) {
+		return RULES[grainType.ordinal()];
+	}
+
+	/**
+	 * Retrieves the number of years the grain can be stored without decaying.
+	 *
+	 * @return The shelf life in years.
+	 */
+	int getShelfLife() {
+		return this.shelfLife;
+	}
+
+	/**
+	 * Calculates the decay percentage in the given year of decay.
+	 *
+	 * @param yearsOfDecay The number of years since the shelf life has passed, starting with 1.
+	 * @return The decay percentage.
+	 */
+	double percentage(int yearsOfDecay) {
+		if(yearsOfDecay <= PRECOMPUTED_YEARS) {
+			return this.percentages[yearsOfDecay - 1];
+		}
+		double percentage = this.percentages[PRECOMPUTED_YEARS - 1];
+		for(int i = PRECOMPUTED_YEARS; i < yearsOfDecay; i++) {
+			percentage = this.next(percentage);
+		}
+		return percentage;
+	}
+
+	private double next(double percentage) {
+		return percentage * this.factor + this.increment;
+	}
+}
@@ -7,14 +7,25 @@ import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
 
 /**
  * The Harvest class represents the annual harvest, containing information
- * about the amount of grain harvested and the year in which it occurred.
+ * about the type and amount of grain harvested and the year in which it occurred.
+ * How the grain decays is defined per grain type by a {@link DecayRule}.
  */
-public abstract class Harvest implements Serializable, Comparable<Harvest>{
+public final class Harvest implements Serializable, Comparable<Harvest>{
+    private final Game.GrainType grainType;
     private int bushels;
-    private int year;
+    private final int year;
 
 
-    protected Harvest(int bushels, int year) {
+    /**
+     * Constructs a Harvest object with the specified type and amount of grain harvested
+     * and the year in which the harvest occurred.
+     *
+     * @param grainType The type of grain harvested.
+     * @param bushels The amount of grain harvested.
+     * @param year The year in which the harvest occurred.
+     */
+    private Harvest(Game.GrainType grainType, int bushels, int year) {
+        this.grainType = grainType;
         this.bushels = bushels;
         this.year = year;
     }
@@ -30,37 +41,45 @@ public abstract class Harvest implements Serializable, Comparable<Harvest>{
      * @param type The type of grain for the harvest, represented as a {@link Game.GrainType} enum.
      * @param amount The amount of grain harvested, which should be a positive integer.
      * @param year The year of the harvest, which should be a positive integer representing the year.
-     * @return A new instance of a subclass of Harvest that corresponds to the specified grain type.
-     * @throws IllegalArgumentException If the specified grain type is not recognized or if the
+     * @return A new Harvest of the specified grain type.
+     * @throws IllegalArgumentException If the specified grain type is {@code null} or if the
      *         amount or year is not positive.
      */
     public static Harvest createHarvest(Game.GrainType type, int amount, int year) {
-        switch(type) {
-            case BARLEY:
-                return new BarleyHarvest(amount, year);
-            case CORN:
-                return new CornHarvest(amount, year);
-            case MILLET:
-                return new MilletHarvest(amount, year);
-            case RICE:
-                return new RiceHarvest(amount, year);
-            case RYE:
-                return new RyeHarvest(amount, year);
-            case WHEAT:
-                return new WheatHarvest(amount, year);
-            default:
-                throw new IllegalArgumentException("Unknown grain type: " + type);
+        if (type == null) {
+            throw new IllegalArgumentException("The grain type of a harvest cannot be null.");
         }
+        return new Harvest(type, amount, year);
+    }
+    
+    /**
+     * Creates the harvests for an amount of grain that may exceed the size of a single harvest.
+     * Since the amount of a single harvest is an int, amounts beyond {@link Integer#MAX_VALUE} are
+     * split into several harvests of the same grain type and year.
+     *
+     * @param type The type of grain for the harvests.
+     * @param amount The total amount of grain harvested.
+     * @param year The year of the harvests.
+     * @return The harvests holding the given amount, or an empty array if the amount is zero.
+     * @throws IllegalArgumentException If the amount is negative.
+     */
+    public static Harvest[] createHarvests(Game.GrainType type, long amount, int year) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("The amount of a harvest must not be negative: " + amount);
+        }
+        int numberOfHarvests = (int) ((amount + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+        Harvest[] harvests = new Harvest[numberOfHarvests];
+        for (int index = 0; index < numberOfHarvests; index++) {
+            int bushels = (int) Math.min(amount, Integer.MAX_VALUE);
+            harvests[index] = createHarvest(type, bushels, year);
+            amount -= bushels;
+        }
+        return harvests;
     }
     
     /**
      * Creates and returns a deep copy of the specified {@link Harvest} object.
-     * This method utilizes the factory pattern to generate a new instance of the same type
-     * as the provided {@code other} harvest object, copying its state.
-     * 
-     * This approach ensures that all properties specific to the actual type of the harvest,
-     * such as grain type and amount, are preserved in the new instance, maintaining the
-     * integrity of the harvest data.
+     * The copy has the same grain type, amount of grain and year of harvest as the provided {@code other} harvest object.
      *
      * @param other The {@link Harvest} object to be copied.
      * @return A new {@link Harvest} instance that is a deep copy of the {@code other} object,
@@ -72,7 +91,7 @@ public abstract class Harvest implements Serializable, Comparable<Harvest>{
         if (other == null) {
             throw new IllegalArgumentException("The provided harvest object cannot be null.");
         }
-        return createHarvest(other.getGrainType(), other.getAmount(), other.getYear());
+        return new Harvest(other.grainType, other.bushels, other.year);
     }
 
     /**
@@ -112,17 +131,51 @@ public abstract class Harvest implements Serializable, Comparable<Harvest>{
     
     /**
      * Simulates the decay of grain in the harvest over time.
+     * Once the shelf life of the grain has passed, a percentage of the grain decays every year,
+     * which grows with the years of decay as defined by the {@link DecayRule} of the grain type.
      *
+     * @param currentYear The current year for calculating decay.
      * @return The amount of grain that decayed in this cycle.
      */
-    public abstract int decay(int currentYear);
+    public int decay(int currentYear) {
+        DecayRule rule = DecayRule.of(this.grainType);
+        int yearsOfDecay = currentYear - this.year - rule.getShelfLife();
+        if (yearsOfDecay > 0) {
+            int decayedAmount = (int) (this.bushels * rule.percentage(yearsOfDecay));
+            this.remove(decayedAmount);
+            return decayedAmount;
+        } else {
+            return 0;
+        }
+    }
+    
+    /**
+     * Retrieves the number of years the grain of this harvest can be stored without decaying.
+     *
+     * @return The shelf life in years.
+     */
+    public int getShelfLife() {
+    	return DecayRule.of(this.grainType).getShelfLife();
+    }
     
     /**
-     * Retrieves the type of grain stored in the silo.
+     * Retrieves the first year in which the grain of this harvest decays.
+     * Calling {@link #decay(int)} with an earlier year never removes any grain.
      *
-     * @return An integer representing the type of grain stored.
+     * @return The first year of decay.
      */
-    public abstract GrainType getGrainType();
+    public int getDecayStartYear() {
+    	return this.year + this.getShelfLife() + 1;
+    }
+    
+    /**
+     * Retrieves the type of grain of the harvest.
+     *
+     * @return The type of grain harvested.
+     */
+    public GrainType getGrainType() {
+    	return this.grainType;
+    }
     
     /**
      * Returns a string representation of the harvest.
@@ -150,7 +203,7 @@ public abstract class Harvest implements Serializable, Comparable<Harvest>{
         }
 
         // Create a new Harvest object with the split amount of grain
-        Harvest newHarvest = Harvest.createHarvest(this.getGrainType(), amount, this.getYear());
+        Harvest newHarvest = new Harvest(this.grainType, amount, this.year);
 
         // Deduct the split amount from the current Harvest object
         remove(amount);
@@ -0,0 +1,291 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Harvest;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+
+/**
+ * The HarvestStore class stores a sequence of harvests in columns instead of {@link Harvest} objects:
+ * the amounts, years and grain types of the harvests are kept in parallel primitive arrays.
+ *
+ * Bulk operations such as {@link #decay(int)} and {@link #takeOut(int)} run as plain loops over these arrays
+ * without allocating or dereferencing harvest objects. Harvests are taken out in the order in which they were appended,
+ * so taking out grain only ever removes harvests from the front of the store.
+ *
+ * A harvest appended directly after a harvest of the same grain type and year is coalesced with it,
+ * so splitting harvests while storing them does not make the store grow. The store keeps track of
+ * how many fragments were coalesced into each harvest, see {@link #getFragmentCount()}.
+ */
+public final class HarvestStore implements Serializable {
+	private static final Game.GrainType[] GRAIN_TYPES = Game.GrainType.values();
+	private static final int INITIAL_CAPACITY = 4;
+
+	private int[] bushels;
+	private int[] years;
+	private byte[] grainTypes;
+	private int[] fragments;
+	private int head; // Index of the first harvest in the arrays
+	private int size; // Number of harvests in the store
+
+	/**
+	 * Constructs an empty HarvestStore object.
+	 */
+	public HarvestStore() {
+		this.bushels = new int[0];
+		this.years = new int[0];
+		this.grainTypes = new byte[0];
+		this.fragments = new int[0];
+	}
+
+	/**
+	 * Creates a copy of this store. The copy is independent of this store.
+	 *
+	 * @return A copy of this store.
+	 */
+	public HarvestStore copy() {
+		HarvestStore copy = new HarvestStore();
+		copy.bushels = Arrays.copyOfRange(this.bushels, this.head, this.head + this.size);
+		copy.years = Arrays.copyOfRange(this.years, this.head, this.head + this.size);
+		copy.grainTypes = Arrays.copyOfRange(this.grainTypes, this.head, this.head + this.size);
+		copy.fragments = Arrays.copyOfRange(this.fragments, this.head, this.head + this.size);
+		copy.size = this.size;
+		return copy;
+	}
+
+	/**
+	 * Appends a harvest to the end of the store.
+	 * If the last harvest of the store has the same grain type and year, the harvest is coalesced with it
+	 * as long as the combined amount fits into an int. A harvest without grain is ignored.
+	 *
+	 * @param grainType The grain type of the harvest.
+	 * @param amount    The amount of grain of the harvest.
+	 * @param year      The year of the harvest.
+	 */
+	public void append(Game.GrainType grainType, int amount, int year) {
+		if(amount == 0) {
+			return;
+		}
+		int last = this.head + this.size - 1;
+		if(this.size > 0 && this.years[last] == year && this.grainTypes[last] == grainType.ordinal()
+				&& this.bushels[last] <= Integer.MAX_VALUE - amount) {
+			this.bushels[last] += amount;
+			this.fragments[last]++;
+			return;
+		}
+		if(this.head + this.size == this.bushels.length) {
+			this.makeRoom();
+		}
+		int index = this.head + this.size;
+		this.bushels[index] = amount;
+		this.years[index] = year;
+		this.grainTypes[index] = (byte) grainType.ordinal();
+		this.fragments[index] = 1;
+		this.size++;
+	}
+
+	/**
+	 * Appends a harvest to the end of the store.
+	 *
+	 * @param harvest The harvest to append.
+	 */
+	public void append(Harvest harvest) {
+		this.append(harvest.getGrainType(), harvest.getAmount(), harvest.getYear());
+	}
+
+	/**
+	 * Makes room for at least one more harvest at the end of the arrays,
+	 * either by moving the harvests to the front of the arrays or by growing the arrays.
+	 */
+	private void makeRoom() {
+		int capacity = this.bushels.length;
+		if(this.head > 0 && this.size <= capacity / 2) {
+			System.arraycopy(this.bushels, this.head, this.bushels, 0, this.size);
+			System.arraycopy(this.years, this.head, this.years, 0, this.size);
+			System.arraycopy(this.grainTypes, this.head, this.grainTypes, 0, this.size);
+			System.arraycopy(this.fragments, this.head, this.fragments, 0, this.size);
+		}
+		else {
+			int newCapacity = Math.max(INITIAL_CAPACITY, this.size * 2);
+			this.bushels = Arrays.copyOfRange(this.bushels, this.head, this.head + newCapacity);
+			this.years = Arrays.copyOfRange(this.years, this.head, this.head + newCapacity);
+			this.grainTypes = Arrays.copyOfRange(this.grainTypes, this.head, this.head + newCapacity);
+			this.fragments = Arrays.copyOfRange(this.fragments, this.head, this.head + newCapacity);
+		}
+		this.head = 0;
+	}
+
+	/**
+	 * Removes all harvests from the store.
+	 */
+	public void clear() {
+		this.head = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Lets the grain of all harvests in the store decay, see {@link Harvest#decay(int)}.
+	 *
+	 * @param currentYear The current year used to calculate the decay.
+	 * @return The sum of the amounts returned by {@link Harvest#decay(int)} for the harvests of the store.
+	 */
+	public long decay(int currentYear) {
+		long totalDecayAmount = 0;
+		int end = this.head + this.size;
+		for(int index = this.head; index < end; index++) {
+			DecayRule rule = DecayRule.of(GRAIN_TYPES[this.grainTypes[index]]);
+			int yearsOfDecay = currentYear - this.years[index] - rule.getShelfLife();
+			if(yearsOfDecay > 0) {
+				int decayedAmount = (int) (this.bushels[index] * rule.percentage(yearsOfDecay));
+				this.bushels[index] -= Math.min(decayedAmount, this.bushels[index]);
+				totalDecayAmount += decayedAmount;
+			}
+		}
+		return totalDecayAmount;
+	}
+
+	/**
+	 * Takes out grain from the store, starting with the first harvest.
+	 * Harvests from which all grain was taken out are removed from the store.
+	 *
+	 * @param amount The amount of grain to take out.
+	 * @return The actual amount of grain taken out.
+	 */
+	public int takeOut(int amount) {
+		int takenAmount = 0;
+		while(this.size > 0 && amount > 0) {
+			int taken = Math.min(amount, this.bushels[this.head]);
+			this.bushels[this.head] -= taken;
+			amount -= taken;
+			takenAmount += taken;
+			if(this.bushels[this.head] == 0) {
+				this.head++;
+				this.size--;
+			}
+		}
+		if(this.size == 0) {
+			this.head = 0;
+		}
+		return takenAmount;
+	}
+
+	/**
+	 * Retrieves the number of harvests in the store, including harvests whose grain has decayed completely.
+	 *
+	 * @return The number of harvests.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Retrieves the amount of grain of a harvest in the store.
+	 *
+	 * @param index The index of the harvest.
+	 * @return The amount of grain of the harvest.
+	 */
+	public int getAmount(int index) {
+		return this.bushels[this.checkIndex(index)];
+	}
+
+	/**
+	 * Retrieves the year of a harvest in the store.
+	 *
+	 * @param index The index of the harvest.
+	 * @return The year of the harvest.
+	 */
+	public int getYear(int index) {
+		return this.years[this.checkIndex(index)];
+	}
+
+	/**
+	 * Retrieves the grain type of a harvest in the store.
+	 *
+	 * @param index The index of the harvest.
+	 * @return The grain type of the harvest.
+	 */
+	public Game.GrainType getGrainType(int index) {
+		return GRAIN_TYPES[this.grainTypes[this.checkIndex(index)]];
+	}
+
+	/**
+	 * Retrieves the number of fragments that were coalesced into a harvest in the store.
+	 *
+	 * @param index The index of the harvest.
+	 * @return The number of fragments of the harvest, at least 1.
+	 */
+	public int getFragmentCount(int index) {
+		return this.fragments[this.checkIndex(index)];
+	}
+
+	/**
+	 * Retrieves the number of fragments that were coalesced into the harvests of the store.
+	 * Without coalescing, the store would contain this many harvests.
+	 *
+	 * @return The number of fragments of all harvests in the store.
+	 */
+	public int getFragmentCount() {
+		int fragmentCount = 0;
+		int end = this.head + this.size;
+		for(int index = this.head; index < end; index++) {
+			fragmentCount += this.fragments[index];
+		}
+		return fragmentCount;
+	}
+
+	private int checkIndex(int index) {
+		if(index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return this.head + index;
+	}
+
+	/**
+	 * Retrieves the year of the oldest harvest in the store which still contains grain.
+	 *
+	 * @return The year of the oldest harvest, or {@link Integer#MAX_VALUE} if the store contains no grain.
+	 */
+	public int getOldestYear() {
+		int oldestYear = Integer.MAX_VALUE;
+		int end = this.head + this.size;
+		for(int index = this.head; index < end; index++) {
+			if(this.bushels[index] > 0 && this.years[index] < oldestYear) {
+				oldestYear = this.years[index];
+			}
+		}
+		return oldestYear;
+	}
+
+	/**
+	 * Retrieves the first year in which grain in the store decays, see {@link Harvest#getDecayStartYear()}.
+	 *
+	 * @return The first year of decay, or {@link Integer#MAX_VALUE} if the store contains no grain.
+	 */
+	public int getDecayHorizon() {
+		int horizon = Integer.MAX_VALUE;
+		int end = this.head + this.size;
+		for(int index = this.head; index < end; index++) {
+			if(this.bushels[index] > 0) {
+				int decayStartYear = this.years[index] + DecayRule.of(GRAIN_TYPES[this.grainTypes[index]]).getShelfLife() + 1;
+				horizon = Math.min(horizon, decayStartYear);
+			}
+		}
+		return horizon;
+	}
+
+	/**
+	 * Creates {@link Harvest} objects for the harvests in the store.
+	 * Modifying the returned harvests does not affect the store.
+	 *
+	 * @return The harvests of the store in the order in which they were appended.
+	 */
+	public LinkedList<Harvest> toHarvests() {
+		LinkedList<Harvest> harvests = new LinkedList<Harvest>();
+		int end = this.head + this.size;
+		for(int index = this.head; index < end; index++) {
+			harvests.addLast(Harvest.createHarvest(GRAIN_TYPES[this.grainTypes[index]], this.bushels[index], this.years[index]));
+		}
+		return harvests;
+	}
+}
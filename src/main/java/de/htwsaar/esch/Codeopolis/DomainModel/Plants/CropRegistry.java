@@ -0,0 +1,163 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Plants;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+
+/**
+ * The `CropRegistry` class holds the crop variants which can be planted for each grain type.
+ *
+ * Each variant is registered with a factory creating the grain and a weight. When a grain type is planted,
+ * one of its variants is chosen at random with a probability proportional to its weight,
+ * and only then the factory is called. Grain types with a single variant are created without drawing a random number.
+ *
+ * A variant can override any method of its grain. The {@link YieldEngine} calculates variants which only change
+ * the harvest with the tables of the game and grows all other variants by their own methods,
+ * both for grain planted by the city and for grain planted on a {@link Field}.
+ *
+ * The default registry, see {@link #getDefault()}, contains the grains of the game and,
+ * with a weight of 10 against 90 for `Wheat`, the double-yield wheat variant {@link G13Amnesia}.
+ */
+public final class CropRegistry {
+	private static final CropRegistry DEFAULT = createDefault();
+
+	/**
+	 * The variants of a grain type. Instances are never modified, registering a variant replaces them.
+	 */
+	private static final class Variants {
+		private final Supplier<? extends Grain>[] factories;
+		private final int[] cumulativeWeights;
+
+		private Variants(Supplier<? extends Grain>[] factories, int[] cumulativeWeights) {
+			this.factories = factories;
+			this.cumulativeWeights = cumulativeWeights;
+		}
+
+		private int getTotalWeight() {
+			return this.cumulativeWeights[this.cumulativeWeights.length - 1];
+		}
+	}
+
+	private volatile Variants[] variants = new Variants[Game.GrainType.values().length]; // Replaced on registration, so creating grain needs no lock
+
+	/**
+	 * Constructs an empty CropRegistry object.
+	 */
+	public CropRegistry() {
+	}
+
+	/**
+	 * Creates a registry with the grains of the game.
+	 *
+	 * @return A new registry with the default crop variants.
+	 */
+	public static CropRegistry createDefault() {
+		return new CropRegistry()
+				.register(Game.GrainType.BARLEY, Barley::new, 1)
+				.register(Game.GrainType.CORN, Corn::new, 1)
+				.register(Game.GrainType.MILLET, Millet::new, 1)
+				.register(Game.GrainType.RICE, Rice::new, 1)
+				.register(Game.GrainType.RYE, Rye::new, 1)
+				.register(Game.GrainType.WHEAT, Wheat::new, 90)
+				.register(Game.GrainType.WHEAT, G13Amnesia::new, 10);
+	}
+
+	/**
+	 * Retrieves the registry shared by all cities which were not given a registry of their own.
+	 * Variants registered here are planted by all of these cities.
+	 *
+	 * @return The default registry.
+	 */
+	public static CropRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Registers a crop variant of a grain type.
+	 *
+	 * @param grainType The grain type of the variant.
+	 * @param factory   The factory creating a grain of the variant.
+	 * @param weight    The weight of the variant relative to the other variants of the grain type.
+	 * @return This registry.
+	 * @throws IllegalArgumentException If the grain type or factory is null or the weight is not positive.
+	 */
+	public synchronized CropRegistry register(Game.GrainType grainType, Supplier<? extends Grain> factory, int weight) {
+		if(grainType == null || factory == null) {
+			throw new IllegalArgumentException("The grain type and factory of a crop variant cannot be null.");
+		}
+		if(weight <= 0) {
+			throw new IllegalArgumentException("The weight of a crop variant must be positive.");
+		}
+		Variants old = this.variants[grainType.ordinal()];
+		Supplier<? extends Grain>[] factories;
+		int[] cumulativeWeights;
+		if(old == null) {
+			@SuppressWarnings("unchecked") // Generic arrays cannot be created, the only element has the declared type
+			Supplier<? extends Grain>[] single = (Supplier<? extends Grain>[]) new Supplier<?>[] {factory};
+			factories = single;
+			cumulativeWeights = new int[] {weight};
+		}
+		else {
+			if(old.getTotalWeight() > Integer.MAX_VALUE - weight) {
+				throw new IllegalArgumentException("The total weight of the crop variants of " + grainType + " is too large.");
+			}
+			factories = Arrays.copyOf(old.factories, old.factories.length + 1);
+			factories[factories.length - 1] = factory;
+			cumulativeWeights = Arrays.copyOf(old.cumulativeWeights, old.cumulativeWeights.length + 1);
+			cumulativeWeights[cumulativeWeights.length - 1] = old.getTotalWeight() + weight;
+		}
+		Variants[] variants = Arrays.copyOf(this.variants, this.variants.length);
+		variants[grainType.ordinal()] = new Variants(factories, cumulativeWeights);
+		this.variants = variants;
+		return this;
+	}
+
+	/**
+	 * Retrieves the number of crop variants registered for a grain type.
+	 *
+	 * @param grainType The grain type.
+	 * @return The number of variants.
+	 */
+	public int getVariantCount(Game.GrainType grainType) {
+		Variants variants = this.variants[grainType.ordinal()];
+		return variants == null ? 0 : variants.factories.length;
+	}
+
+	/**
+	 * Creates a grain of a grain type, choosing one of its variants at random according to their weights.
+	 *
+	 * @param grainType The grain type.
+	 * @param random    The random generator used to choose the variant.
+	 * @return A new grain of one of the variants.
+	 * @throws IllegalStateException If no variant is registered for the grain type.
+	 */
+	public Grain create(Game.GrainType grainType, RandomGenerator random) {
+		return this.choose(grainType, random).get();
+	}
+
+	/**
+	 * Chooses one of the variants of a grain type at random according to their weights,
+	 * for callers which need several grains of the same variant.
+	 *
+	 * @param grainType The grain type.
+	 * @param random    The random generator used to choose the variant.
+	 * @return The factory of the chosen variant.
+	 * @throws IllegalStateException If no variant is registered for the grain type.
+	 */
+	public Supplier<? extends Grain> choose(Game.GrainType grainType, RandomGenerator random) {
+		Variants variants = this.variants[grainType.ordinal()];
+		if(variants == null) {
+			throw new IllegalStateException("No crop variant is registered for grain type " + grainType + ".");
+		}
+		int variant = 0;
+		if(variants.factories.length > 1) {
+			int spin = random.nextInt(variants.getTotalWeight());
+			while(spin >= variants.cumulativeWeights[variant]) {
+				variant++;
+			}
+		}
+		return variants.factories[variant];
+	}
+}
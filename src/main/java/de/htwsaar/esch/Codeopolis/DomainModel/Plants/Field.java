@@ -0,0 +1,363 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Plants;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+
+/**
+ * The `Field` class represents the farmland of a city as a grid of plots of one acre each.
+ *
+ * Every plot has its own soil quality and at most one grain type planted on it. Both are kept in primitive arrays
+ * indexed by plot, so a field of millions of acres does not create an object per acre.
+ *
+ * The soil quality of a plot ranges from 0 to 1 and scales the soil conditions of the year, see {@link Grain.Conditions}:
+ * a field where every plot has a soil quality of 1 yields the same crops as planting the same acres with {@link Grain}.
+ * The yield of each plot is calculated by the {@link YieldEngine}; {@link #harvest(Grain.Conditions, int)} splits the rows
+ * of the field into tasks which are calculated in parallel on the common {@link ForkJoinPool}.
+ * Pests and diseases can spread over the plots of a field during a year, see {@link Infestation}.
+ * When the field is harvested with a {@link CropRegistry}, every grain type is planted as one of its variants.
+ */
+public class Field {
+	private static final byte EMPTY = -1; // Crop of a plot on which nothing is planted
+	private static final Game.GrainType[] GRAIN_TYPES = Game.GrainType.values();
+	private static final int PLOTS_PER_TASK = 1 << 15; // Minimum number of plots calculated by one task
+
+	private final int rows;
+	private final int columns;
+	private final float[] soilQuality;
+	private final byte[] crops;
+	private final int[] acres = new int[GRAIN_TYPES.length]; // Number of plots planted with each grain type
+
+	/**
+	 * Constructs an empty field in which every plot has a soil quality of 1.
+	 *
+	 * @param rows    The number of rows of plots.
+	 * @param columns The number of plots in each row.
+	 * @throws IllegalArgumentException If the number of rows or columns is negative or the field has more than {@link Integer#MAX_VALUE} plots.
+	 */
+	public Field(int rows, int columns) {
+		if(rows < 0 || columns < 0 || (long) rows * columns > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A field cannot have " + rows + " rows of " + columns + " plots.");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.soilQuality = new float[rows * columns];
+		this.crops = new byte[rows * columns];
+		Arrays.fill(this.soilQuality, 1.0f);
+		Arrays.fill(this.crops, EMPTY);
+	}
+
+	/**
+	 * Retrieves the number of rows of plots.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * Retrieves the number of plots in each row.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * Retrieves the number of plots of the field, which is its size in acres.
+	 *
+	 * @return The number of plots.
+	 */
+	public int getSize() {
+		return this.crops.length;
+	}
+
+	private int plot(int row, int column) {
+		if(row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+			throw new IndexOutOfBoundsException("Plot (" + row + ", " + column + ") is outside a field of " + this.rows + " rows of " + this.columns + " plots.");
+		}
+		return row * this.columns + column;
+	}
+
+	/**
+	 * Retrieves the soil quality of a plot.
+	 *
+	 * @param row    The row of the plot.
+	 * @param column The column of the plot.
+	 * @return The soil quality of the plot.
+	 */
+	public float getSoilQuality(int row, int column) {
+		return this.soilQuality[this.plot(row, column)];
+	}
+
+	/**
+	 * Sets the soil quality of a plot.
+	 *
+	 * @param row         The row of the plot.
+	 * @param column      The column of the plot.
+	 * @param soilQuality The soil quality, from 0 to 1.
+	 * @throws IllegalArgumentException If the soil quality is not in the range [0, 1].
+	 */
+	public void setSoilQuality(int row, int column, float soilQuality) {
+		if(!(soilQuality >= 0 && soilQuality <= 1)) {
+			throw new IllegalArgumentException("The soil quality of a plot must be in the range [0, 1].");
+		}
+		this.soilQuality[this.plot(row, column)] = soilQuality;
+	}
+
+	/**
+	 * Draws the soil quality of every plot uniformly from [0, 1).
+	 *
+	 * @param random The random generator to draw the soil quality from.
+	 */
+	public void randomizeSoil(RandomGenerator random) {
+		for(int plot = 0; plot < this.soilQuality.length; plot++) {
+			this.soilQuality[plot] = random.nextFloat();
+		}
+	}
+
+	/**
+	 * Plants a grain type on a rectangle of plots.
+	 *
+	 * @param grainType The grain type to plant.
+	 * @param row       The first row of the rectangle.
+	 * @param column    The first column of the rectangle.
+	 * @param rows      The number of rows of the rectangle.
+	 * @param columns   The number of columns of the rectangle.
+	 * @return The number of acres planted.
+	 * @throws IllegalArgumentException If the grain type is null, the rectangle is not within the field,
+	 *                                  or any of its plots is planted already. In that case nothing is planted.
+	 */
+	public int plant(Game.GrainType grainType, int row, int column, int rows, int columns) {
+		if(grainType == null) {
+			throw new IllegalArgumentException("The grain type of a plot cannot be null.");
+		}
+		if(rows < 0 || columns < 0 || row < 0 || column < 0 || row > this.rows - rows || column > this.columns - columns) {
+			throw new IllegalArgumentException("The rectangle of " + rows + " rows of " + columns + " plots at (" + row + ", " + column + ") is not within the field.");
+		}
+		for(int r = row; r < row + rows; r++) {
+			for(int plot = r * this.columns + column; plot < r * this.columns + column + columns; plot++) {
+				if(this.crops[plot] != EMPTY) {
+					throw new IllegalArgumentException("Plot (" + r + ", " + (plot - r * this.columns) + ") is planted already.");
+				}
+			}
+		}
+		for(int r = row; r < row + rows; r++) {
+			int from = r * this.columns + column;
+			Arrays.fill(this.crops, from, from + columns, (byte) grainType.ordinal());
+		}
+		this.acres[grainType.ordinal()] += rows * columns;
+		return rows * columns;
+	}
+
+	/**
+	 * Retrieves the crops of all plots, indexed by plot, as the ordinal of the grain type or -1 for an empty plot.
+	 * The returned array is the array of the field and must not be modified.
+	 *
+	 * @return The crops of the plots.
+	 */
+	byte[] getCrops() {
+		return this.crops;
+	}
+
+	/**
+	 * Retrieves the grain type planted on a plot.
+	 *
+	 * @param row    The row of the plot.
+	 * @param column The column of the plot.
+	 * @return The grain type, or null if nothing is planted on the plot.
+	 */
+	public Game.GrainType getCrop(int row, int column) {
+		byte crop = this.crops[this.plot(row, column)];
+		return crop == EMPTY ? null : GRAIN_TYPES[crop];
+	}
+
+	/**
+	 * Retrieves the number of acres planted with a grain type.
+	 *
+	 * @param grainType The grain type.
+	 * @return The number of acres.
+	 */
+	public int getAcres(Game.GrainType grainType) {
+		return this.acres[grainType.ordinal()];
+	}
+
+	/**
+	 * Retrieves the number of acres planted with each grain type.
+	 *
+	 * @return The acres indexed by the ordinal of the grain type.
+	 */
+	public int[] getAcres() {
+		return Arrays.copyOf(this.acres, this.acres.length);
+	}
+
+	/**
+	 * Removes all crops from the field. The soil quality of the plots is kept.
+	 */
+	public void clear() {
+		Arrays.fill(this.crops, EMPTY);
+		Arrays.fill(this.acres, 0);
+	}
+
+	/**
+	 * Calculates the crops of the field for a year.
+	 * The crops are not removed from the field, see {@link #clear()}.
+	 *
+	 * @param conditions The conditions of the year.
+	 * @param events     The bitmask of the events of the year, see {@link YieldEngine#DROUGHT}.
+	 * @return The crop yield of each grain type, indexed by the ordinal of the grain type.
+	 */
+	public long[] harvest(Grain.Conditions conditions, int events) {
+		return this.harvest(conditions, events, null);
+	}
+
+	/**
+	 * Calculates the crops of the field for a year in which pests and diseases spread over the field.
+	 * The events which spread, see {@link Infestation#SPREADING}, only affect the plots the infestation has reached;
+	 * all other events of the year affect the whole field.
+	 *
+	 * @param conditions  The conditions of the year.
+	 * @param events      The bitmask of the events of the year, see {@link YieldEngine#DROUGHT}.
+	 * @param infestation The infestation of the field, or null if the events affect the whole field.
+	 * @return The crop yield of each grain type, indexed by the ordinal of the grain type.
+	 */
+	public long[] harvest(Grain.Conditions conditions, int events, Infestation infestation) {
+		double[] yields = this.grow(conditions, events, infestation, GRAIN_TYPES, null);
+		long[] crops = new long[GRAIN_TYPES.length];
+		for(int i = 0; i < crops.length; i++) {
+			crops[i] = Math.round(yields[i]);
+		}
+		return crops;
+	}
+
+	/**
+	 * Calculates the crops of the field for a year in which each grain type is planted as one of its crop variants.
+	 * The variant of each planted grain type is chosen from the registry, and all plots of the grain type are planted with it.
+	 * The crop of a variant is the harvest of the variant on all of its plots with their average yield ratio,
+	 * so a variant such as {@link G13Amnesia} changes the harvest of a field just as it changes the harvest of {@link Grain}.
+	 *
+	 * @param conditions  The conditions of the year.
+	 * @param events      The bitmask of the events of the year, see {@link YieldEngine#DROUGHT}.
+	 * @param infestation The infestation of the field, or null if the events affect the whole field.
+	 * @param registry    The registry to choose the crop variants from.
+	 * @param random      The random generator used to choose the crop variants.
+	 * @return The crop yield of each grain type, indexed by the ordinal of the grain type.
+	 * @throws IllegalStateException If no variant is registered for a grain type planted on the field.
+	 */
+	public long[] harvest(Grain.Conditions conditions, int events, Infestation infestation, CropRegistry registry, RandomGenerator random) {
+		Grain[] grains = new Grain[GRAIN_TYPES.length];
+		Game.GrainType[] tables = new Game.GrainType[GRAIN_TYPES.length];
+		@SuppressWarnings("unchecked") // Generic arrays cannot be created, the elements have the declared type
+		Supplier<? extends Grain>[] variants = (Supplier<? extends Grain>[]) new Supplier<?>[GRAIN_TYPES.length];
+		for(Game.GrainType grainType : GRAIN_TYPES) {
+			int i = grainType.ordinal();
+			if(this.acres[i] > 0) {
+				variants[i] = registry.choose(grainType, random);
+				grains[i] = variants[i].get();
+				tables[i] = YieldEngine.getInstance().findTable(grains[i]);
+			}
+		}
+		double[] yields = this.grow(conditions, events, infestation, tables, variants);
+		long[] crops = new long[GRAIN_TYPES.length];
+		for(int i = 0; i < crops.length; i++) {
+			if(grains[i] != null) {
+				grains[i].plant(this.acres[i]);
+				crops[i] = grains[i].harvest((float) (yields[i] / this.acres[i]));
+			}
+		}
+		return crops;
+	}
+
+	/**
+	 * Sums the yield ratios of the plots of each grain type.
+	 *
+	 * @param tables   The grain type whose table describes each planted grain type, or null if the grain is grown by its own methods.
+	 * @param variants The factory of the grain of each planted grain type without a table.
+	 */
+	private double[] grow(Grain.Conditions conditions, int events, Infestation infestation, Game.GrainType[] tables, Supplier<? extends Grain>[] variants) {
+		if(infestation != null && infestation.getField() != this) {
+			throw new IllegalArgumentException("The infestation does not belong to this field.");
+		}
+		return ForkJoinPool.commonPool().invoke(new GrowTask(conditions.getSoilConditions(),
+				conditions.getAverageTemperatureSummer(), conditions.getAverageTemperatureWinter(), events, infestation, tables, variants, 0, this.rows));
+	}
+
+	/**
+	 * Sums the yields of the plots of a range of rows for each grain type.
+	 */
+	private final class GrowTask extends RecursiveTask<double[]> {
+		private final float soilConditions;
+		private final float averageTemperatureSummer;
+		private final float averageTemperatureWinter;
+		private final int events;
+		private final Infestation infestation;
+		private final Game.GrainType[] tables;
+		private final Supplier<? extends Grain>[] variants;
+		private final int fromRow;
+		private final int toRow;
+
+		private GrowTask(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int events, Infestation infestation,
+				Game.GrainType[] tables, Supplier<? extends Grain>[] variants, int fromRow, int toRow) {
+			this.soilConditions = soilConditions;
+			this.averageTemperatureSummer = averageTemperatureSummer;
+			this.averageTemperatureWinter = averageTemperatureWinter;
+			this.events = infestation == null ? events : events & ~Infestation.SPREADING;
+			this.infestation = infestation;
+			this.tables = tables;
+			this.variants = variants;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected double[] compute() {
+			if(this.toRow - this.fromRow > 1 && (long) (this.toRow - this.fromRow) * columns > PLOTS_PER_TASK) {
+				int middle = (this.fromRow + this.toRow) >>> 1;
+				GrowTask upper = new GrowTask(this.soilConditions, this.averageTemperatureSummer, this.averageTemperatureWinter, this.events, this.infestation, this.tables, this.variants, this.fromRow, middle);
+				GrowTask lower = new GrowTask(this.soilConditions, this.averageTemperatureSummer, this.averageTemperatureWinter, this.events, this.infestation, this.tables, this.variants, middle, this.toRow);
+				upper.fork();
+				double[] yields = lower.compute();
+				double[] upperYields = upper.join();
+				for(int i = 0; i < yields.length; i++) {
+					yields[i] += upperYields[i];
+				}
+				return yields;
+			}
+			YieldEngine engine = YieldEngine.getInstance();
+			double[] yields = new double[GRAIN_TYPES.length];
+			Grain[] grains = null; // Grains of the variants without a table, created for each task since growing changes them
+			Grain.Conditions plotConditions = null;
+			int end = this.toRow * columns;
+			for(int plot = this.fromRow * columns; plot < end; plot++) {
+				byte crop = crops[plot];
+				if(crop != EMPTY) {
+					int plotEvents = this.infestation == null ? this.events : this.events | this.infestation.getEvents(plot);
+					Game.GrainType table = this.tables[crop];
+					if(table != null) {
+						yields[crop] += engine.yieldRatio(table, this.soilConditions * soilQuality[plot],
+								this.averageTemperatureSummer, this.averageTemperatureWinter, plotEvents);
+					}
+					else {
+						if(grains == null) {
+							grains = new Grain[GRAIN_TYPES.length];
+							plotConditions = new Grain.Conditions(0, this.averageTemperatureSummer, this.averageTemperatureWinter, 0);
+						}
+						if(grains[crop] == null) {
+							grains[crop] = this.variants[crop].get();
+						}
+						plotConditions.setSoilConditions(this.soilConditions * soilQuality[plot]);
+						plotConditions.setEvents(plotEvents);
+						yields[crop] += grains[crop].grow(plotConditions, plotEvents);
+					}
+				}
+			}
+			return yields;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Plants;
+
+/**
+ * The `G13Amnesia` class represents a rare variant of wheat.
+ * It grows and responds to drought, pest infestation, and disease outbreak like `Wheat`,
+ * but its harvest yields twice as much grain.
+ */
+public class G13Amnesia extends Wheat {
+
+	/**
+     * Overrides the `harvest` method from the parent class `Wheat` to double the crop yield.
+     *
+     * @return The crop yield.
+     */
+	@Override
+	public int harvest() {
+		return 2 * super.harvest();
+	}
+}
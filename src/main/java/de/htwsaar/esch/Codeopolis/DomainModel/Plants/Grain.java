@@ -1,8 +1,7 @@
 package de.htwsaar.esch.Codeopolis.DomainModel.Plants;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * The `Grain` class represents an abstract grain plant with common attributes and behaviors.
@@ -58,89 +57,88 @@ public abstract class Grain {
 		public static final float WINTER_TEMPERATURE_LOWER = -10.0f;
 		public static final float WINTER_TEMPERATURE_HIGHER = 10.0f;
 		
+		/**
+		 * The probability of each event of a year, see {@link #randomize(RandomGenerator)}.
+		 */
+		public static final float EVENT_PROBABILITY = 0.2f;
+		
 		private float soilConditions;
 		private float averageTemperatureSummer;
 		private float averageTemperatureWinter;
-		private boolean drought;
-		private boolean fusarium;
-		private boolean leafDrought;
-		private boolean powdryMildrew;
-		private boolean barleyGoutFly;
-		private boolean delioFly;
-		private boolean fritFly;
+		private int events; // Bitmask of the events of the year, see YieldEngine#DROUGHT to YieldEngine#FRIT_FLY
 		
 		/**
 	     * Constructor for the Conditions class.
 	     * @param soilConditions the quality of the soil
 	     * @param averageTemperatureSummer the average temperature during summer
 	     * @param averageTemperatureWinter the average temperature during winter
-	     * @param drought whether there is a drought
-	     * @param fusarium whether there is fusarium
-	     * @param leafDrought whether there is leaf drought
-	     * @param powdryMildrew whether there is powdry mildrew
-	     * @param barleyGoutFly whether there is barley gout fly
-	     * @param delioFly whether there is delio fly
-	     * @param fritFly whether there is frit fly
+	     * @param events the bitmask of the events of the year
 	     */
-		private Conditions(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, boolean drought, boolean fusarium, boolean leafDrought, boolean powdryMildrew, boolean barleyGoutFly, boolean delioFly, boolean fritFly) {
+		Conditions(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int events) {
 			this.soilConditions = soilConditions;
 			this.averageTemperatureSummer = averageTemperatureSummer;
 			this.averageTemperatureWinter = averageTemperatureWinter;
-			this.drought = drought;
-			this.fusarium = fusarium;
-			this.leafDrought = leafDrought;
-			this.powdryMildrew = powdryMildrew;
-			this.barleyGoutFly = barleyGoutFly;
-			this.delioFly = delioFly;
-			this.fritFly = fritFly;
+			this.events = events;
 		}
 
 		/**
-		 * This method generates random conditions for growing barley.
+		 * This method generates random conditions for growing grain.
 		 * @return a Conditions object with random values
 		 */
 		public static Conditions generateRandomConditions() {
-			Random random = new Random();
-			HashMap<String, Boolean> settings = new HashMap<String, Boolean>(
-				Map.of(
-						"drought", false,
-						"fusarium", false,
-						"leadDrought", false,
-						"powdryMildrew", false,
-						"barleyGoutFly", false,
-						"delioFly", false,
-						"fritFly", false	
-				)
-			);
+			return generateRandomConditions(ThreadLocalRandom.current());
+		}
+		
+		/**
+		 * This method generates random conditions for growing grain from the given random generator.
+		 * @param random the random generator to draw the conditions from
+		 * @return a Conditions object with random values
+		 */
+		public static Conditions generateRandomConditions(RandomGenerator random) {
+			return new Conditions(0, 0, 0, 0).randomize(random);
+		}
+		
+		/**
+		 * This method replaces the values of these conditions with random values drawn from the given random generator.
+		 * Unlike {@link #generateRandomConditions(RandomGenerator)}, it does not allocate any objects,
+		 * so the conditions of a city can be reused from year to year.
+		 * Each event occurs independently with {@link #EVENT_PROBABILITY}.
+		 * @param random the random generator to draw the conditions from
+		 * @return these conditions
+		 */
+		public Conditions randomize(RandomGenerator random) {
+			this.soilConditions = random.nextFloat(0.0f, 1.0f);
+			this.averageTemperatureSummer = random.nextFloat(Conditions.SUMMER_TEMPERATURE_LOWER, Conditions.SUMMER_TEMPERATURE_HIGHER);
+			this.averageTemperatureWinter = random.nextFloat(Conditions.WINTER_TEMPERATURE_LOWER, Conditions.WINTER_TEMPERATURE_HIGHER);
 			
-			//Generate seed upon which the probabilities will be set
-			long lowerBoundary = 0x10000000000000L;
-			long upperBoundary = 0x64646464646464L;
-
-			long seed = random.nextLong(lowerBoundary, upperBoundary);
-
-			//Some bit magic
-			for(String key: settings.keySet()) {
-				long setting = seed & 0x64;
-				seed >>= 8;
-				
-				if(setting >= 80) {
-					settings.put(key, true);
+			int events = 0;
+			for(int event = YieldEngine.DROUGHT; event <= YieldEngine.FRIT_FLY; event <<= 1) {
+				if(random.nextFloat() > 1 - EVENT_PROBABILITY) {
+					events |= event;
 				}
 			}
-			
-			return new Conditions(
-					random.nextFloat(0.0f, 1.0f),
-					random.nextFloat(Conditions.SUMMER_TEMPERATURE_LOWER, Conditions.SUMMER_TEMPERATURE_HIGHER),
-					random.nextFloat(Conditions.WINTER_TEMPERATURE_LOWER, Conditions.WINTER_TEMPERATURE_HIGHER),
-					settings.get("drought"),
-					settings.get("fusarium"),
-					settings.get("leadDrought"),
-					settings.get("powdryMildrew"),
-					settings.get("barleyGoutFly"),
-					settings.get("delioFly"),
-					settings.get("fritFly")
-			);
+			this.events = events;
+			return this;
+		}
+		
+		/**
+		 * This method returns the events of the year as a bitmask of the constants {@link YieldEngine#DROUGHT} to {@link YieldEngine#FRIT_FLY}.
+		 * @return the bitmask of the events
+		 */
+		public int getEvents() {
+			return events;
+		}
+		
+		/**
+		 * This method sets the events of the year.
+		 * @param events the bitmask of the events, see {@link #getEvents()}
+		 */
+		public void setEvents(int events) {
+			this.events = events;
+		}
+		
+		private void setEvent(int event, boolean occurs) {
+			this.events = occurs ? this.events | event : this.events & ~event;
 		}
 		
 		/** Getters **/
@@ -173,7 +171,7 @@ public abstract class Grain {
 		 * @return whether there is barley gout fly
 		 */
 		public boolean isBarleyGoutFly() {
-		    return barleyGoutFly;
+		    return (events & YieldEngine.BARLEY_GOUT_FLY) != 0;
 		}
 
 		/**
@@ -181,7 +179,7 @@ public abstract class Grain {
 		 * @return whether there is delio fly
 		 */
 		public boolean isDelioFly() {
-		    return delioFly;
+		    return (events & YieldEngine.DELIA_FLY) != 0;
 		}
 
 		/**
@@ -189,7 +187,7 @@ public abstract class Grain {
 		 * @return whether there is drought
 		 */
 		public boolean isDrought() {
-		    return drought;
+		    return (events & YieldEngine.DROUGHT) != 0;
 		}
 
 		/**
@@ -197,7 +195,7 @@ public abstract class Grain {
 		 * @return whether there is frit fly
 		 */
 		public boolean isFritFly() {
-		    return fritFly;
+		    return (events & YieldEngine.FRIT_FLY) != 0;
 		}
 
 		/**
@@ -205,7 +203,7 @@ public abstract class Grain {
 		 * @return whether there is fusarium
 		 */
 		public boolean isFusarium() {
-		    return fusarium;
+		    return (events & YieldEngine.FUSARIUM) != 0;
 		}
 
 		/**
@@ -213,7 +211,7 @@ public abstract class Grain {
 		 * @return whether there is leaf drought
 		 */
 		public boolean isLeafDrought() {
-		    return leafDrought;
+		    return (events & YieldEngine.LEAF_DROUGHT) != 0;
 		}
 
 		/**
@@ -221,7 +219,7 @@ public abstract class Grain {
 		 * @return whether there is powdry mildrew
 		 */
 		public boolean isPowdryMildrew() {
-		    return powdryMildrew;
+		    return (events & YieldEngine.POWDERY_MILDEW) != 0;
 		}
 
 		/**
@@ -279,7 +277,7 @@ public abstract class Grain {
 		 * @param barleyGoutFly whether there is barley gout fly
 		 */
 		public void setBarleyGoutFly(boolean barleyGoutFly) {
-		    this.barleyGoutFly = barleyGoutFly;
+		    this.setEvent(YieldEngine.BARLEY_GOUT_FLY, barleyGoutFly);
 		}
 
 		/**
@@ -287,7 +285,7 @@ public abstract class Grain {
 		 * @param delioFly whether there is delio fly
 		 */
 		public void setDelioFly(boolean delioFly) {
-		    this.delioFly = delioFly;
+		    this.setEvent(YieldEngine.DELIA_FLY, delioFly);
 		}
 
 		/**
@@ -295,7 +293,7 @@ public abstract class Grain {
 		 * @param drought whether there is drought
 		 */
 		public void setDrought(boolean drought) {
-		    this.drought = drought;
+		    this.setEvent(YieldEngine.DROUGHT, drought);
 		}
 
 		/**
@@ -303,7 +301,7 @@ public abstract class Grain {
 		 * @param fritFly whether there is frit fly
 		 */
 		public void setFritFly(boolean fritFly) {
-		    this.fritFly = fritFly;
+		    this.setEvent(YieldEngine.FRIT_FLY, fritFly);
 		}
 
 		/**
@@ -311,7 +309,7 @@ public abstract class Grain {
 		 * @param fusarium whether there is fusarium
 		 */
 		public void setFusarium(boolean fusarium) {
-		    this.fusarium = fusarium;
+		    this.setEvent(YieldEngine.FUSARIUM, fusarium);
 		}
 
 		/**
@@ -319,7 +317,7 @@ public abstract class Grain {
 		 * @param leafDrought whether there is leaf drought
 		 */
 		public void setLeafDrought(boolean leafDrought) {
-		    this.leafDrought = leafDrought;
+		    this.setEvent(YieldEngine.LEAF_DROUGHT, leafDrought);
 		}
 
 		/**
@@ -327,7 +325,7 @@ public abstract class Grain {
 		 * @param powdryMildrew whether there is powdry mildrew
 		 */
 		public void setPowdryMildrew(boolean powdryMildrew) {
-		    this.powdryMildrew = powdryMildrew;
+		    this.setEvent(YieldEngine.POWDERY_MILDEW, powdryMildrew);
 		}
 		
 		/**
@@ -397,6 +395,35 @@ public abstract class Grain {
      */
 	public abstract void diseaseOutbreak(Diseases disease, Conditions conditions);
 	
+    /**
+     * Simulates the growth of the grain during a whole year: grows the grain and applies the events of the year
+     * in the order in which the city applies them, i.e. drought, fusarium, leaf drought, powdery mildew,
+     * barley gout fly, delia fly and frit fly.
+     * The {@link YieldEngine} calls this method for crop variants that it has no table for.
+     *
+     * @param conditions The environmental conditions affecting the grain's growth.
+     * @param events     The bitmask of the events of the year, see {@link YieldEngine#DROUGHT}.
+     * @return The yield ratio of the grain at the end of the year.
+     */
+	public float grow(Conditions conditions, int events) {
+		this.grow(conditions);
+		if((events & YieldEngine.DROUGHT) != 0)
+			this.drought();
+		if((events & YieldEngine.FUSARIUM) != 0)
+			this.diseaseOutbreak(Diseases.Fusarium, conditions);
+		if((events & YieldEngine.LEAF_DROUGHT) != 0)
+			this.diseaseOutbreak(Diseases.LeafDrought, conditions);
+		if((events & YieldEngine.POWDERY_MILDEW) != 0)
+			this.diseaseOutbreak(Diseases.PowderyMildew, conditions);
+		if((events & YieldEngine.BARLEY_GOUT_FLY) != 0)
+			this.pestInfestation(Pests.BarleyGoutFly, conditions);
+		if((events & YieldEngine.DELIA_FLY) != 0)
+			this.pestInfestation(Pests.DeliaFly, conditions);
+		if((events & YieldEngine.FRIT_FLY) != 0)
+			this.pestInfestation(Pests.FritFly, conditions);
+		return this.yieldRatio;
+	}
+	
     /**
      * Harvests the grain, returning the crop yield.
      *
@@ -411,6 +438,18 @@ public abstract class Grain {
 		return crop;
 	}
 		
+    /**
+     * Harvests the grain with a yield ratio that was calculated outside the grain, e.g. by the {@link YieldEngine},
+     * instead of the yield ratio resulting from {@link #grow(Conditions)} and the events of the year.
+     *
+     * @param yieldRatio The yield ratio of the grain.
+     * @return The crop yield obtained from harvesting the grain.
+     */
+	public int harvest(float yieldRatio) {
+		this.yieldRatio = yieldRatio;
+		return this.harvest();
+	}
+		
     /**
      * Retrieves the basic yield ratio of the grain.
      *
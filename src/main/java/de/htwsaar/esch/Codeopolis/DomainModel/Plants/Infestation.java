@@ -0,0 +1,259 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Plants;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+
+/**
+ * The `Infestation` class simulates how pests and diseases spread over the plots of a {@link Field} during a year.
+ *
+ * The pests and diseases on a plot are kept as a bitmask of the events of the {@link YieldEngine} in a byte per plot.
+ * An infestation starts at single plots, see {@link #start(int, int, RandomGenerator)}, and spreads season by season
+ * to the four neighbours of an infested plot: a plot is infested with a pest or disease with probability
+ * 1 - (1 - p)^n, where p is the spread probability and n the number of neighbours infested with it,
+ * provided the pest or disease reduces the yield of the grain planted on the plot (see {@link YieldEngine#affects(Game.GrainType, int)}).
+ * Infested plots stay infested.
+ *
+ * Each season is a stencil update from one array into a second one, which are swapped afterwards,
+ * so the rows of the field can be updated in parallel on the common {@link ForkJoinPool}.
+ * The random numbers are derived from the seed, the season and the plot,
+ * so the spread does not depend on how the rows are split between threads.
+ */
+public class Infestation {
+	/**
+	 * The events which spread over a field: the diseases and pests.
+	 */
+	public static final int SPREADING = YieldEngine.FUSARIUM | YieldEngine.LEAF_DROUGHT | YieldEngine.POWDERY_MILDEW
+			| YieldEngine.BARLEY_GOUT_FLY | YieldEngine.DELIA_FLY | YieldEngine.FRIT_FLY;
+	/**
+	 * The number of seasons in which pests and diseases spread during a year, see {@link #outbreak(int, RandomGenerator)}.
+	 */
+	public static final int SEASONS_PER_YEAR = 8;
+	/**
+	 * The share of the plots of a field at which a pest or disease of the year starts, see {@link #outbreak(int, RandomGenerator)}.
+	 */
+	public static final double OUTBREAK_SHARE = 0.01;
+	/**
+	 * The probability that a pest or disease spreads to a neighbouring plot in a season, as used by the city.
+	 */
+	public static final double SPREAD_PROBABILITY = 0.35;
+	private static final int PLOTS_PER_TASK = 1 << 15; // Minimum number of plots updated by one task
+
+	private final Field field;
+	private final int rows;
+	private final int columns;
+	private final int[] susceptible; // Events which spread to each grain type, indexed by ordinal
+	private final double[] spreadProbability; // Probability of spreading to a plot, indexed by the number of infested neighbours
+	private final long seed;
+	private byte[] current;
+	private byte[] next;
+	private int season;
+
+	/**
+	 * Constructs an Infestation object for a field without any pests or diseases.
+	 *
+	 * @param field             The field.
+	 * @param spreadProbability The probability that a pest or disease spreads from an infested plot to a neighbour in a season.
+	 * @param seed              The seed of the random numbers of the spread.
+	 * @throws IllegalArgumentException If the spread probability is not in the range [0, 1].
+	 */
+	public Infestation(Field field, double spreadProbability, long seed) {
+		if(!(spreadProbability >= 0 && spreadProbability <= 1)) {
+			throw new IllegalArgumentException("The spread probability must be in the range [0, 1].");
+		}
+		this.field = field;
+		this.rows = field.getRows();
+		this.columns = field.getColumns();
+		this.seed = seed;
+		this.current = new byte[field.getSize()];
+		this.next = new byte[field.getSize()];
+
+		this.susceptible = new int[Game.GrainType.values().length];
+		for(Game.GrainType grainType : Game.GrainType.values()) {
+			for(int event = YieldEngine.DROUGHT; event <= YieldEngine.FRIT_FLY; event <<= 1) {
+				if((event & SPREADING) != 0 && YieldEngine.getInstance().affects(grainType, event)) {
+					this.susceptible[grainType.ordinal()] |= event;
+				}
+			}
+		}
+		this.spreadProbability = new double[5];
+		for(int neighbours = 0; neighbours < this.spreadProbability.length; neighbours++) {
+			this.spreadProbability[neighbours] = 1 - Math.pow(1 - spreadProbability, neighbours);
+		}
+	}
+
+	/**
+	 * Retrieves the field of the infestation.
+	 *
+	 * @return The field.
+	 */
+	public Field getField() {
+		return this.field;
+	}
+
+	private int susceptible(byte crop) {
+		return crop < 0 ? 0 : this.susceptible[crop];
+	}
+
+	/**
+	 * Starts a pest or disease at randomly chosen plots. Plots on which it does not affect the crop are left out.
+	 *
+	 * @param event  The pest or disease, one of the events in {@link #SPREADING}.
+	 * @param plots  The number of plots to choose.
+	 * @param random The random generator used to choose the plots.
+	 * @return The number of plots infested by this call.
+	 * @throws IllegalArgumentException If the event is not a single event which spreads.
+	 */
+	public int start(int event, int plots, RandomGenerator random) {
+		if(Integer.bitCount(event) != 1 || (event & SPREADING) == 0) {
+			throw new IllegalArgumentException("Only a single pest or disease can be started.");
+		}
+		int infested = 0;
+		if(this.current.length == 0) {
+			return infested;
+		}
+		byte[] crops = this.field.getCrops();
+		for(int i = 0; i < plots; i++) {
+			int plot = random.nextInt(this.current.length);
+			if((this.susceptible(crops[plot]) & event) != 0 && (this.current[plot] & event) == 0) {
+				this.current[plot] |= (byte) event;
+				infested++;
+			}
+		}
+		return infested;
+	}
+
+	/**
+	 * Simulates the pests and diseases of a year: each of the given events which spreads starts at
+	 * {@link #OUTBREAK_SHARE} of the plots, at least one, and then spreads for {@link #SEASONS_PER_YEAR} seasons.
+	 *
+	 * @param events The bitmask of the events of the year. Events which do not spread are ignored.
+	 * @param random The random generator used to choose the plots at which the pests and diseases start.
+	 */
+	public void outbreak(int events, RandomGenerator random) {
+		int plots = (int) Math.max(1, this.current.length * OUTBREAK_SHARE);
+		for(int spreading = events & SPREADING; spreading != 0; spreading &= spreading - 1) {
+			this.start(Integer.lowestOneBit(spreading), plots, random);
+		}
+		this.spread(SEASONS_PER_YEAR);
+	}
+
+	/**
+	 * Lets the pests and diseases spread for a number of seasons.
+	 *
+	 * @param seasons The number of seasons.
+	 */
+	public void spread(int seasons) {
+		for(int i = 0; i < seasons; i++) {
+			ForkJoinPool.commonPool().invoke(new SpreadTask(0, this.rows));
+			byte[] swap = this.current;
+			this.current = this.next;
+			this.next = swap;
+			this.season++;
+		}
+	}
+
+	/**
+	 * Retrieves the pests and diseases on a plot.
+	 *
+	 * @param row    The row of the plot.
+	 * @param column The column of the plot.
+	 * @return The bitmask of the events on the plot.
+	 */
+	public int getEvents(int row, int column) {
+		if(row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+			throw new IndexOutOfBoundsException("Plot (" + row + ", " + column + ") is outside a field of " + this.rows + " rows of " + this.columns + " plots.");
+		}
+		return this.getEvents(row * this.columns + column);
+	}
+
+	int getEvents(int plot) {
+		return this.current[plot];
+	}
+
+	/**
+	 * Counts the plots infested with a pest or disease.
+	 *
+	 * @param event The pest or disease.
+	 * @return The number of infested plots.
+	 */
+	public int count(int event) {
+		int count = 0;
+		for(byte events : this.current) {
+			if((events & event) != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Removes all pests and diseases from the field.
+	 */
+	public void clear() {
+		Arrays.fill(this.current, (byte) 0);
+	}
+
+	/**
+	 * Derives a random number in [0, 1) from the seed, the season, the plot and the event (SplitMix64).
+	 */
+	private double random(int plot, int event) {
+		long z = this.seed + 0x9E3779B97F4A7C15L * (((long) this.season << 40) ^ ((long) plot << 8) ^ event);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Updates the plots of a range of rows for one season.
+	 */
+	private final class SpreadTask extends RecursiveAction {
+		private final int fromRow;
+		private final int toRow;
+
+		private SpreadTask(int fromRow, int toRow) {
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.toRow - this.fromRow > 1 && (long) (this.toRow - this.fromRow) * columns > PLOTS_PER_TASK) {
+				int middle = (this.fromRow + this.toRow) >>> 1;
+				invokeAll(new SpreadTask(this.fromRow, middle), new SpreadTask(middle, this.toRow));
+				return;
+			}
+			byte[] crops = field.getCrops();
+			byte[] current = Infestation.this.current;
+			byte[] next = Infestation.this.next;
+			for(int row = this.fromRow; row < this.toRow; row++) {
+				for(int column = 0; column < columns; column++) {
+					int plot = row * columns + column;
+					int events = current[plot];
+					int open = susceptible(crops[plot]) & ~events; // Pests and diseases which could still spread to the plot
+					if(open != 0) {
+						int up = row > 0 ? current[plot - columns] : 0;
+						int down = row < rows - 1 ? current[plot + columns] : 0;
+						int left = column > 0 ? current[plot - 1] : 0;
+						int right = column < columns - 1 ? current[plot + 1] : 0;
+						int neighbours = (up | down | left | right) & open;
+						while(neighbours != 0) {
+							int event = Integer.lowestOneBit(neighbours);
+							neighbours &= ~event;
+							int infested = ((up & event) != 0 ? 1 : 0) + ((down & event) != 0 ? 1 : 0)
+									+ ((left & event) != 0 ? 1 : 0) + ((right & event) != 0 ? 1 : 0);
+							if(random(plot, event) < spreadProbability[infested]) {
+								events |= event;
+							}
+						}
+					}
+					next[plot] = (byte) events;
+				}
+			}
+		}
+	}
+}
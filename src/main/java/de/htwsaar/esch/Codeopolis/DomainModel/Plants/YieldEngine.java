@@ -0,0 +1,351 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Plants;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+
+/**
+ * The `YieldEngine` class calculates the yield ratio of a grain type for a year from precomputed tables
+ * instead of calling {@link Grain#grow(Grain.Conditions)}, {@link Grain#drought()},
+ * {@link Grain#diseaseOutbreak(Grain.Diseases, Grain.Conditions)} and {@link Grain#pestInfestation(Grain.Pests, Grain.Conditions)}
+ * one after the other.
+ *
+ * The events of a year are described by a bitmask of the constants {@link #DROUGHT} to {@link #FRIT_FLY}.
+ * For every grain type, the engine holds the multipliers of each combination of events,
+ * additionally indexed by two bits derived from the conditions of the year:
+ * whether the temperature is outside the range the grain tolerates (see {@link SpringGrain} and {@link WinterGrain}),
+ * and whether the condition of the grain type that makes one of its events more severe applies.
+ * The yield ratio of a year is therefore one table lookup followed by the multiplications of the active events,
+ * without any calls to the grain.
+ *
+ * The multipliers are the same as in the subclasses of {@link Grain}. They are kept as a sequence rather than
+ * as a single product and applied with float rounding after each step, in the order in which the city applies the events,
+ * so the yield ratio is exactly the one the grain would have calculated.
+ *
+ * Crop variants, see {@link CropRegistry}, are calculated with the table of the grain they extend
+ * as long as they only change the harvest, like {@link G13Amnesia}. Variants which change anything else,
+ * for example their response to drought, are grown by calling {@link Grain#grow(Grain.Conditions, int)} instead,
+ * see {@link #findTable(Grain)}.
+ *
+ * For balancing and simulations, {@link #harvest(Game.GrainType, int[], float[], float[], float[], int[], int[])}
+ * calculates the crops of many plots from primitive arrays without creating any grain or conditions objects.
+ */
+public final class YieldEngine {
+	public static final int DROUGHT = 1;
+	public static final int FUSARIUM = 1 << 1;
+	public static final int LEAF_DROUGHT = 1 << 2;
+	public static final int POWDERY_MILDEW = 1 << 3;
+	public static final int BARLEY_GOUT_FLY = 1 << 4;
+	public static final int DELIA_FLY = 1 << 5;
+	public static final int FRIT_FLY = 1 << 6;
+
+	private static final int EVENTS = 7; // Number of event bits
+	private static final int ALL_EVENTS = (1 << EVENTS) - 1;
+	private static final int TEMPERATURE_STRESS = 1 << EVENTS; // The temperature is outside the range the grain tolerates
+	private static final int SEVERE = 1 << (EVENTS + 1); // The event with a condition specific to the grain type is more severe
+	private static final int TABLE_SIZE = 1 << (EVENTS + 2);
+
+	private static final int PARALLEL_THRESHOLD = 1 << 14; // Batches with fewer plots are calculated sequentially
+	private static final int CHUNK_SIZE = 1 << 12; // Number of plots calculated by one parallel task
+
+	private static final YieldEngine INSTANCE = new YieldEngine();
+
+	/**
+	 * The yield rules of a single grain type.
+	 */
+	private static final class Rule {
+		private final Game.GrainType grainType;
+		private final Class<?> type; // The class of the grain the rule was derived from
+		private final float basicYieldRatio;
+		private final boolean springGrain;
+		private final float temperatureThreshold; // Above this summer temperature (spring grain) or below this winter temperature (winter grain), the grain suffers
+		private final float optimalTemperature;
+		private final double[][] multipliers = new double[TABLE_SIZE][];
+
+		/**
+		 * Constructs the rule of a grain type.
+		 *
+		 * @param grainType       The grain type.
+		 * @param prototype       A grain of the type, providing the basic yield ratio, crop failure and temperature resistance.
+		 * @param factors         The multiplier of each event, indexed by the bit of the event.
+		 * @param severeFactors   The multiplier of each event if the condition specific to the grain type applies.
+		 */
+		private Rule(Game.GrainType grainType, Grain prototype, double[] factors, double[] severeFactors) {
+			this.grainType = grainType;
+			this.type = prototype.getClass();
+			this.basicYieldRatio = prototype.getBasicYieldRatio();
+			this.springGrain = prototype instanceof SpringGrain;
+			if(prototype instanceof SpringGrain springGrain) {
+				this.optimalTemperature = springGrain.getOPTIMAL_SUMMER_TEMPERATURE();
+				this.temperatureThreshold = this.optimalTemperature * (1 + springGrain.getHeatResistance());
+			}
+			else {
+				WinterGrain winterGrain = (WinterGrain) prototype;
+				this.optimalTemperature = winterGrain.getOPTIMAL_WINTER_TEMPERATURE();
+				this.temperatureThreshold = this.optimalTemperature * (1 - winterGrain.getColdResistence());
+			}
+
+			double cropFailure = 1 - prototype.getCropFailureDueToBadConditions();
+			double[] sequence = new double[EVENTS + 1];
+			for(int index = 0; index < TABLE_SIZE; index++) {
+				int length = 0;
+				if((index & TEMPERATURE_STRESS) != 0) {
+					sequence[length++] = cropFailure;
+				}
+				double[] eventFactors = (index & SEVERE) != 0 ? severeFactors : factors;
+				for(int event = 0; event < EVENTS; event++) {
+					// Events without an effect on the grain type are left out
+					if((index & (1 << event)) != 0 && eventFactors[event] != 1) {
+						sequence[length++] = eventFactors[event];
+					}
+				}
+				this.multipliers[index] = Arrays.copyOf(sequence, length);
+			}
+		}
+
+		/**
+		 * Derives the condition bits of the table index from the conditions of the year.
+		 *
+		 * @param soilConditions            The quality of the soil.
+		 * @param averageTemperatureSummer  The average temperature during summer.
+		 * @param averageTemperatureWinter  The average temperature during winter.
+		 * @return The condition bits.
+		 */
+		private int conditionBits(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter) {
+			int bits = 0;
+			if(this.springGrain ? averageTemperatureSummer > this.temperatureThreshold
+					: averageTemperatureWinter < this.temperatureThreshold) {
+				bits |= TEMPERATURE_STRESS;
+			}
+			boolean severe;
+			switch(this.grainType) {
+				case MILLET:
+					severe = soilConditions < 0.8; // Barley gout fly on poor soil
+					break;
+				case RICE:
+					severe = averageTemperatureSummer > this.temperatureThreshold; // Delia fly in a hot summer
+					break;
+				case RYE:
+					severe = averageTemperatureWinter > this.optimalTemperature + 3f; // Powdery mildew in a mild winter
+					break;
+				case WHEAT:
+					severe = averageTemperatureWinter > this.optimalTemperature + 2f; // Leaf drought in a mild winter
+					break;
+				default:
+					severe = false;
+					break;
+			}
+			return severe ? bits | SEVERE : bits;
+		}
+
+		/**
+		 * Calculates the yield ratio of the grain type for a year.
+		 *
+		 * @param soilConditions            The quality of the soil.
+		 * @param averageTemperatureSummer  The average temperature during summer.
+		 * @param averageTemperatureWinter  The average temperature during winter.
+		 * @param events                    The bitmask of the events of the year.
+		 * @return The yield ratio.
+		 */
+		private float yieldRatio(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int events) {
+			float yieldRatio = soilConditions * this.basicYieldRatio;
+			for(double multiplier : this.multipliers[(events & ALL_EVENTS) | this.conditionBits(soilConditions, averageTemperatureSummer, averageTemperatureWinter)]) {
+				yieldRatio *= multiplier;
+			}
+			return yieldRatio;
+		}
+	}
+
+	private final Rule[] rules = new Rule[Game.GrainType.values().length];
+
+	/**
+	 * The grain type whose table describes the growth of each class of grain, or null if the class is grown by its own methods.
+	 */
+	private final ClassValue<Game.GrainType> tables = new ClassValue<Game.GrainType>() {
+		@Override
+		protected Game.GrainType computeValue(Class<?> type) {
+			for(Class<?> superclass = type; superclass != null && superclass != Grain.class; superclass = superclass.getSuperclass()) {
+				for(Rule rule : rules) {
+					if(rule.type == superclass) {
+						return rule.grainType;
+					}
+				}
+				for(Method method : superclass.getDeclaredMethods()) {
+					// Any other method might change how the grain grows
+					if(!method.isSynthetic() && !Modifier.isStatic(method.getModifiers()) && !method.getName().equals("harvest")) {
+						return null;
+					}
+				}
+			}
+			return null;
+		}
+	};
+
+	private YieldEngine() {
+		// Factors indexed by event: drought, fusarium, leaf drought, powdery mildew, barley gout fly, delia fly, frit fly
+		this.add(Game.GrainType.BARLEY, new Barley(), new double[] {0.8, 0.75f, 1, 1, 0.6, 1, 1}, null);
+		this.add(Game.GrainType.CORN, new Corn(), new double[] {0.7, 1, 1, 0.75f, 1, 1, 0.6f}, null);
+		this.add(Game.GrainType.MILLET, new Millet(), new double[] {0.95f, 1, 1, 1, 0.9f, 1, 1}, new double[] {0.95f, 1, 1, 1, 0.85f, 1, 1});
+		this.add(Game.GrainType.RICE, new Rice(), new double[] {0.5, 0.75f, 0.7f, 1, 0.7f, 0.7f, 1}, new double[] {0.5, 0.75f, 0.7f, 1, 0.7f, 0.6f, 1});
+		this.add(Game.GrainType.RYE, new Rye(), new double[] {0.95, 1, 1, 0.9f, 1, 1, 1}, new double[] {0.95, 1, 1, 0.85f, 1, 1, 1});
+		this.add(Game.GrainType.WHEAT, new Wheat(), new double[] {0.5, 1, 0.7, 0.7f, 0.7f, 1, 0.75f}, new double[] {0.5, 1, 0.6f, 0.7f, 0.7f, 1, 0.75f});
+	}
+
+	private void add(Game.GrainType grainType, Grain prototype, double[] factors, double[] severeFactors) {
+		this.rules[grainType.ordinal()] = new Rule(grainType, prototype, factors, severeFactors == null ? factors : severeFactors);
+	}
+
+	/**
+	 * Returns the yield engine.
+	 *
+	 * @return The yield engine.
+	 */
+	public static YieldEngine getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Combines the events of a year into a bitmask.
+	 *
+	 * @param drought        Whether there is a drought.
+	 * @param fusarium       Whether there is a fusarium outbreak.
+	 * @param leafDrought    Whether there is a leaf drought outbreak.
+	 * @param powderyMildew  Whether there is a powdery mildew outbreak.
+	 * @param barleyGoutFly  Whether there is a barley gout fly infestation.
+	 * @param deliaFly       Whether there is a delia fly infestation.
+	 * @param fritFly        Whether there is a frit fly infestation.
+	 * @return The bitmask of the events.
+	 */
+	public static int events(boolean drought, boolean fusarium, boolean leafDrought, boolean powderyMildew, boolean barleyGoutFly, boolean deliaFly, boolean fritFly) {
+		return (drought ? DROUGHT : 0) | (fusarium ? FUSARIUM : 0) | (leafDrought ? LEAF_DROUGHT : 0) | (powderyMildew ? POWDERY_MILDEW : 0)
+				| (barleyGoutFly ? BARLEY_GOUT_FLY : 0) | (deliaFly ? DELIA_FLY : 0) | (fritFly ? FRIT_FLY : 0);
+	}
+
+	/**
+	 * Calculates the yield ratio of a grain type for a year.
+	 *
+	 * @param grainType  The grain type.
+	 * @param conditions The conditions of the year.
+	 * @param events     The bitmask of the events of the year.
+	 * @return The yield ratio of the grain type.
+	 */
+	public float yieldRatio(Game.GrainType grainType, Grain.Conditions conditions, int events) {
+		return this.rules[grainType.ordinal()].yieldRatio(conditions.getSoilConditions(),
+				conditions.getAverageTemperatureSummer(), conditions.getAverageTemperatureWinter(), events);
+	}
+
+	/**
+	 * Finds the table that describes the growth of a grain.
+	 * The grains of the game are described by the table of their grain type. A subclass of one of them uses the same table
+	 * if it declares no methods other than overrides of {@link Grain#harvest()} and {@link Grain#harvest(float)}.
+	 *
+	 * @param grain The grain.
+	 * @return The grain type whose table describes the growth of the grain, or null if the grain has to be grown by its own methods.
+	 */
+	public Game.GrainType findTable(Grain grain) {
+		return this.tables.get(grain.getClass());
+	}
+
+	/**
+	 * Calculates the yield ratio of a grain for a year.
+	 * Grains without a table, see {@link #findTable(Grain)}, are grown by {@link Grain#grow(Grain.Conditions, int)},
+	 * which changes the yield ratio of the grain.
+	 *
+	 * @param grain      The grain.
+	 * @param conditions The conditions of the year.
+	 * @param events     The bitmask of the events of the year.
+	 * @return The yield ratio of the grain.
+	 */
+	public float yieldRatio(Grain grain, Grain.Conditions conditions, int events) {
+		Game.GrainType table = this.findTable(grain);
+		if(table == null) {
+			return grain.grow(conditions, events);
+		}
+		return this.yieldRatio(table, conditions, events);
+	}
+
+	/**
+	 * Calculates the yield ratio of a grain type for a year from the values of its conditions.
+	 *
+	 * @param grainType                 The grain type.
+	 * @param soilConditions            The quality of the soil.
+	 * @param averageTemperatureSummer  The average temperature during summer.
+	 * @param averageTemperatureWinter  The average temperature during winter.
+	 * @param events                    The bitmask of the events of the year.
+	 * @return The yield ratio of the grain type.
+	 */
+	public float yieldRatio(Game.GrainType grainType, float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int events) {
+		return this.rules[grainType.ordinal()].yieldRatio(soilConditions, averageTemperatureSummer, averageTemperatureWinter, events);
+	}
+
+	/**
+	 * Determines whether an event reduces the yield of a grain type at all.
+	 *
+	 * @param grainType The grain type.
+	 * @param event     The event, one of the constants {@link #DROUGHT} to {@link #FRIT_FLY}.
+	 * @return True if the event reduces the yield of the grain type, false otherwise.
+	 */
+	public boolean affects(Game.GrainType grainType, int event) {
+		Rule rule = this.rules[grainType.ordinal()];
+		return rule.multipliers[event & ALL_EVENTS].length > 0 || rule.multipliers[(event & ALL_EVENTS) | SEVERE].length > 0;
+	}
+
+	/**
+	 * Calculates the crop of a grain type planted on the given number of acres, see {@link Grain#harvest()}.
+	 *
+	 * @param grainType  The grain type.
+	 * @param acres      The number of acres planted.
+	 * @param conditions The conditions of the year.
+	 * @param events     The bitmask of the events of the year.
+	 * @return The crop yield, or 0 if the number of acres is not positive.
+	 */
+	public int harvest(Game.GrainType grainType, int acres, Grain.Conditions conditions, int events) {
+		if(acres <= 0) {
+			return 0;
+		}
+		return Math.round(acres * this.yieldRatio(grainType, conditions, events));
+	}
+
+	/**
+	 * Calculates the crops of many plots of a grain type at once, see {@link #harvest(Game.GrainType, int, Grain.Conditions, int)}.
+	 * Each plot is described by the elements with the same index in the input arrays.
+	 * Large batches are split into chunks which are calculated in parallel.
+	 *
+	 * @param grainType                 The grain type planted on all plots.
+	 * @param acres                     The number of acres planted on each plot.
+	 * @param soilConditions            The quality of the soil of each plot.
+	 * @param averageTemperatureSummer  The average temperature during summer of each plot.
+	 * @param averageTemperatureWinter  The average temperature during winter of each plot.
+	 * @param events                    The bitmask of the events of each plot.
+	 * @param crops                     The array to fill with the crop of each plot.
+	 * @throws IllegalArgumentException If the arrays do not all have the same length.
+	 */
+	public void harvest(Game.GrainType grainType, int[] acres, float[] soilConditions, float[] averageTemperatureSummer,
+			float[] averageTemperatureWinter, int[] events, int[] crops) {
+		int plots = acres.length;
+		if(soilConditions.length != plots || averageTemperatureSummer.length != plots || averageTemperatureWinter.length != plots
+				|| events.length != plots || crops.length != plots) {
+			throw new IllegalArgumentException("All arrays of a batch must have the same length.");
+		}
+		Rule rule = this.rules[grainType.ordinal()];
+		if(plots < PARALLEL_THRESHOLD) {
+			harvest(rule, acres, soilConditions, averageTemperatureSummer, averageTemperatureWinter, events, crops, 0, plots);
+			return;
+		}
+		IntStream.range(0, (plots + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+			int from = chunk * CHUNK_SIZE;
+			harvest(rule, acres, soilConditions, averageTemperatureSummer, averageTemperatureWinter, events, crops, from, Math.min(plots, from + CHUNK_SIZE));
+		});
+	}
+
+	private static void harvest(Rule rule, int[] acres, float[] soilConditions, float[] averageTemperatureSummer,
+			float[] averageTemperatureWinter, int[] events, int[] crops, int from, int to) {
+		for(int plot = from; plot < to; plot++) {
+			crops[plot] = acres[plot] <= 0 ? 0 : Math.round(acres[plot]
+					* rule.yieldRatio(soilConditions[plot], averageTemperatureSummer[plot], averageTemperatureWinter[plot], events[plot]));
+		}
+	}
+}
@@ -8,12 +8,15 @@ import java.io.Serializable;
 
 /**
  * The Silo class represents a storage unit for a specific type of grain.
+ * The harvests in the silo are kept in a columnar {@link HarvestStore}; {@link Harvest} objects
+ * are only created when harvests are handed out of the silo.
  */
 public class Silo implements Serializable, Comparable<Silo> {
-    private LinkedList<Harvest> stock;
+    private HarvestStore stock;
     private final int capacity;
     private int fillLevel;
-    private int stockIndex = -1;
+    private boolean sharedStock = false;
+    private int decayHorizon = Integer.MAX_VALUE;
     
     public class Status {
     	private int capacity;
@@ -40,24 +43,56 @@ public class Silo implements Serializable, Comparable<Silo> {
      */
     public Silo(int capacity) {
         this.capacity = capacity;
-        this.stock = new LinkedList<Harvest>();
+        this.stock = new HarvestStore();
         this.fillLevel = 0;
     }
     
     /**
      * Copy constructor for the Silo class.
-     * Creates a new Silo object as a deep copy of another Silo object.
-     * This constructor is used to ensure that each property of the Silo,
-     * including mutable objects, is copied and independent of the original object.
+     * Creates a new Silo object that is independent of the original object.
+     * The stock of the original is copied, so the original is only read and may be in use by other threads.
      *
      * @param other The Silo object to copy.
      */
     public Silo(Silo other) {
+        this(other, false);
+    }
+    
+    /**
+     * Creates a copy of a silo which shares the stock of the original copy-on-write if the original is frozen.
+     * A frozen silo is never modified again, e.g. a silo of a {@link DepotSnapshot}, so the copy can keep referencing
+     * its stock until the copy itself is modified, which then copies the stock before changing it.
+     * Copying a frozen silo is therefore O(1), and only copies that are actually modified pay for a deep copy.
+     * The original is never written to.
+     *
+     * @param other  The Silo object to copy.
+     * @param frozen Whether the original is never modified again.
+     */
+    Silo(Silo other, boolean frozen) {
         this.capacity = other.capacity;
         this.fillLevel = other.fillLevel;
-        this.stockIndex = other.stockIndex;
+        this.decayHorizon = other.decayHorizon;
 
-        this.stock = other.stock;
+        if(frozen) {
+        	this.stock = other.stock;
+        	this.sharedStock = true;
+        }
+        else {
+        	this.stock = other.stock.copy();
+        }
+    }
+    
+    /**
+     * Ensures that this silo owns its stock before it is modified.
+     * If the stock is still shared with a copy of this silo, the stock is copied.
+     */
+    private void ensureOwnStock() {
+    	if(!this.sharedStock) {
+    		return;
+    	}
+    	
+    	this.stock = this.stock.copy();
+    	this.sharedStock = false;
     }
 
     /**
@@ -67,8 +102,13 @@ public class Silo implements Serializable, Comparable<Silo> {
      * @return The amount of grain that could not be stored due to capacity limitations.
      */
     public Harvest store(Harvest harvest) {
+    	// An empty harvest is dropped, so an empty silo never picks up its grain type
+    	if (harvest.getAmount() == 0) {
+    		return null;
+    	}
+    	
     	 // Check if the grain type matches the existing grain in the silo
-        if (fillLevel > 0 && stock.get(0).getGrainType() != harvest.getGrainType()) {
+        if (fillLevel > 0 && stock.getGrainType(0) != harvest.getGrainType()) {
             throw new IllegalArgumentException("The grain type of the given Harvest does not match the grain type of the silo");
         }
         
@@ -80,21 +120,23 @@ public class Silo implements Serializable, Comparable<Silo> {
         
         
         if(fillLevel < capacity) {
+        	ensureOwnStock();
+        	
 	        // Check if the entire harvest can be stored
 	        int remainingCapacity = this.capacity - this.fillLevel;
 	        
 	        
 	        if(harvest.getAmount() <= remainingCapacity) {
-	        	this.stockIndex++;
-	        	this.stock.addLast(harvest);
+	        	this.stock.append(harvest);
+	        	this.decayHorizon = Math.min(this.decayHorizon, harvest.getDecayStartYear());
 	        	this.fillLevel += harvest.getAmount();
 	        	return null;
 	        }
 	        else {
 	        	// Split the harvest and store the remaining amount
 	            Harvest remainingHarvest = harvest.split(remainingCapacity);
-	            this.stockIndex++;
-	            this.stock.addLast(remainingHarvest);
+	            this.stock.append(remainingHarvest);
+	            this.decayHorizon = Math.min(this.decayHorizon, remainingHarvest.getDecayStartYear());
 	            this.fillLevel += remainingHarvest.getAmount();
 	            return harvest; // Return the surplus amount
 	        }
@@ -112,17 +154,17 @@ public class Silo implements Serializable, Comparable<Silo> {
      *         If the silo is empty, an empty array is returned.
      */
     public LinkedList<Harvest> emptySilo() {
-        if (stockIndex == -1) {
+        if (stock.size() == 0) {
             return null;
         }
         else {
-        	LinkedList<Harvest> removedHarvests = new LinkedList<Harvest>();
-        	this.stock.forEach((harvest)-> removedHarvests.addLast(harvest));
+        	ensureOwnStock();
+        	LinkedList<Harvest> removedHarvests = this.stock.toHarvests();
         	
         	stock.clear();
         	
-            stockIndex = -1;
             fillLevel = 0;
+            decayHorizon = Integer.MAX_VALUE;
             return removedHarvests;
         }
     }
@@ -137,24 +179,8 @@ public class Silo implements Serializable, Comparable<Silo> {
      * @return The actual amount of grain taken out from the silo.
      */
     public int takeOut(int amount) {
-        int takenAmount = 0;
-
-        for (int i = 0; i <= stockIndex && amount > 0; i++) {
-            Harvest currentHarvest = stock.get(i);
-            int taken = currentHarvest.remove(amount);
-            amount -= taken;
-            takenAmount += taken;
-
-            if (currentHarvest.getAmount() == 0) {
-                // Remove empty harvest
-                for (int j = i; j < stockIndex; j++) {
-                    stock.set(stock.get(j + 1), j);
-                }
-                stock.remove(stockIndex);
-                stockIndex--;
-                i--; // Check the same index again, as a new harvest may have been moved here
-            }
-        }
+        ensureOwnStock();
+        int takenAmount = this.stock.takeOut(amount);
         this.fillLevel -= takenAmount;
         return takenAmount;
     }
@@ -184,8 +210,8 @@ public class Silo implements Serializable, Comparable<Silo> {
      */
     public Game.GrainType getGrainType() {
         // Assuming each silo stores only one type of grain, we can retrieve the grain type from the first stored harvest
-        if (fillLevel > 0 && stock.get(0) != null) {
-            return stock.get(0).getGrainType();
+        if (fillLevel > 0 && stock.size() > 0) {
+            return stock.getGrainType(0);
         } 
         else {
             return null; 
@@ -198,37 +224,73 @@ public class Silo implements Serializable, Comparable<Silo> {
      * @return The number of harvests stored in the silo.
      */
     public int getHarvestCount() {
-        return this.stockIndex+1;
+        return this.stock.size();
+    }
+    
+    /**
+     * Retrieves the number of harvest fragments stored in the silo.
+     * Fragments of the same grain type and year which are stored one after the other are coalesced
+     * into a single harvest, so this number is at least {@link #getHarvestCount()}.
+     *
+     * @return The number of fragments stored in the silo.
+     */
+    public int getFragmentCount() {
+    	return this.stock.getFragmentCount();
+    }
+    
+    /**
+     * Retrieves the year of the oldest harvest stored in the silo.
+     *
+     * @return The year of the oldest harvest, or {@link Integer#MAX_VALUE} if the silo is empty.
+     */
+    public int getOldestHarvestYear() {
+    	return this.stock.getOldestYear();
     }
     
     public Status getStatus() {
 		return new Status(this.capacity, this.fillLevel);
 	}
     
+    /**
+     * Retrieves the first year in which grain in the silo may decay.
+     * Before this year, {@link #decay(int)} returns 0 without visiting the stored harvests.
+     *
+     * @return The first year of decay, or {@link Integer#MAX_VALUE} if no grain in the silo will ever decay.
+     */
+    public int getDecayHorizon() {
+    	return this.decayHorizon;
+    }
+    
     /**
      * Simulates the decay of grain in all harvests stored in the silo over time.
+     * Silos whose grain is still within its shelf life are skipped, see {@link #getDecayHorizon()}.
      *
      * @param currentYear The current year used to calculate the decay.
      * @return The total amount of grain that decayed in all harvests in the silo.
      */
     public int decay(int currentYear) {
-        double totalDecayAmount = this.stock.sum((harvest)-> (double) harvest.decay(currentYear));
+    	if (currentYear < this.decayHorizon) {
+    		return 0;
+    	}
+    	
+        ensureOwnStock();
+        double totalDecayAmount = this.stock.decay(currentYear);
 
         fillLevel -= totalDecayAmount;
+        this.decayHorizon = this.stock.getDecayHorizon();
         return (int) totalDecayAmount;
     }
     
     public LinkedList<Harvest> getStockCopy() {
-    	LinkedList<Harvest> stockCopy = new LinkedList<Harvest>();
-    	this.stock.forEach(stockCopy::addLast);
-    	
-    	return stockCopy;
+    	return this.stock.toHarvests();
     }
 
     //What exactly does this do?
     public void copyStock(LinkedList<Harvest> other) {
+    	ensureOwnStock();
     	other.forEach(harvest -> {
-    		this.stock.addLast(harvest);
+    		this.stock.append(harvest);
+    		this.decayHorizon = Math.min(this.decayHorizon, harvest.getDecayStartYear());
     	});
     }
     
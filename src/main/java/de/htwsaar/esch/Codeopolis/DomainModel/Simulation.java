@@ -0,0 +1,545 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+
+/**
+ * The Simulation class runs a city through a number of years without a user interface.
+ * The orders of each year are decided by a {@link Strategy} instead of being asked from a {@link UserInterface}.
+ *
+ * Orders the city cannot carry out are reduced to what it can carry out instead of being rejected, so a simulation
+ * never relies on exceptions and never asks again. The simulation follows the rules of {@link Game}: the city is lost when
+ * all residents starved or more than half of them starved in one year, and won when it reaches the number of years
+ * of its configuration. A simulation and a game created from equally seeded random generators develop identically
+ * when given the same orders.
+ *
+ * Observing the city does not copy its state, so a simulation allocates little more per year than the turn itself.
+ */
+public final class Simulation {
+	/**
+	 * The Outcome enum represents the state of a simulated city.
+	 */
+	public enum Outcome {
+		SURVIVED, // The city is still running
+		WON,      // The city reached the number of years of the configuration
+		EXTINCT,  // All residents starved to death
+		STARVED   // More than half of the residents starved in one year
+	}
+
+	/**
+	 * A Strategy decides the orders of a simulated city, see {@link Simulation#run(Strategy, int)}.
+	 */
+	@FunctionalInterface
+	public interface Strategy {
+		/**
+		 * Decides the orders for the current year.
+		 * The orders are reset to doing nothing before each call.
+		 *
+		 * @param city   The current state of the city, valid during the call only.
+		 * @param orders The orders to fill in.
+		 */
+		void decide(Observation city, Orders orders);
+	}
+
+	/**
+	 * The Observation class gives a strategy read access to the simulated city without copying its state.
+	 */
+	public final class Observation {
+		private Observation() {
+		}
+
+		/**
+		 * Returns the current year of the city.
+		 *
+		 * @return The current year.
+		 */
+		public int getYear() {
+			return city.getYear();
+		}
+
+		/**
+		 * Returns the number of residents of the city.
+		 *
+		 * @return The number of residents.
+		 */
+		public int getResidents() {
+			return city.getResidents();
+		}
+
+		/**
+		 * Returns the number of acres owned by the city.
+		 *
+		 * @return The number of acres.
+		 */
+		public int getAcres() {
+			return city.getAcres();
+		}
+
+		/**
+		 * Returns the amount of grain of a grain type stored in the depot.
+		 *
+		 * @param grainType The grain type.
+		 * @return The amount of grain stored for the grain type.
+		 */
+		public long getBushels(GrainType grainType) {
+			return city.getDepot().getFillLevelLong(grainType);
+		}
+
+		/**
+		 * Returns the total amount of grain stored in the depot.
+		 *
+		 * @return The total amount of grain.
+		 */
+		public long getTotalBushels() {
+			return city.getDepot().getTotalFillLevelLong();
+		}
+
+		/**
+		 * Returns the amount of free storage space in the depot.
+		 *
+		 * @return The free storage space.
+		 */
+		public long getFreeCapacity() {
+			Depot depot = city.getDepot();
+			return depot.totalCapacityLong() - depot.getTotalFillLevelLong();
+		}
+
+		/**
+		 * Returns the price per acre for buying land this year.
+		 *
+		 * @return The buying price per acre.
+		 */
+		public int getBuyingPrice() {
+			return buyingPrice;
+		}
+
+		/**
+		 * Returns the price per acre for selling land this year.
+		 *
+		 * @return The selling price per acre.
+		 */
+		public int getSellingPrice() {
+			return sellingPrice;
+		}
+
+		/**
+		 * Returns the configuration of the simulation.
+		 *
+		 * @return The game configuration.
+		 */
+		public GameConfig getConfig() {
+			return config;
+		}
+
+		/**
+		 * Returns the result of the last year.
+		 *
+		 * @return The result of the last turn, or null in the first year of the simulation.
+		 */
+		public TurnResult getLastResult() {
+			return lastResult;
+		}
+	}
+
+	/**
+	 * The Orders class holds the orders of one year. Its methods return the orders themselves,
+	 * so orders can be chained.
+	 */
+	public static final class Orders {
+		private int silos;
+		private int buy;
+		private int sell;
+		private int feed;
+		private final int[] plant = new int[GrainType.values().length];
+
+		private Orders() {
+		}
+
+		private void reset() {
+			this.silos = 0;
+			this.buy = 0;
+			this.sell = 0;
+			this.feed = 0;
+			Arrays.fill(this.plant, 0);
+		}
+
+		/**
+		 * Orders new silos with the silo capacity of the configuration.
+		 * The order is reduced to {@link GameConfig#MAX_NEW_SILOS} and to the silos the city can afford.
+		 *
+		 * @param silos The number of silos to build.
+		 * @return These orders.
+		 */
+		public Orders expandDepot(int silos) {
+			this.silos = silos;
+			return this;
+		}
+
+		/**
+		 * Orders to buy land at this year's buying price.
+		 *
+		 * @param acres The number of acres to buy.
+		 * @return These orders.
+		 */
+		public Orders buy(int acres) {
+			this.buy = acres;
+			return this;
+		}
+
+		/**
+		 * Orders to sell land at this year's selling price.
+		 *
+		 * @param acres The number of acres to sell.
+		 * @return These orders.
+		 */
+		public Orders sell(int acres) {
+			this.sell = acres;
+			return this;
+		}
+
+		/**
+		 * Orders to feed the residents.
+		 *
+		 * @param bushels The number of bushels to feed.
+		 * @return These orders.
+		 */
+		public Orders feed(int bushels) {
+			this.feed = bushels;
+			return this;
+		}
+
+		/**
+		 * Orders to plant a grain type.
+		 *
+		 * @param grainType The grain type to plant.
+		 * @param acres     The number of acres to plant with the grain type.
+		 * @return These orders.
+		 */
+		public Orders plant(GrainType grainType, int acres) {
+			this.plant[grainType.ordinal()] = acres;
+			return this;
+		}
+	}
+
+	/**
+	 * The Summary class represents the result of a simulation, accumulated over all simulated years.
+	 */
+	public static final class Summary {
+		private final Outcome outcome;
+		private final int years;
+		private final int residents;
+		private final int acres;
+		private final long bushels;
+		private final long starved;
+		private final long newResidents;
+		private final long harvested;
+		private final long eatenByRats;
+		private final long decayed;
+		private final int adjustedOrders;
+
+		private Summary(Simulation simulation) {
+			this.outcome = simulation.outcome;
+			this.years = simulation.years;
+			this.residents = simulation.city.getResidents();
+			this.acres = simulation.city.getAcres();
+			this.bushels = simulation.city.getDepot().getTotalFillLevelLong();
+			this.starved = simulation.starved;
+			this.newResidents = simulation.newResidents;
+			this.harvested = simulation.harvested;
+			this.eatenByRats = simulation.eatenByRats;
+			this.decayed = simulation.decayed;
+			this.adjustedOrders = simulation.adjustedOrders;
+		}
+
+		/**
+		 * Returns the outcome of the simulation.
+		 *
+		 * @return The outcome.
+		 */
+		public Outcome getOutcome() {
+			return this.outcome;
+		}
+
+		/**
+		 * Returns the number of simulated years.
+		 *
+		 * @return The number of years.
+		 */
+		public int getYears() {
+			return this.years;
+		}
+
+		/**
+		 * Returns the number of residents at the end of the simulation.
+		 *
+		 * @return The number of residents.
+		 */
+		public int getResidents() {
+			return this.residents;
+		}
+
+		/**
+		 * Returns the number of acres at the end of the simulation.
+		 *
+		 * @return The number of acres.
+		 */
+		public int getAcres() {
+			return this.acres;
+		}
+
+		/**
+		 * Returns the total amount of grain in the depot at the end of the simulation.
+		 *
+		 * @return The total amount of grain.
+		 */
+		public long getBushels() {
+			return this.bushels;
+		}
+
+		/**
+		 * Returns the number of residents who starved during the simulation.
+		 *
+		 * @return The number of starved residents.
+		 */
+		public long getStarved() {
+			return this.starved;
+		}
+
+		/**
+		 * Returns the number of residents who moved to the city during the simulation.
+		 *
+		 * @return The number of new residents.
+		 */
+		public long getNewResidents() {
+			return this.newResidents;
+		}
+
+		/**
+		 * Returns the amount of grain harvested during the simulation.
+		 *
+		 * @return The amount of grain harvested.
+		 */
+		public long getHarvested() {
+			return this.harvested;
+		}
+
+		/**
+		 * Returns the amount of grain eaten by rats during the simulation.
+		 *
+		 * @return The amount of grain eaten by rats.
+		 */
+		public long getEatenByRats() {
+			return this.eatenByRats;
+		}
+
+		/**
+		 * Returns the amount of grain that decayed during the simulation.
+		 *
+		 * @return The amount of grain decayed.
+		 */
+		public long getDecayed() {
+			return this.decayed;
+		}
+
+		/**
+		 * Returns the number of orders that had to be reduced because the city could not carry them out.
+		 *
+		 * @return The number of adjusted orders.
+		 */
+		public int getAdjustedOrders() {
+			return this.adjustedOrders;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj)
+				return true;
+			if(obj == null || this.getClass() != obj.getClass())
+				return false;
+			Summary other = (Summary) obj;
+			return this.outcome == other.outcome && this.years == other.years && this.residents == other.residents
+					&& this.acres == other.acres && this.bushels == other.bushels && this.starved == other.starved
+					&& this.newResidents == other.newResidents && this.harvested == other.harvested
+					&& this.eatenByRats == other.eatenByRats && this.decayed == other.decayed
+					&& this.adjustedOrders == other.adjustedOrders;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.outcome, this.years, this.residents, this.acres, this.bushels, this.starved,
+					this.newResidents, this.harvested, this.eatenByRats, this.decayed, this.adjustedOrders);
+		}
+
+		@Override
+		public String toString() {
+			return "Summary{" +
+					"outcome=" + this.outcome +
+					", years=" + this.years +
+					", residents=" + this.residents +
+					", acres=" + this.acres +
+					", bushels=" + this.bushels +
+					", starved=" + this.starved +
+					", newResidents=" + this.newResidents +
+					", harvested=" + this.harvested +
+					", eatenByRats=" + this.eatenByRats +
+					", decayed=" + this.decayed +
+					", adjustedOrders=" + this.adjustedOrders +
+					'}';
+		}
+	}
+
+	private static final String NAME = "Simulation";
+
+	private final GameConfig config;
+	private final City city;
+	private final RandomGenerator fortune;
+	private final Observation observation = new Observation();
+	private final Orders orders = new Orders();
+	private final int[] plant = new int[GrainType.values().length];
+	private Outcome outcome = Outcome.SURVIVED;
+	private TurnResult lastResult;
+	private int buyingPrice;
+	private int sellingPrice;
+	private int years;
+	private long starved;
+	private long newResidents;
+	private long harvested;
+	private long eatenByRats;
+	private long decayed;
+	private int adjustedOrders;
+
+	/**
+	 * Constructs a simulation of a new city with the given difficulty.
+	 * The configuration and the city each get a generator split off from the given one, as in {@link Game}.
+	 *
+	 * @param difficulty The difficulty level of the simulation.
+	 * @param random     The random generator of the simulation.
+	 */
+	public Simulation(Game.Difficulty difficulty, RandomGenerator.SplittableGenerator random) {
+		this(new GameConfig(difficulty, random.split()), random);
+	}
+
+	/**
+	 * Constructs a simulation of a new city with the given configuration.
+	 * The city gets a generator split off from the given one.
+	 *
+	 * @param config The configuration of the simulation.
+	 * @param random The random generator of the simulation.
+	 */
+	public Simulation(GameConfig config, RandomGenerator.SplittableGenerator random) {
+		this.config = config;
+		this.city = new City(NAME, NAME, config, random.split());
+		this.fortune = random;
+	}
+
+	/**
+	 * Runs the city through the given number of years or until the game is over.
+	 * Further calls continue where the last call stopped.
+	 *
+	 * @param strategy The strategy deciding the orders of each year.
+	 * @param years    The maximum number of years to simulate.
+	 * @return The summary of all years simulated so far.
+	 * @throws IllegalArgumentException If the strategy is null or the number of years is negative.
+	 */
+	public Summary run(Strategy strategy, int years) {
+		if(strategy == null)
+			throw new IllegalArgumentException("The strategy must not be null.");
+		if(years < 0)
+			throw new IllegalArgumentException("The number of years must not be negative: " + years);
+
+		for(int year = 0; year < years && this.outcome == Outcome.SURVIVED; year++) {
+			this.buyingPrice = this.getPricePerAcre();
+			this.sellingPrice = this.getPricePerAcre();
+			this.orders.reset();
+			strategy.decide(this.observation, this.orders);
+			this.carryOut(this.orders);
+
+			TurnResult result = this.city.runTurn();
+			this.lastResult = result;
+			this.years++;
+			this.starved += result.getStarved();
+			this.newResidents += result.getNewResidents();
+			this.harvested += result.getNumberOfBushelsHarvested();
+			this.eatenByRats += result.getAteByRates();
+			this.decayed += result.getBushelsDecayed();
+
+			if(this.city.cityExtinct())
+				this.outcome = Outcome.EXTINCT;
+			else if(result.getStarvedPercentage() > 50)
+				this.outcome = Outcome.STARVED;
+			else if(this.city.getYear() == this.config.getNumberOfYears())
+				this.outcome = Outcome.WON;
+		}
+		return new Summary(this);
+	}
+
+	/**
+	 * Carries out the orders in the order in which {@link Game} asks for them.
+	 * Each order is reduced to what the city can carry out, so none of the orders throws.
+	 */
+	private void carryOut(Orders orders) {
+		Depot depot = this.city.getDepot();
+
+		long affordable = (long) (depot.getTotalFillLevelLong() / GameConfig.DEPOT_EXPANSION_COST);
+		int silos = this.adjust(orders.silos, 0, (int) Math.min(GameConfig.MAX_NEW_SILOS, affordable));
+		if(silos > 0)
+			this.city.expandDepot(silos, this.config.getSiloCapacity());
+
+		int buy = this.adjust(orders.buy, 0, depot.getTotalFillLevel() / this.buyingPrice);
+		this.city.buy(this.buyingPrice, buy);
+
+		int sellable = depot.full() ? 0 : Math.min(this.city.getAcres(), Integer.MAX_VALUE / this.sellingPrice);
+		int sell = this.adjust(orders.sell, 0, sellable);
+		this.city.sell(this.sellingPrice, sell);
+
+		int feed = this.adjust(orders.feed, 0, depot.getTotalFillLevel());
+		this.city.feed(feed);
+
+		long plantable = Math.min(this.city.getAcres(), (long) this.config.getAcrePerResident() * this.city.getResidents());
+		for(GrainType grainType : GrainType.values()) {
+			int i = grainType.ordinal();
+			int acres = this.adjust(orders.plant[i], 0, (int) Math.min(plantable, depot.getFillLevel(grainType) / this.config.getBushelsPerAcre()));
+			this.plant[i] = acres;
+			plantable -= acres;
+		}
+		this.city.plant(this.plant);
+	}
+
+	/**
+	 * Reduces an order to the given range and counts the order as adjusted if it was out of range.
+	 */
+	private int adjust(int order, int min, int max) {
+		int adjusted = Math.max(min, Math.min(order, max));
+		if(adjusted != order)
+			this.adjustedOrders++;
+		return adjusted;
+	}
+
+	/**
+	 * Generates a random price per acre within the configured range, as {@link Game} does.
+	 */
+	private int getPricePerAcre() {
+		return this.fortune.nextInt(this.config.getMaxAcrePrice() - this.config.getMinArcrPrice()) + this.config.getMinArcrPrice();
+	}
+
+	/**
+	 * Returns the outcome of the simulation so far.
+	 *
+	 * @return The outcome.
+	 */
+	public Outcome getOutcome() {
+		return this.outcome;
+	}
+
+	/**
+	 * Returns the current state of the simulated city.
+	 *
+	 * @return The state of the city.
+	 */
+	public CityState getCityState() {
+		return this.city.getState();
+	}
+}
@@ -0,0 +1,319 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.CropRegistry;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Field;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+import de.htwsaar.esch.Codeopolis.DomainModel.Weather.WeatherModel;
+
+/**
+ * The `TurnContext` class holds the state of a city during a turn and the intermediate results of the stages of the turn.
+ * The city creates a context at the start of a turn and takes over the number of residents, the year and the field
+ * from it when all stages have run, see {@link City#runTurn()}.
+ */
+public class TurnContext {
+	private final String name; // The name of the city
+	private final int fed; // Number of bushels fed to the residents
+	private final int acres; // Number of acres owned by the city
+	private final GameConfig config;
+	private final RandomGenerator fortune;
+	private final Grain.Conditions conditions;
+	private final WeatherModel weather;
+	private final CropRegistry crops;
+	private final Grain[] planted;
+	private final Depot depot;
+	private int residents;
+	private int year;
+	private Field field;
+
+	private int starved; // Number of residents who starved during the turn
+	private int starvedPercentage; // Percentage of residents who starved during the turn
+	private int newResidents; // Number of new residents
+	private int events; // Bitmask of the events of the year
+	private final int[] harvested = new int[Game.GrainType.values().length]; // Bushels harvested per grain type
+	private DepotTurnSummary depotSummary;
+	private TurnResult result;
+
+	/**
+	 * Constructs a `TurnContext` object with the state of a city at the start of a turn.
+	 */
+	TurnContext(String name, int residents, int fed, int acres, int year, GameConfig config, RandomGenerator fortune,
+			Grain.Conditions conditions, WeatherModel weather, CropRegistry crops, Grain[] planted, Field field, Depot depot) {
+		this.name = name;
+		this.residents = residents;
+		this.fed = fed;
+		this.acres = acres;
+		this.year = year;
+		this.config = config;
+		this.fortune = fortune;
+		this.conditions = conditions;
+		this.weather = weather;
+		this.crops = crops;
+		this.planted = planted;
+		this.field = field;
+		this.depot = depot;
+	}
+
+	/**
+	 * Returns the name of the city.
+	 *
+	 * @return The name of the city.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the number of residents of the city.
+	 *
+	 * @return The number of residents.
+	 */
+	public int getResidents() {
+		return this.residents;
+	}
+
+	/**
+	 * Sets the number of residents of the city.
+	 *
+	 * @param residents The number of residents.
+	 */
+	public void setResidents(int residents) {
+		this.residents = residents;
+	}
+
+	/**
+	 * Returns the number of bushels fed to the residents in this turn.
+	 *
+	 * @return The number of bushels fed.
+	 */
+	public int getFed() {
+		return this.fed;
+	}
+
+	/**
+	 * Returns the number of acres owned by the city.
+	 *
+	 * @return The number of acres.
+	 */
+	public int getAcres() {
+		return this.acres;
+	}
+
+	/**
+	 * Returns the year of the city.
+	 *
+	 * @return The year.
+	 */
+	public int getYear() {
+		return this.year;
+	}
+
+	/**
+	 * Sets the year of the city.
+	 *
+	 * @param year The year.
+	 */
+	public void setYear(int year) {
+		this.year = year;
+	}
+
+	/**
+	 * Returns the game configuration of the city.
+	 *
+	 * @return The game configuration.
+	 */
+	public GameConfig getConfig() {
+		return this.config;
+	}
+
+	/**
+	 * Returns the random generator of the city.
+	 *
+	 * @return The random generator.
+	 */
+	public RandomGenerator getFortune() {
+		return this.fortune;
+	}
+
+	/**
+	 * Returns the conditions of the year. The object is reused by the city from year to year.
+	 *
+	 * @return The conditions.
+	 */
+	public Grain.Conditions getConditions() {
+		return this.conditions;
+	}
+
+	/**
+	 * Returns the weather model of the city.
+	 *
+	 * @return The weather model.
+	 */
+	public WeatherModel getWeather() {
+		return this.weather;
+	}
+
+	/**
+	 * Returns the crop registry the city plants its grain from.
+	 *
+	 * @return The crop registry.
+	 */
+	public CropRegistry getCrops() {
+		return this.crops;
+	}
+
+	/**
+	 * Returns the grain planted by the city, indexed by the ordinal of the grain type.
+	 *
+	 * @return The planted grain; entries are null for grain types which were not planted.
+	 */
+	public Grain[] getPlanted() {
+		return this.planted;
+	}
+
+	/**
+	 * Returns the field planted by the city.
+	 *
+	 * @return The field, or null if no field was planted.
+	 */
+	public Field getField() {
+		return this.field;
+	}
+
+	/**
+	 * Sets the field planted by the city, for example to null once the field was harvested.
+	 *
+	 * @param field The field, or null.
+	 */
+	public void setField(Field field) {
+		this.field = field;
+	}
+
+	/**
+	 * Returns the depot of the city.
+	 *
+	 * @return The depot.
+	 */
+	public Depot getDepot() {
+		return this.depot;
+	}
+
+	/**
+	 * Returns the number of residents who starved during the turn.
+	 *
+	 * @return The number of residents who starved.
+	 */
+	public int getStarved() {
+		return this.starved;
+	}
+
+	/**
+	 * Sets the number of residents who starved during the turn.
+	 *
+	 * @param starved The number of residents who starved.
+	 */
+	public void setStarved(int starved) {
+		this.starved = starved;
+	}
+
+	/**
+	 * Returns the percentage of residents who starved during the turn.
+	 *
+	 * @return The percentage of residents who starved.
+	 */
+	public int getStarvedPercentage() {
+		return this.starvedPercentage;
+	}
+
+	/**
+	 * Sets the percentage of residents who starved during the turn.
+	 *
+	 * @param starvedPercentage The percentage of residents who starved.
+	 */
+	public void setStarvedPercentage(int starvedPercentage) {
+		this.starvedPercentage = starvedPercentage;
+	}
+
+	/**
+	 * Returns the number of new residents of the city.
+	 *
+	 * @return The number of new residents.
+	 */
+	public int getNewResidents() {
+		return this.newResidents;
+	}
+
+	/**
+	 * Sets the number of new residents of the city.
+	 *
+	 * @param newResidents The number of new residents.
+	 */
+	public void setNewResidents(int newResidents) {
+		this.newResidents = newResidents;
+	}
+
+	/**
+	 * Returns the events of the year, see {@link Grain.Conditions#getEvents()}.
+	 *
+	 * @return The bitmask of the events.
+	 */
+	public int getEvents() {
+		return this.events;
+	}
+
+	/**
+	 * Sets the events of the year.
+	 *
+	 * @param events The bitmask of the events.
+	 */
+	public void setEvents(int events) {
+		this.events = events;
+	}
+
+	/**
+	 * Returns the bushels harvested in this turn, indexed by the ordinal of the grain type.
+	 * The array is filled by the stages of the turn.
+	 *
+	 * @return The bushels harvested.
+	 */
+	public int[] getHarvested() {
+		return this.harvested;
+	}
+
+	/**
+	 * Returns the summary of the depot at the end of the year.
+	 *
+	 * @return The summary, or null if the depot has not been updated in this turn.
+	 */
+	public DepotTurnSummary getDepotSummary() {
+		return this.depotSummary;
+	}
+
+	/**
+	 * Sets the summary of the depot at the end of the year.
+	 *
+	 * @param depotSummary The summary.
+	 */
+	public void setDepotSummary(DepotTurnSummary depotSummary) {
+		this.depotSummary = depotSummary;
+	}
+
+	/**
+	 * Returns the result of the turn.
+	 *
+	 * @return The result, or null if it has not been assembled.
+	 */
+	public TurnResult getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Sets the result of the turn.
+	 *
+	 * @param result The result.
+	 */
+	public void setResult(TurnResult result) {
+		this.result = result;
+	}
+}
@@ -0,0 +1,395 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.Harvest;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Infestation;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.YieldEngine;
+
+/**
+ * The `TurnPipeline` class runs the stages of a city's turn in order, see {@link City#runTurn()}.
+ *
+ * The default pipeline, see {@link #createDefault()}, consists of the stages
+ * {@value #STARVATION}, {@value #POPULATION}, {@value #WEATHER}, {@value #GROWTH}, {@value #STORAGE} and {@value #RESULT}.
+ * Stages are identified by their names and can be replaced, removed, or inserted before other stages.
+ *
+ * If profiling is enabled, the pipeline records for each stage how often it ran, how many nanoseconds it took
+ * and, where the JVM supports it, how many bytes the current thread allocated while it ran.
+ */
+public class TurnPipeline {
+	/**
+	 * The stage which lets residents starve who were not fed.
+	 */
+	public static final String STARVATION = "starvation";
+	/**
+	 * The stage which calculates the new residents of the city.
+	 */
+	public static final String POPULATION = "population";
+	/**
+	 * The stage which determines the conditions and events of the year.
+	 */
+	public static final String WEATHER = "weather";
+	/**
+	 * The stage which harvests the grain planted by the city.
+	 */
+	public static final String GROWTH = "growth";
+	/**
+	 * The stage which stores the harvest in the depot, lets the rats eat and the grain decay.
+	 */
+	public static final String STORAGE = "storage";
+	/**
+	 * The stage which advances the year and assembles the result of the turn.
+	 */
+	public static final String RESULT = "result";
+
+	private static final com.sun.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+			&& threads.isThreadAllocatedMemorySupported() ? threads : null;
+
+	/**
+	 * The timing of a stage of the pipeline.
+	 */
+	public static final class StageTiming {
+		private final String name;
+		private long runs;
+		private long nanos;
+		private long allocatedBytes;
+
+		private StageTiming(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the name of the stage.
+		 *
+		 * @return The name of the stage.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Returns how often the stage ran while profiling was enabled.
+		 *
+		 * @return The number of runs.
+		 */
+		public long getRuns() {
+			return this.runs;
+		}
+
+		/**
+		 * Returns the total time the stage took.
+		 *
+		 * @return The time in nanoseconds.
+		 */
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		/**
+		 * Returns the total number of bytes allocated by the stage.
+		 *
+		 * @return The number of bytes, or -1 if the JVM does not measure allocations.
+		 */
+		public long getAllocatedBytes() {
+			return THREADS == null ? -1 : this.allocatedBytes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-12s %8d runs %12d ns %12d bytes", this.name, this.runs, this.nanos, this.getAllocatedBytes());
+		}
+	}
+
+	private final List<String> names = new ArrayList<String>();
+	private final List<TurnStage> stages = new ArrayList<TurnStage>();
+	private final List<StageTiming> timings = new ArrayList<StageTiming>();
+	private boolean profiling;
+
+	/**
+	 * Constructs an empty TurnPipeline object.
+	 */
+	public TurnPipeline() {
+	}
+
+	/**
+	 * Creates a pipeline with the stages of a turn of the game.
+	 *
+	 * @return A new pipeline with the default stages.
+	 */
+	public static TurnPipeline createDefault() {
+		return new TurnPipeline()
+				.add(STARVATION, TurnPipeline::starvation)
+				.add(POPULATION, TurnPipeline::population)
+				.add(WEATHER, TurnPipeline::weather)
+				.add(GROWTH, TurnPipeline::growth)
+				.add(STORAGE, TurnPipeline::storage)
+				.add(RESULT, TurnPipeline::result);
+	}
+
+	private int indexOf(String name) {
+		int index = this.names.indexOf(name);
+		if(index < 0) {
+			throw new IllegalArgumentException("The pipeline has no stage " + name + ".");
+		}
+		return index;
+	}
+
+	/**
+	 * Appends a stage to the end of the pipeline.
+	 *
+	 * @param name  The name of the stage.
+	 * @param stage The stage.
+	 * @return This pipeline.
+	 * @throws IllegalArgumentException If the pipeline already has a stage with this name or the stage is null.
+	 */
+	public TurnPipeline add(String name, TurnStage stage) {
+		return this.insert(this.names.size(), name, stage);
+	}
+
+	/**
+	 * Inserts a stage before another stage of the pipeline.
+	 *
+	 * @param before The name of the stage before which the new stage runs.
+	 * @param name   The name of the new stage.
+	 * @param stage  The new stage.
+	 * @return This pipeline.
+	 * @throws IllegalArgumentException If there is no stage named before, the pipeline already has a stage with the new name, or the stage is null.
+	 */
+	public TurnPipeline insertBefore(String before, String name, TurnStage stage) {
+		return this.insert(this.indexOf(before), name, stage);
+	}
+
+	private TurnPipeline insert(int index, String name, TurnStage stage) {
+		if(name == null || stage == null) {
+			throw new IllegalArgumentException("The name and the stage cannot be null.");
+		}
+		if(this.names.contains(name)) {
+			throw new IllegalArgumentException("The pipeline already has a stage " + name + ".");
+		}
+		this.names.add(index, name);
+		this.stages.add(index, stage);
+		this.timings.add(index, new StageTiming(name));
+		return this;
+	}
+
+	/**
+	 * Replaces a stage of the pipeline. The timing of the stage is reset.
+	 *
+	 * @param name  The name of the stage.
+	 * @param stage The new stage.
+	 * @return This pipeline.
+	 * @throws IllegalArgumentException If there is no stage with this name or the stage is null.
+	 */
+	public TurnPipeline replace(String name, TurnStage stage) {
+		if(stage == null) {
+			throw new IllegalArgumentException("The stage cannot be null.");
+		}
+		int index = this.indexOf(name);
+		this.stages.set(index, stage);
+		this.timings.set(index, new StageTiming(name));
+		return this;
+	}
+
+	/**
+	 * Removes a stage from the pipeline.
+	 *
+	 * @param name The name of the stage.
+	 * @return This pipeline.
+	 * @throws IllegalArgumentException If there is no stage with this name.
+	 */
+	public TurnPipeline remove(String name) {
+		int index = this.indexOf(name);
+		this.names.remove(index);
+		this.stages.remove(index);
+		this.timings.remove(index);
+		return this;
+	}
+
+	/**
+	 * Retrieves a stage of the pipeline, for example to run it from a replacement.
+	 *
+	 * @param name The name of the stage.
+	 * @return The stage.
+	 * @throws IllegalArgumentException If there is no stage with this name.
+	 */
+	public TurnStage getStage(String name) {
+		return this.stages.get(this.indexOf(name));
+	}
+
+	/**
+	 * Retrieves the names of the stages in the order in which they run.
+	 *
+	 * @return The names of the stages.
+	 */
+	public List<String> getStageNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(this.names));
+	}
+
+	/**
+	 * Enables or disables the profiling of the stages.
+	 *
+	 * @param profiling True to record the timing of each stage, false otherwise.
+	 */
+	public void setProfiling(boolean profiling) {
+		this.profiling = profiling;
+	}
+
+	/**
+	 * Determines whether the stages are profiled.
+	 *
+	 * @return True if the timing of each stage is recorded, false otherwise.
+	 */
+	public boolean isProfiling() {
+		return this.profiling;
+	}
+
+	/**
+	 * Retrieves the timings of the stages in the order in which they run.
+	 *
+	 * @return The timings of the stages.
+	 */
+	public List<StageTiming> getTimings() {
+		return Collections.unmodifiableList(new ArrayList<StageTiming>(this.timings));
+	}
+
+	/**
+	 * Resets the timings of all stages.
+	 */
+	public void resetTimings() {
+		for(int index = 0; index < this.timings.size(); index++) {
+			this.timings.set(index, new StageTiming(this.names.get(index)));
+		}
+	}
+
+	/**
+	 * Runs all stages of the pipeline in order.
+	 *
+	 * @param context The state of the turn.
+	 */
+	public void run(TurnContext context) {
+		for(int index = 0; index < this.stages.size(); index++) {
+			if(!this.profiling) {
+				this.stages.get(index).run(context);
+				continue;
+			}
+			long allocated = THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			this.stages.get(index).run(context);
+			long nanos = System.nanoTime() - start;
+			StageTiming timing = this.timings.get(index);
+			timing.runs++;
+			timing.nanos += nanos;
+			if(THREADS != null) {
+				timing.allocatedBytes += THREADS.getCurrentThreadAllocatedBytes() - allocated;
+			}
+		}
+	}
+
+	/**
+	 * Calculates how many inhabitants of the city starved to death.
+	 */
+	private static void starvation(TurnContext context) {
+		int peopleStarved = context.getResidents() - context.getFed() / context.getConfig().getBushelsPerResident();
+		if(peopleStarved < 0)
+			peopleStarved = 0;
+		context.setStarved(peopleStarved);
+		context.setStarvedPercentage((peopleStarved * 100) / context.getResidents());
+		context.setResidents(context.getResidents() - peopleStarved);
+	}
+
+	/**
+	 * Calculates the new population size.
+	 */
+	private static void population(TurnContext context) {
+		int newResidents = 0;
+		if(context.getStarvedPercentage() < 40) //The growth depends on the population before the starvation
+			newResidents = ((context.getResidents() + context.getStarved()) * context.getFortune().nextInt(40)) / 100;
+		context.setNewResidents(newResidents);
+		if(context.getResidents() + newResidents >= 0) //Avoid integer overflow
+			context.setResidents(context.getResidents() + newResidents);
+		else
+			context.setResidents(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Determines the conditions and events of the year. They are drawn into the same object every year.
+	 */
+	private static void weather(TurnContext context) {
+		context.getWeather().next(context.getConditions(), context.getFortune());
+		context.setEvents(context.getConditions().getEvents());
+	}
+
+	/**
+	 * Calculates the harvest of the field and the planted grain.
+	 * The field is planted with crop variants chosen from the crop registry of the city.
+	 */
+	private static void growth(TurnContext context) {
+		int[] harvested = context.getHarvested();
+		if(context.getField() != null) {
+			//Pests and diseases spread from a few plots instead of hitting the whole field
+			Infestation infestation = new Infestation(context.getField(), Infestation.SPREAD_PROBABILITY, context.getFortune().nextLong());
+			infestation.outbreak(context.getEvents(), context.getFortune());
+			long[] crops = context.getField().harvest(context.getConditions(), context.getEvents(), infestation, context.getCrops(), context.getFortune());
+			for(int i = 0; i < crops.length; i++)
+				harvested[i] = (int) Math.min(crops[i], Integer.MAX_VALUE);
+			context.getField().clear();
+			context.setField(null);
+		}
+		Grain[] planted = context.getPlanted();
+		for(Game.GrainType grainType : Game.GrainType.values()) {
+			int i = grainType.ordinal();
+			if(planted[i] != null) {
+				harvested[i] = planted[i].harvest(YieldEngine.getInstance().yieldRatio(planted[i], context.getConditions(), context.getEvents()));
+			}
+		}
+	}
+
+	/**
+	 * Stores the harvest (Issue #40), lets the rats eat and lets the bushels in the depot decay.
+	 */
+	private static void storage(TurnContext context) {
+		int[] harvested = context.getHarvested();
+		Harvest[] thisYearsHarvest = new Harvest[harvested.length];
+		for(Game.GrainType grainType : Game.GrainType.values())
+			thisYearsHarvest[grainType.ordinal()] = Harvest.createHarvest(grainType, harvested[grainType.ordinal()], context.getYear());
+
+		context.setDepotSummary(context.getDepot().endOfYear(thisYearsHarvest, (totalFillLevel) -> {
+			//Calculation of how much grain was eaten by rats:
+			int maxEaten = (int) (((long) totalFillLevel * context.getConfig().getMaxRateInfestation()) / 100);
+			if(maxEaten > 0)
+				return context.getFortune().nextInt(maxEaten);
+			return 0;
+		}, context.getYear()));
+	}
+
+	/**
+	 * Increments the year by 1 and assembles the result of the turn.
+	 * If the depot has not been updated in this turn, the result reports its current state and no losses.
+	 * The depot state of the result is rendered from a snapshot only when it is requested.
+	 */
+	private static void result(TurnContext context) {
+		context.setYear(context.getYear() + 1);
+		Depot depot = context.getDepot();
+		DepotTurnSummary depotSummary = context.getDepotSummary();
+		if(depotSummary == null)
+			depotSummary = new DepotTurnSummary(0, 0, depot.getBushelsCategorizedByGrainTypeLong(), depot.getTotalFillLevelLong(), depot.totalCapacityLong());
+		context.setResult(new TurnResult(context.getName(),
+				context.getYear(),
+				context.getNewResidents(),
+				context.getHarvested(),
+				context.getResidents(),
+				depotSummary.getBushels(),
+				context.getStarved(),
+				context.getAcres(),
+				depotSummary.getAteByRats(),
+				context.getStarvedPercentage(),
+				depotSummary.getBushelsDecayed(),
+				depotSummary.getTotalCapacity(),
+				depotSummary.getFreeCapacity(),
+				depot.snapshot()::toString));
+	}
+}
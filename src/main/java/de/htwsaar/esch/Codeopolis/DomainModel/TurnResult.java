@@ -1,6 +1,9 @@
 package de.htwsaar.esch.Codeopolis.DomainModel;
 
 import java.util.Arrays;
+import java.util.function.Supplier;
+
+import de.htwsaar.esch.Codeopolis.Utils.LongAccounting;
 
 /**
  * The `TurnResult` class represents the result of a game turn.
@@ -13,14 +16,16 @@ public class TurnResult {
 	private int[] bushelsHarvested; // Amount of bushels harvested during the turn
 	private int residents; // Current number of residents in the city
 	private int[] bushels; // Current number of bushels in the city
+	private long[] bushelsLong; // Current number of bushels in the city as 64-bit values
 	private int starved; // Number of residents who starved during the turn
 	private int acres; // Current number of acres owned by the city
 	private int ateByRates; // Number of bushels eaten by rats during the turn
 	private int starvedPercentage; // Percentage of residents starved during the turn
-	private int depotCapacity; // The amount of storage spaces in the depot
-	private int freeStorageSpaces; // The amount of free storage spaces in the depot
+	private long depotCapacity; // The amount of storage spaces in the depot
+	private long freeStorageSpaces; // The amount of free storage spaces in the depot
 	private int bushelsDecayed; // The amount of bushels decayed in the depot during the last year. 
-	private String depotState; //The state of the depot represented as string.
+	private volatile String depotState; //The state of the depot represented as string, rendered on demand.
+	private volatile Supplier<String> depotView; //Renders the state of the depot, null once rendered.
 
 	
 	
@@ -43,12 +48,61 @@ public class TurnResult {
      */
      
 	public TurnResult(String name, int year, int newResidents, int[] bushelsHarvested, int residents, int[] bushels, int starved, int acres, int ateByRates, int starvedPercentage, int bushelsDecayed, int depotCapacity, int freeStorageSpaces, String depotState) {
+		this(name, year, newResidents, bushelsHarvested, residents, LongAccounting.toLong(bushels), starved, acres, ateByRates, starvedPercentage, bushelsDecayed, (long) depotCapacity, (long) freeStorageSpaces, depotState);
+	}
+	
+	/**
+     * Constructs a `TurnResult` object with 64-bit bushel counts and depot capacities.
+     * Used for depots whose contents or capacity exceed the range of int.
+     *
+     * @param name             The name of the city
+     * @param year             The year of the city
+     * @param newResidents     Number of new residents in the city after the turn
+     * @param bushelsHarvested Amount of bushels harvested during the turn
+     * @param residents        Current number of residents in the city
+     * @param bushels          Current number of bushels in the city
+     * @param starved          Number of residents who starved during the turn
+     * @param acres            Current number of acres owned by the city
+     * @param ateByRates       Number of bushels eaten by rats during the turn
+     * @param bushelsDecayed       Amount of bushels that decayed during the turn.
+     * @param depotCapacity        The capacity of the city's depot for storing harvests.
+     * @param freeStorageSpaces    The number of free storage spaces in the city's depot.
+     * @param depotState	The state of the depot represented as string.
+     */
+	public TurnResult(String name, int year, int newResidents, int[] bushelsHarvested, int residents, long[] bushels, int starved, int acres, int ateByRates, int starvedPercentage, int bushelsDecayed, long depotCapacity, long freeStorageSpaces, String depotState) {
+		this(name, year, newResidents, bushelsHarvested, residents, bushels, starved, acres, ateByRates, starvedPercentage, bushelsDecayed, depotCapacity, freeStorageSpaces, (Supplier<String>) null);
+		this.depotState = depotState;
+	}
+	
+	/**
+     * Constructs a `TurnResult` object whose depot state is rendered lazily.
+     * The supplier is called at most once, on the first call of {@link #getDepotState()}, even if several threads
+     * request the state at the same time. If it throws, the next call tries again. The supplier should render
+     * an immutable view of the depot such as a {@link DepotSnapshot}, so the rendered state is the state
+     * at the end of the turn even if the depot has changed since then.
+     *
+     * @param name             The name of the city
+     * @param year             The year of the city
+     * @param newResidents     Number of new residents in the city after the turn
+     * @param bushelsHarvested Amount of bushels harvested during the turn
+     * @param residents        Current number of residents in the city
+     * @param bushels          Current number of bushels in the city
+     * @param starved          Number of residents who starved during the turn
+     * @param acres            Current number of acres owned by the city
+     * @param ateByRates       Number of bushels eaten by rats during the turn
+     * @param bushelsDecayed       Amount of bushels that decayed during the turn.
+     * @param depotCapacity        The capacity of the city's depot for storing harvests.
+     * @param freeStorageSpaces    The number of free storage spaces in the city's depot.
+     * @param depotView	Renders the state of the depot as string, may be null.
+     */
+	public TurnResult(String name, int year, int newResidents, int[] bushelsHarvested, int residents, long[] bushels, int starved, int acres, int ateByRates, int starvedPercentage, int bushelsDecayed, long depotCapacity, long freeStorageSpaces, Supplier<String> depotView) {
 		this.name = name;
 		this.year = year;
 		this.newResidents = newResidents;
 		this.bushelsHarvested =bushelsHarvested;
 		this.residents = residents;
-		this.bushels = bushels;
+		this.bushels = LongAccounting.toIntSaturated(bushels);
+		this.bushelsLong = bushels;
 		this.starved = starved;
 		this.acres = acres;
 		this.ateByRates = ateByRates;
@@ -56,7 +110,7 @@ public class TurnResult {
 		this.bushelsDecayed = bushelsDecayed;
 		this.depotCapacity = depotCapacity;
 		this.freeStorageSpaces = freeStorageSpaces;
-		this.depotState = depotState;
+		this.depotView = depotView;
 	}
 
 	 /**
@@ -95,6 +149,15 @@ public class TurnResult {
 	public int[] getBushels() {
 		return bushels;
 	}
+	
+	/**
+     * Returns the current number of bushels in the city as 64-bit values.
+     *
+     * @return The number of bushels
+     */
+	public long[] getBushelsLong() {
+		return bushelsLong;
+	}
 
 	/**
      * Returns the number of residents who starved during the turn.
@@ -180,7 +243,7 @@ public class TurnResult {
                 newResidents == other.newResidents &&
                 Arrays.equals(bushelsHarvested, other.bushelsHarvested) &&
                 residents == other.residents &&
-                Arrays.equals(bushels, other.bushels) &&
+                Arrays.equals(bushelsLong, other.bushelsLong) &&
                 starved == other.starved &&
                 acres == other.acres &&
                 ateByRates == other.ateByRates &&
@@ -202,17 +265,33 @@ public class TurnResult {
 
 	/**
 	 * The amount of storage spaces in the depot
-	 * @return Amount of storage spaces in the depot
+	 * @return Amount of storage spaces in the depot, saturated at {@link Integer#MAX_VALUE}
 	 */
 	public int getDepotCapacity() {
+		return LongAccounting.toIntSaturated(depotCapacity);
+	}
+	
+	/**
+	 * The amount of storage spaces in the depot as a 64-bit value
+	 * @return Amount of storage spaces in the depot
+	 */
+	public long getDepotCapacityLong() {
 		return depotCapacity;
 	}
 
 	/**
 	 * The amount of free storage spaces in the depot
-	 * @return The amount of free storage spaces in the depot
+	 * @return The amount of free storage spaces in the depot, saturated at {@link Integer#MAX_VALUE}
 	 */
 	public int getFreeStorageSpaces() {
+		return LongAccounting.toIntSaturated(freeStorageSpaces);
+	}
+	
+	/**
+	 * The amount of free storage spaces in the depot as a 64-bit value
+	 * @return The amount of free storage spaces in the depot
+	 */
+	public long getFreeStorageSpacesLong() {
 		return freeStorageSpaces;
 	}
 
@@ -240,21 +319,44 @@ public class TurnResult {
     /**
      * Returns the total number of bushels in the city after the turn.
      *
-     * @return The total number of bushels.
+     * @return The total number of bushels, saturated at {@link Integer#MAX_VALUE}.
      */
 	public int getTotalNumberOfBushels() {
-		int result = 0; 
-		for(int i = 0; i< this.getBushels().length; i++)
-			result += this.getBushels()[i];
+		return LongAccounting.toIntSaturated(this.getTotalNumberOfBushelsLong());
+	}
+	
+    /**
+     * Returns the total number of bushels in the city after the turn as a 64-bit value.
+     *
+     * @return The total number of bushels.
+     */
+	public long getTotalNumberOfBushelsLong() {
+		long result = 0; 
+		for(int i = 0; i< this.bushelsLong.length; i++)
+			result += this.bushelsLong[i];
 		return result;
 	}
 
 	/**
 	 * Retrieves the state of the depot represented as string.
+	 * The state is rendered on the first call and cached for later calls.
+	 * Only rendering takes a lock, so reading the cached state does not.
 	 * 
 	 * @return The state of the depot.
 	 */
 	public String getDepotState() {
-		return depotState;
+		String state = this.depotState;
+		if(state == null && this.depotView != null) {
+			synchronized(this) {
+				state = this.depotState;
+				Supplier<String> view = this.depotView;
+				if(state == null && view != null) {
+					state = view.get();
+					this.depotState = state;
+					this.depotView = null;
+				}
+			}
+		}
+		return state;
 	}
 }
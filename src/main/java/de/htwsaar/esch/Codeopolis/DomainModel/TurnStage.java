@@ -0,0 +1,17 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+/**
+ * The `TurnStage` interface represents one step of a city's turn, such as the growth of the grain
+ * or the storage of the harvest. The stages of a turn are run one after the other by a {@link TurnPipeline}
+ * and share the state of the turn through a {@link TurnContext}.
+ */
+@FunctionalInterface
+public interface TurnStage {
+
+	/**
+	 * Runs the stage.
+	 *
+	 * @param context The state of the turn.
+	 */
+	void run(TurnContext context);
+}
@@ -0,0 +1,249 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.Harvest;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+
+/**
+ * The Warehouse class groups up to {@link #CAPACITY} consecutive silos of a {@link Depot}
+ * and keeps subtotals of their fill levels and capacities per grain type.
+ *
+ * The depot answers its aggregate queries from these subtotals and only descends into the silos of
+ * a warehouse if the warehouse can contribute to a request. To keep the subtotals consistent,
+ * every modification of a silo of the warehouse has to go through the warehouse.
+ *
+ * Warehouses belong to an epoch of their depot. A depot only modifies warehouses of its current epoch
+ * and copies all others first, which allows snapshots to share warehouses with the depot.
+ */
+final class Warehouse {
+	/**
+	 * The maximum number of silos in a warehouse.
+	 */
+	static final int CAPACITY = 64;
+
+	private final Silo[] silos;
+	private final Object epoch;
+	private int size;
+	private long totalFillLevel;
+	private long totalCapacity;
+	private final long[] fillLevels;
+	private final long[] capacities;
+	private final int[] siloCounts;
+	private long emptyCapacity;
+	private int emptySilos;
+	private int decayHorizon = Integer.MAX_VALUE;
+
+	/**
+	 * Constructs an empty warehouse.
+	 *
+	 * @param epoch The epoch of the depot the warehouse is created in.
+	 */
+	Warehouse(Object epoch) {
+		this.silos = new Silo[CAPACITY];
+		this.epoch = epoch;
+		this.fillLevels = new long[Game.GrainType.values().length];
+		this.capacities = new long[Game.GrainType.values().length];
+		this.siloCounts = new int[Game.GrainType.values().length];
+	}
+
+	/**
+	 * Creates a copy of this warehouse for the given epoch.
+	 * The warehouse belongs to an earlier epoch and is never modified again, so the silos share their stock
+	 * copy-on-write, see {@link Silo#Silo(Silo, boolean)}.
+	 *
+	 * @param epoch The epoch of the depot the copy is created in.
+	 * @return A copy of this warehouse.
+	 */
+	Warehouse copy(Object epoch) {
+		Warehouse copy = new Warehouse(epoch);
+		for(int index = 0; index < this.size; index++) {
+			copy.silos[index] = new Silo(this.silos[index], true);
+		}
+		copy.size = this.size;
+		copy.totalFillLevel = this.totalFillLevel;
+		copy.totalCapacity = this.totalCapacity;
+		System.arraycopy(this.fillLevels, 0, copy.fillLevels, 0, this.fillLevels.length);
+		System.arraycopy(this.capacities, 0, copy.capacities, 0, this.capacities.length);
+		System.arraycopy(this.siloCounts, 0, copy.siloCounts, 0, this.siloCounts.length);
+		copy.emptyCapacity = this.emptyCapacity;
+		copy.emptySilos = this.emptySilos;
+		copy.decayHorizon = this.decayHorizon;
+		return copy;
+	}
+
+	/**
+	 * Adds or removes the contribution of a silo to the subtotals of the warehouse.
+	 *
+	 * @param silo The silo.
+	 * @param sign 1 to add the contribution of the silo, -1 to remove it.
+	 */
+	private void account(Silo silo, int sign) {
+		Game.GrainType grainType = silo.getGrainType();
+		long fillLevel = silo.getFillLevel();
+		long capacity = silo.getCapacity();
+
+		this.totalFillLevel += sign * fillLevel;
+		this.totalCapacity += sign * capacity;
+		if(grainType != null) {
+			this.fillLevels[grainType.ordinal()] += sign * fillLevel;
+			this.capacities[grainType.ordinal()] += sign * capacity;
+			this.siloCounts[grainType.ordinal()] += sign;
+		}
+		else if(fillLevel == 0) {
+			this.emptyCapacity += sign * capacity;
+			this.emptySilos += sign;
+		}
+		if(sign > 0) {
+			this.decayHorizon = Math.min(this.decayHorizon, silo.getDecayHorizon());
+		}
+	}
+	
+	/**
+	 * Recomputes the decay horizon of the warehouse from its silos.
+	 * Adding grain only lowers the horizon, so it is kept up to date incrementally,
+	 * but it has to be recomputed to rise again after the grain in the warehouse has decayed or was taken out.
+	 */
+	void refreshDecayHorizon() {
+		int horizon = Integer.MAX_VALUE;
+		for(int index = 0; index < this.size; index++) {
+			horizon = Math.min(horizon, this.silos[index].getDecayHorizon());
+		}
+		this.decayHorizon = horizon;
+	}
+
+	/**
+	 * Adds a silo to the warehouse.
+	 *
+	 * @param silo The silo to add.
+	 */
+	void add(Silo silo) {
+		this.silos[this.size++] = silo;
+		this.account(silo, 1);
+	}
+
+	/**
+	 * Stores a harvest in a silo of the warehouse, see {@link Silo#store(Harvest)}.
+	 *
+	 * @param index   The index of the silo within the warehouse.
+	 * @param harvest The harvest to store.
+	 * @return The part of the harvest that could not be stored, or {@code null} if the whole harvest was stored.
+	 */
+	Harvest store(int index, Harvest harvest) {
+		Silo silo = this.silos[index];
+		this.account(silo, -1);
+		try {
+			return silo.store(harvest);
+		} finally {
+			this.account(silo, 1);
+		}
+	}
+
+	/**
+	 * Takes out grain from a silo of the warehouse, see {@link Silo#takeOut(int)}.
+	 *
+	 * @param index  The index of the silo within the warehouse.
+	 * @param amount The amount of grain to take out.
+	 * @return The actual amount of grain taken out.
+	 */
+	int takeOut(int index, int amount) {
+		Silo silo = this.silos[index];
+		this.account(silo, -1);
+		int taken = silo.takeOut(amount);
+		this.account(silo, 1);
+		return taken;
+	}
+
+	/**
+	 * Empties a silo of the warehouse, see {@link Silo#emptySilo()}.
+	 *
+	 * @param index The index of the silo within the warehouse.
+	 * @return The harvests removed from the silo, or {@code null} if the silo did not contain any harvests.
+	 */
+	LinkedList<Harvest> emptySilo(int index) {
+		Silo silo = this.silos[index];
+		this.account(silo, -1);
+		LinkedList<Harvest> harvests = silo.emptySilo();
+		this.account(silo, 1);
+		return harvests;
+	}
+
+	/**
+	 * Lets the grain in a silo of the warehouse decay, see {@link Silo#decay(int)}.
+	 *
+	 * @param index       The index of the silo within the warehouse.
+	 * @param currentYear The current year used to calculate the decay.
+	 * @return The amount of grain that decayed in the silo.
+	 */
+	int decay(int index, int currentYear) {
+		Silo silo = this.silos[index];
+		this.account(silo, -1);
+		int decayed = silo.decay(currentYear);
+		this.account(silo, 1);
+		return decayed;
+	}
+
+	/**
+	 * Checks whether a harvest of the given grain type can be stored in the warehouse,
+	 * i.e. whether it contains an empty silo or a silo of the grain type which is not full.
+	 *
+	 * @param grainType The grain type of the harvest.
+	 * @return {@code true} if at least part of the harvest can be stored, {@code false} otherwise.
+	 */
+	boolean canStore(Game.GrainType grainType) {
+		return this.emptySilos > 0 || this.capacities[grainType.ordinal()] > this.fillLevels[grainType.ordinal()];
+	}
+
+	/**
+	 * Checks whether the warehouse contains a silo of the given grain type.
+	 *
+	 * @param grainType The grain type, or {@code null} for empty silos.
+	 * @return {@code true} if the warehouse contains a silo of the grain type, {@code false} otherwise.
+	 */
+	boolean contains(Game.GrainType grainType) {
+		return grainType == null ? this.emptySilos > 0 : this.siloCounts[grainType.ordinal()] > 0;
+	}
+
+	Silo silo(int index) {
+		return this.silos[index];
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	boolean isFull() {
+		return this.size == CAPACITY;
+	}
+
+	Object getEpoch() {
+		return this.epoch;
+	}
+
+	long getTotalFillLevel() {
+		return this.totalFillLevel;
+	}
+
+	long getTotalCapacity() {
+		return this.totalCapacity;
+	}
+
+	long getFillLevel(Game.GrainType grainType) {
+		return grainType == null ? 0 : this.fillLevels[grainType.ordinal()];
+	}
+
+	long getCapacity(Game.GrainType grainType) {
+		return grainType == null ? 0 : this.capacities[grainType.ordinal()];
+	}
+
+	/**
+	 * Retrieves the first year in which grain in the warehouse may decay, see {@link Silo#getDecayHorizon()}.
+	 *
+	 * @return The first year of decay of all silos in the warehouse, or an earlier year.
+	 */
+	int getDecayHorizon() {
+		return this.decayHorizon;
+	}
+
+	long getEmptyCapacity() {
+		return this.emptyCapacity;
+	}
+}
@@ -0,0 +1,109 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Weather;
+
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.YieldEngine;
+
+/**
+ * The AutoregressiveWeather class lets the soil and temperatures of a year depend on the year before,
+ * and the events of a year depend on its weather.
+ *
+ * The soil conditions and both average temperatures follow a first-order autoregressive process:
+ * the anomaly of a value, its distance from the middle of its range, keeps the fraction {@link #getPersistence()}
+ * of the anomaly of the last year and receives a normally distributed innovation. The innovations are scaled so that
+ * in the long run each value varies as much as a value drawn uniformly from its range. Values are kept within their ranges.
+ *
+ * Each event occurs with {@link Grain.Conditions#EVENT_PROBABILITY}, raised or lowered by the weather of the year:
+ * droughts and leaf drought are more likely after hot summers, fusarium on good, moist soil,
+ * and powdery mildew and the pests, which survive mild winters, after warm winters.
+ * Averaged over the years, each event still occurs with about the same probability as in the game.
+ */
+public final class AutoregressiveWeather implements WeatherModel {
+	private static final float SOIL_LOWER = 0.0f;
+	private static final float SOIL_HIGHER = 1.0f;
+	private static final double UNIFORM_DEVIATION = 1 / Math.sqrt(12); // Standard deviation of a uniform distribution over a range of 1
+	private static final double SENSITIVITY = 0.5; // Change of the probability of an event per standard deviation of the weather
+
+	private final double persistence;
+	private final double innovation; // Standard deviation of the innovations relative to the standard deviation of the values
+
+	/**
+	 * Constructs an AutoregressiveWeather object.
+	 *
+	 * @param persistence The fraction of the anomaly of a year which is kept in the next year, from 0 (independent years) to below 1.
+	 * @throws IllegalArgumentException If the persistence is not in the range [0, 1).
+	 */
+	public AutoregressiveWeather(double persistence) {
+		if(!(persistence >= 0 && persistence < 1)) {
+			throw new IllegalArgumentException("The persistence of the weather must be in the range [0, 1).");
+		}
+		this.persistence = persistence;
+		this.innovation = Math.sqrt(1 - persistence * persistence);
+	}
+
+	/**
+	 * Retrieves the fraction of the anomaly of a year which is kept in the next year.
+	 *
+	 * @return The persistence.
+	 */
+	public double getPersistence() {
+		return this.persistence;
+	}
+
+	@Override
+	public void next(Grain.Conditions conditions, RandomGenerator random) {
+		float soilConditions = this.step(conditions.getSoilConditions(), SOIL_LOWER, SOIL_HIGHER, random);
+		float summer = this.step(conditions.getAverageTemperatureSummer(),
+				Grain.Conditions.SUMMER_TEMPERATURE_LOWER, Grain.Conditions.SUMMER_TEMPERATURE_HIGHER, random);
+		float winter = this.step(conditions.getAverageTemperatureWinter(),
+				Grain.Conditions.WINTER_TEMPERATURE_LOWER, Grain.Conditions.WINTER_TEMPERATURE_HIGHER, random);
+		conditions.setSoilConditions(soilConditions);
+		conditions.setAverageTemperatureSummer(summer);
+		conditions.setAverageTemperatureWinter(winter);
+
+		double soilAnomaly = anomaly(soilConditions, SOIL_LOWER, SOIL_HIGHER);
+		double summerAnomaly = anomaly(summer, Grain.Conditions.SUMMER_TEMPERATURE_LOWER, Grain.Conditions.SUMMER_TEMPERATURE_HIGHER);
+		double winterAnomaly = anomaly(winter, Grain.Conditions.WINTER_TEMPERATURE_LOWER, Grain.Conditions.WINTER_TEMPERATURE_HIGHER);
+		int events = 0;
+		events |= event(YieldEngine.DROUGHT, summerAnomaly, random);
+		events |= event(YieldEngine.FUSARIUM, soilAnomaly, random);
+		events |= event(YieldEngine.LEAF_DROUGHT, summerAnomaly, random);
+		events |= event(YieldEngine.POWDERY_MILDEW, winterAnomaly, random);
+		events |= event(YieldEngine.BARLEY_GOUT_FLY, winterAnomaly, random);
+		events |= event(YieldEngine.DELIA_FLY, winterAnomaly, random);
+		events |= event(YieldEngine.FRIT_FLY, winterAnomaly, random);
+		conditions.setEvents(events);
+	}
+
+	/**
+	 * Calculates the value of the next year from the value of the last year.
+	 *
+	 * @param value  The value of the last year.
+	 * @param lower  The lower bound of the value.
+	 * @param higher The upper bound of the value.
+	 * @param random The random generator to draw the innovation from.
+	 * @return The value of the next year.
+	 */
+	private float step(float value, float lower, float higher, RandomGenerator random) {
+		double middle = (lower + higher) / 2.0;
+		double deviation = (higher - lower) * UNIFORM_DEVIATION;
+		double next = middle + this.persistence * (value - middle) + this.innovation * deviation * random.nextGaussian();
+		return (float) Math.min(higher, Math.max(lower, next));
+	}
+
+	/**
+	 * Calculates the anomaly of a value in standard deviations of a uniform distribution over its range.
+	 */
+	private static double anomaly(float value, float lower, float higher) {
+		return (value - (lower + higher) / 2.0) / ((higher - lower) * UNIFORM_DEVIATION);
+	}
+
+	/**
+	 * Draws whether an event occurs, given the anomaly of the weather which favours it.
+	 */
+	private static int event(int event, double anomaly, RandomGenerator random) {
+		double probability = Grain.Conditions.EVENT_PROBABILITY * (1 + SENSITIVITY * anomaly);
+		return random.nextDouble() < probability ? event : 0;
+	}
+}
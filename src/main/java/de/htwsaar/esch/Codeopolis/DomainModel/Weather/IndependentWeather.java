@@ -0,0 +1,30 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Weather;
+
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+
+/**
+ * The IndependentWeather class draws the conditions of every year independently of the years before,
+ * see {@link Grain.Conditions#randomize(RandomGenerator)}. This is the weather of the game.
+ */
+public final class IndependentWeather implements WeatherModel {
+	private static final IndependentWeather INSTANCE = new IndependentWeather();
+
+	private IndependentWeather() {
+	}
+
+	/**
+	 * Returns the independent weather model.
+	 *
+	 * @return The independent weather model.
+	 */
+	public static IndependentWeather getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public void next(Grain.Conditions conditions, RandomGenerator random) {
+		conditions.randomize(random);
+	}
+}
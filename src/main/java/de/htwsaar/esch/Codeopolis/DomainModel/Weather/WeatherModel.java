@@ -0,0 +1,55 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Weather;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+
+/**
+ * The WeatherModel interface describes how the conditions of one year follow from the conditions of the year before.
+ *
+ * A model does not keep any state of its own: the state of the weather is the {@link Grain.Conditions} object
+ * passed to {@link #next(Grain.Conditions, RandomGenerator)}, and all randomness is drawn from the given generator.
+ * A single model can therefore be shared by any number of cities, each with its own conditions and random generator.
+ */
+public interface WeatherModel {
+
+	/**
+	 * Replaces the conditions of the last year with the conditions of the next year.
+	 *
+	 * @param conditions The conditions of the last year, which are overwritten with those of the next year.
+	 * @param random     The random generator to draw the weather from.
+	 */
+	void next(Grain.Conditions conditions, RandomGenerator random);
+
+	/**
+	 * Generates the conditions of several consecutive years.
+	 * The year before the first year is drawn at random, see {@link Grain.Conditions#randomize(RandomGenerator)}.
+	 *
+	 * @param random The random generator to draw the weather from.
+	 * @param years  The number of years.
+	 * @return The conditions of the years.
+	 */
+	default WeatherSeries generate(RandomGenerator random, int years) {
+		WeatherSeries series = new WeatherSeries(years);
+		Grain.Conditions conditions = Grain.Conditions.generateRandomConditions(random);
+		for(int year = 0; year < years; year++) {
+			this.next(conditions, random);
+			series.set(year, conditions);
+		}
+		return series;
+	}
+
+	/**
+	 * Generates the conditions of several consecutive years from a seed.
+	 * The same seed always yields the same series. To give many cities different but reproducible weather,
+	 * split one {@link SplittableRandom} per city and use {@link #generate(RandomGenerator, int)}.
+	 *
+	 * @param seed  The seed of the weather.
+	 * @param years The number of years.
+	 * @return The conditions of the years.
+	 */
+	default WeatherSeries generate(long seed, int years) {
+		return this.generate(new SplittableRandom(seed), years);
+	}
+}
@@ -0,0 +1,149 @@
+package de.htwsaar.esch.Codeopolis.DomainModel.Weather;
+
+import java.util.Arrays;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain;
+
+/**
+ * The WeatherSeries class holds the conditions of consecutive years in primitive arrays,
+ * see {@link WeatherModel#generate(long, int)}.
+ *
+ * A series cannot be changed once it was generated, so any number of cities can share it.
+ * The arrays returned by the bulk getters are copies and can be passed directly to
+ * {@link de.htwsaar.esch.Codeopolis.DomainModel.Plants.YieldEngine#harvest(de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType, int[], float[], float[], float[], int[], int[])}.
+ */
+public final class WeatherSeries {
+	private final float[] soilConditions;
+	private final float[] averageTemperatureSummer;
+	private final float[] averageTemperatureWinter;
+	private final int[] events;
+
+	/**
+	 * Constructs a WeatherSeries object for the given number of years.
+	 *
+	 * @param years The number of years.
+	 * @throws IllegalArgumentException If the number of years is negative.
+	 */
+	WeatherSeries(int years) {
+		if(years < 0) {
+			throw new IllegalArgumentException("The number of years of a weather series cannot be negative.");
+		}
+		this.soilConditions = new float[years];
+		this.averageTemperatureSummer = new float[years];
+		this.averageTemperatureWinter = new float[years];
+		this.events = new int[years];
+	}
+
+	/**
+	 * Stores the conditions of a year.
+	 *
+	 * @param year       The index of the year.
+	 * @param conditions The conditions of the year.
+	 */
+	void set(int year, Grain.Conditions conditions) {
+		this.soilConditions[year] = conditions.getSoilConditions();
+		this.averageTemperatureSummer[year] = conditions.getAverageTemperatureSummer();
+		this.averageTemperatureWinter[year] = conditions.getAverageTemperatureWinter();
+		this.events[year] = conditions.getEvents();
+	}
+
+	/**
+	 * Retrieves the number of years of the series.
+	 *
+	 * @return The number of years.
+	 */
+	public int length() {
+		return this.events.length;
+	}
+
+	/**
+	 * Copies the conditions of a year into a conditions object.
+	 *
+	 * @param year       The index of the year.
+	 * @param conditions The conditions object to overwrite.
+	 * @return The conditions object.
+	 */
+	public Grain.Conditions apply(int year, Grain.Conditions conditions) {
+		conditions.setSoilConditions(this.soilConditions[year]);
+		conditions.setAverageTemperatureSummer(this.averageTemperatureSummer[year]);
+		conditions.setAverageTemperatureWinter(this.averageTemperatureWinter[year]);
+		conditions.setEvents(this.events[year]);
+		return conditions;
+	}
+
+	/**
+	 * Retrieves the soil conditions of a year.
+	 *
+	 * @param year The index of the year.
+	 * @return The soil conditions of the year.
+	 */
+	public float getSoilConditions(int year) {
+		return this.soilConditions[year];
+	}
+
+	/**
+	 * Retrieves the average summer temperature of a year.
+	 *
+	 * @param year The index of the year.
+	 * @return The average summer temperature of the year.
+	 */
+	public float getAverageTemperatureSummer(int year) {
+		return this.averageTemperatureSummer[year];
+	}
+
+	/**
+	 * Retrieves the average winter temperature of a year.
+	 *
+	 * @param year The index of the year.
+	 * @return The average winter temperature of the year.
+	 */
+	public float getAverageTemperatureWinter(int year) {
+		return this.averageTemperatureWinter[year];
+	}
+
+	/**
+	 * Retrieves the events of a year, see {@link Grain.Conditions#getEvents()}.
+	 *
+	 * @param year The index of the year.
+	 * @return The bitmask of the events of the year.
+	 */
+	public int getEvents(int year) {
+		return this.events[year];
+	}
+
+	/**
+	 * Retrieves the soil conditions of all years.
+	 *
+	 * @return A copy of the soil conditions.
+	 */
+	public float[] getSoilConditions() {
+		return Arrays.copyOf(this.soilConditions, this.soilConditions.length);
+	}
+
+	/**
+	 * Retrieves the average summer temperatures of all years.
+	 *
+	 * @return A copy of the average summer temperatures.
+	 */
+	public float[] getAverageTemperatureSummer() {
+		return Arrays.copyOf(this.averageTemperatureSummer, this.averageTemperatureSummer.length);
+	}
+
+	/**
+	 * Retrieves the average winter temperatures of all years.
+	 *
+	 * @return A copy of the average winter temperatures.
+	 */
+	public float[] getAverageTemperatureWinter() {
+		return Arrays.copyOf(this.averageTemperatureWinter, this.averageTemperatureWinter.length);
+	}
+
+	/**
+	 * Retrieves the events of all years.
+	 *
+	 * @return A copy of the bitmasks of the events.
+	 */
+	public int[] getEvents() {
+		return Arrays.copyOf(this.events, this.events.length);
+	}
+}
@@ -0,0 +1,310 @@
+package de.htwsaar.esch.Codeopolis.DomainModel;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * The World class represents many independent cities which are advanced through the years together.
+ * Each city is a {@link Simulation} with its own configuration and its own random generator split off from the generator of the world,
+ * so the development of a world does not depend on the number of threads that advance it.
+ *
+ * A year is advanced by splitting the cities into tasks on a {@link ForkJoinPool}. The year ends when all tasks have finished,
+ * so all cities are always in the same year. The statistics of the world are reduced from the tasks while they are joined:
+ * each task sums up its own cities, so no counters are shared between threads.
+ */
+public final class World {
+	private static final int CITIES_PER_TASK = 256; // Maximum number of cities advanced by one task
+
+	/**
+	 * The Statistics class represents the aggregated state of all cities of a world.
+	 */
+	public static final class Statistics {
+		private final int year;
+		private int cities;
+		private int running;
+		private int won;
+		private long residents;
+		private long acres;
+		private long bushels;
+		private long starved;
+		private long harvested;
+
+		private Statistics(int year) {
+			this.year = year;
+		}
+
+		private void add(Simulation.Summary summary) {
+			this.cities++;
+			if(summary.getOutcome() == Simulation.Outcome.SURVIVED)
+				this.running++;
+			else if(summary.getOutcome() == Simulation.Outcome.WON)
+				this.won++;
+			this.residents += summary.getResidents();
+			this.acres += summary.getAcres();
+			this.bushels += summary.getBushels();
+			this.starved += summary.getStarved();
+			this.harvested += summary.getHarvested();
+		}
+
+		private Statistics add(Statistics other) {
+			this.cities += other.cities;
+			this.running += other.running;
+			this.won += other.won;
+			this.residents += other.residents;
+			this.acres += other.acres;
+			this.bushels += other.bushels;
+			this.starved += other.starved;
+			this.harvested += other.harvested;
+			return this;
+		}
+
+		/**
+		 * Returns the year of the world.
+		 *
+		 * @return The year.
+		 */
+		public int getYear() {
+			return this.year;
+		}
+
+		/**
+		 * Returns the number of cities in the world.
+		 *
+		 * @return The number of cities.
+		 */
+		public int getCities() {
+			return this.cities;
+		}
+
+		/**
+		 * Returns the number of cities whose game is still running.
+		 *
+		 * @return The number of running cities.
+		 */
+		public int getRunning() {
+			return this.running;
+		}
+
+		/**
+		 * Returns the number of cities that have won their game.
+		 *
+		 * @return The number of won cities.
+		 */
+		public int getWon() {
+			return this.won;
+		}
+
+		/**
+		 * Returns the number of cities that have lost their game.
+		 *
+		 * @return The number of lost cities.
+		 */
+		public int getLost() {
+			return this.cities - this.running - this.won;
+		}
+
+		/**
+		 * Returns the number of residents of all cities.
+		 *
+		 * @return The number of residents.
+		 */
+		public long getResidents() {
+			return this.residents;
+		}
+
+		/**
+		 * Returns the number of acres of all cities.
+		 *
+		 * @return The number of acres.
+		 */
+		public long getAcres() {
+			return this.acres;
+		}
+
+		/**
+		 * Returns the amount of grain stored in the depots of all cities.
+		 *
+		 * @return The amount of grain.
+		 */
+		public long getBushels() {
+			return this.bushels;
+		}
+
+		/**
+		 * Returns the number of residents of all cities who starved so far.
+		 *
+		 * @return The number of starved residents.
+		 */
+		public long getStarved() {
+			return this.starved;
+		}
+
+		/**
+		 * Returns the amount of grain all cities harvested so far.
+		 *
+		 * @return The amount of grain harvested.
+		 */
+		public long getHarvested() {
+			return this.harvested;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj)
+				return true;
+			if(obj == null || this.getClass() != obj.getClass())
+				return false;
+			Statistics other = (Statistics) obj;
+			return this.year == other.year && this.cities == other.cities && this.running == other.running
+					&& this.won == other.won && this.residents == other.residents && this.acres == other.acres
+					&& this.bushels == other.bushels && this.starved == other.starved && this.harvested == other.harvested;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.year, this.cities, this.running, this.won, this.residents, this.acres,
+					this.bushels, this.starved, this.harvested);
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics{" +
+					"year=" + this.year +
+					", cities=" + this.cities +
+					", running=" + this.running +
+					", won=" + this.won +
+					", lost=" + this.getLost() +
+					", residents=" + this.residents +
+					", acres=" + this.acres +
+					", bushels=" + this.bushels +
+					", starved=" + this.starved +
+					", harvested=" + this.harvested +
+					'}';
+		}
+	}
+
+	private final Simulation[] cities;
+	private final ForkJoinPool pool;
+	private int year;
+
+	/**
+	 * Constructs a world of new cities with the given difficulty, advanced on the common {@link ForkJoinPool}.
+	 *
+	 * @param difficulty     The difficulty level of the cities.
+	 * @param numberOfCities The number of cities.
+	 * @param random         The random generator of the world.
+	 */
+	public World(Game.Difficulty difficulty, int numberOfCities, RandomGenerator.SplittableGenerator random) {
+		this(difficulty, numberOfCities, random, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a world of new cities with the given difficulty, advanced on the given {@link ForkJoinPool}.
+	 * The cities are created in order, each with a generator split off from the given one.
+	 *
+	 * @param difficulty     The difficulty level of the cities.
+	 * @param numberOfCities The number of cities.
+	 * @param random         The random generator of the world.
+	 * @param pool           The pool advancing the cities.
+	 * @throws IllegalArgumentException If the number of cities is negative or the pool is null.
+	 */
+	public World(Game.Difficulty difficulty, int numberOfCities, RandomGenerator.SplittableGenerator random, ForkJoinPool pool) {
+		if(numberOfCities < 0)
+			throw new IllegalArgumentException("The number of cities must not be negative: " + numberOfCities);
+		if(pool == null)
+			throw new IllegalArgumentException("The pool must not be null.");
+		this.cities = new Simulation[numberOfCities];
+		for(int i = 0; i < numberOfCities; i++) {
+			this.cities[i] = new Simulation(difficulty, random.split());
+		}
+		this.pool = pool;
+	}
+
+	/**
+	 * Advances all cities of the world by one year. Cities whose game is over are left as they are.
+	 * The strategy is called concurrently for different cities and must therefore be thread-safe.
+	 *
+	 * @param strategy The strategy deciding the orders of the cities.
+	 * @return The statistics of the world at the end of the year.
+	 * @throws IllegalArgumentException If the strategy is null.
+	 */
+	public Statistics advance(Simulation.Strategy strategy) {
+		if(strategy == null)
+			throw new IllegalArgumentException("The strategy must not be null.");
+		this.year++;
+		return this.pool.invoke(new AdvanceTask(strategy, 1, 0, this.cities.length));
+	}
+
+	/**
+	 * Computes the statistics of the world without advancing it.
+	 *
+	 * @return The statistics of the world.
+	 */
+	public Statistics getStatistics() {
+		return this.pool.invoke(new AdvanceTask((city, orders) -> {}, 0, 0, this.cities.length));
+	}
+
+	/**
+	 * Returns the current year of the world.
+	 *
+	 * @return The current year.
+	 */
+	public int getYear() {
+		return this.year;
+	}
+
+	/**
+	 * Returns the number of cities in the world.
+	 *
+	 * @return The number of cities.
+	 */
+	public int size() {
+		return this.cities.length;
+	}
+
+	/**
+	 * Returns a city of the world.
+	 *
+	 * @param index The index of the city.
+	 * @return The simulation of the city.
+	 */
+	public Simulation getCity(int index) {
+		return this.cities[index];
+	}
+
+	/**
+	 * Advances a range of cities and sums up their statistics.
+	 */
+	private final class AdvanceTask extends RecursiveTask<Statistics> {
+		private final Simulation.Strategy strategy;
+		private final int years;
+		private final int from;
+		private final int to;
+
+		private AdvanceTask(Simulation.Strategy strategy, int years, int from, int to) {
+			this.strategy = strategy;
+			this.years = years;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Statistics compute() {
+			if(this.to - this.from > CITIES_PER_TASK) {
+				int middle = (this.from + this.to) >>> 1;
+				AdvanceTask upper = new AdvanceTask(this.strategy, this.years, this.from, middle);
+				AdvanceTask lower = new AdvanceTask(this.strategy, this.years, middle, this.to);
+				upper.fork();
+				Statistics statistics = lower.compute();
+				return statistics.add(upper.join());
+			}
+			Statistics statistics = new Statistics(year);
+			for(int i = this.from; i < this.to; i++) {
+				statistics.add(cities[i].run(this.strategy, this.years));
+			}
+			return statistics;
+		}
+	}
+}
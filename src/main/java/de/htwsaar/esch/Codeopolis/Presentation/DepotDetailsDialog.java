@@ -1,24 +1,22 @@
 package de.htwsaar.esch.Codeopolis.Presentation;
 
-import java.util.Comparator;
-import java.util.Random;
 import java.util.Scanner;
-import java.util.function.Predicate;
 
+import de.htwsaar.esch.Codeopolis.DomainModel.DepotQuery;
 import de.htwsaar.esch.Codeopolis.DomainModel.Game;
-import de.htwsaar.esch.Codeopolis.DomainModel.Silo;
-import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
 import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
 
 public class DepotDetailsDialog {
+	private static final int PAGE_SIZE = 10;
+
 	private Scanner scanner;
 	private Game game;
-	
+
 	public DepotDetailsDialog(Game game) {
 		this.scanner = new Scanner(System.in);
 		this.game = game;
 	}
-	
+
 	public void start() {
 		System.out.println("Welcome to the Depot Management System");
 		while(true) {
@@ -26,17 +24,20 @@ public class DepotDetailsDialog {
 			System.out.println("1. Print all silos");
 			System.out.println("2. Print filtered and sorted silos");
 			System.out.println("3. Exit");
-		
+
 			int choice = scanner.nextInt();
-			
+
 			switch(choice) {
 				case 1:
-					System.out.println(game.getDepotDetails(null, null));
+					this.browse(game.queryDepot());
 					break;
 				case 2:
-					System.out.println(game.getDepotDetails(this.getFilterCriteria(), this.getComparator()));
+					DepotQuery query = game.queryDepot();
+					this.applyFilterCriteria(query);
+					this.applySortingCriteria(query);
+					this.browse(query);
 					break;
-				case 3: 
+				case 3:
 					System.out.println("Exiting...");
 					return;
 				default:
@@ -44,74 +45,121 @@ public class DepotDetailsDialog {
 			}
 		}
 	}
-	
-	private Predicate<Silo> getFilterCriteria() {
+
+	/**
+	 * Pages through the result of a query. Each page is rendered on demand,
+	 * so browsing a large depot only formats the silos that are actually shown.
+	 *
+	 * @param query The query to page through.
+	 */
+	private void browse(DepotQuery query) {
+		int matches = query.count();
+		int page = 0;
+		int pages = Math.max(1, (matches + PAGE_SIZE - 1) / PAGE_SIZE);
+
+		while(true) {
+			System.out.println(query.offset(page * PAGE_SIZE).limit(PAGE_SIZE).render());
+			System.out.println("Page " + (page + 1) + " of " + pages + " (" + matches + " silos)");
+			if(pages == 1) {
+				return;
+			}
+
+			System.out.println("1. Next page");
+			System.out.println("2. Previous page");
+			System.out.println("3. Back");
+
+			switch(scanner.nextInt()) {
+				case 1:
+					page = Math.min(page + 1, pages - 1);
+					break;
+				case 2:
+					page = Math.max(page - 1, 0);
+					break;
+				case 3:
+					return;
+				default:
+					System.out.println("Invalid choice. Please try again.");
+			}
+		}
+	}
+
+	private void applyFilterCriteria(DepotQuery query) {
 		System.out.println("Choose a filter criterion:");
 		System.out.println("1. Grain Type");
 		System.out.println("2. Minimum fill level");
 		System.out.println("3. Maximum fill level");
-		System.out.println("4. No filter");
-		
+		System.out.println("4. Minimum capacity");
+		System.out.println("5. No filter");
+
 		int choice = scanner.nextInt();
-		
+
 		switch(choice) {
 			case 1:
 				System.out.println("Enter your grain type (e.g., WHEAT, CORN):");
-				String grainTypeInput = scanner.nextLine().toUpperCase();
-				
+				String grainTypeInput = scanner.next().toUpperCase();
+
 				try {
-					GrainType grainType = GrainType.valueOf(grainTypeInput);
-					
-					return (silo) -> silo.getGrainType().equals(grainType);
+					query.grainType(GrainType.valueOf(grainTypeInput));
 				} catch(IllegalArgumentException e) {
 					System.out.println("Invalid grain type. No filter will be applied.");
-					return null;
 				}
+				break;
 			case 2:
 				System.out.println("Enter the minimum fill level");
-				int minFillLevel = scanner.nextInt();
-				return (silo) -> silo.getFillLevel() > minFillLevel;
+				// Only silos above the entered fill level are shown, the query bounds are inclusive
+				query.fillLevel((int) Math.min((long) scanner.nextInt() + 1, Integer.MAX_VALUE), Integer.MAX_VALUE);
+				break;
 			case 3:
 				System.out.println("Enter the maximum fill level");
-				int maxFillLevel = scanner.nextInt();
-				return (silo) -> silo.getFillLevel() < maxFillLevel;
+				// Only silos below the entered fill level are shown, the query bounds are inclusive
+				query.fillLevel(0, (int) Math.max((long) scanner.nextInt() - 1, -1));
+				break;
 			case 4:
-				return null;
+				System.out.println("Enter the minimum capacity");
+				query.capacity(scanner.nextInt(), Integer.MAX_VALUE);
+				break;
+			case 5:
+				break;
 			default:
 				System.out.println("Invalid choice. No filter will be applied.");
-				return null;
 		}
 	}
 
-	
-	private Comparator<Silo> getComparator() {
+
+	private void applySortingCriteria(DepotQuery query) {
 		System.out.println("Choose a sorting criterion:");
 		System.out.println("1. Grain Type");
 		System.out.println("2. Fill Level");
 		System.out.println("3. Capacity");
-		System.out.println("4. Random Sorting");
+		System.out.println("4. Oldest Harvest");
 		System.out.println("5. No sorting");
-		
+
 		int choice = scanner.nextInt();
-		
+
 		switch(choice) {
 			case 1:
-				return (silo1, silo2) -> silo1.getGrainType().equals(silo2.getGrainType()) ? 0 : 1;
+				query.sortBy(DepotQuery.SortKey.GRAIN_TYPE, false);
+				break;
 			case 2:
-				return (silo1, silo2) -> Integer.compare(silo1.getFillLevel(), silo2.getFillLevel());
+				query.sortBy(DepotQuery.SortKey.FILL_LEVEL, this.readDescending());
+				break;
 			case 3:
-				return (silo1, silo2) -> Integer.compare(silo1.getCapacity(), silo2.getCapacity());
+				query.sortBy(DepotQuery.SortKey.CAPACITY, this.readDescending());
+				break;
 			case 4:
-				return (silo1, silo2) -> {
-					Random random = new Random();
-					return random.nextInt(-1,1);
-				};
+				query.sortBy(DepotQuery.SortKey.OLDEST_HARVEST, false);
+				break;
 			case 5:
-				return null;
+				break;
 			default:
                 System.out.println("Invalid choice. No sorting will be applied.");
-                return null;
 		}
 	}
 
+	private boolean readDescending() {
+		System.out.println("1. Ascending");
+		System.out.println("2. Descending");
+		return scanner.nextInt() == 2;
+	}
+
 }
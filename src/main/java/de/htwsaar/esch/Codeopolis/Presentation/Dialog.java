@@ -205,16 +205,16 @@ public class Dialog extends UserInterface{
      */
     private void printState(CityState state) {
         System.out.println("--- Current State ---");
-        System.out.println("Bushels: " + state.getTotalAmountOfBushels() +
-                " (Barley: " + state.getBushels(Game.GrainType.BARLEY) +
-                ", Corn: " + state.getBushels(Game.GrainType.CORN) +
-                ", Millet: " + state.getBushels(Game.GrainType.MILLET) +
-                ", Rice: " + state.getBushels(Game.GrainType.RICE) +
-                ", Rye: " + state.getBushels(Game.GrainType.RYE) +
-                ", Wheat: " + state.getBushels(Game.GrainType.WHEAT) +
+        System.out.println("Bushels: " + state.getTotalAmountOfBushelsLong() +
+                " (Barley: " + state.getBushelsLong(Game.GrainType.BARLEY) +
+                ", Corn: " + state.getBushelsLong(Game.GrainType.CORN) +
+                ", Millet: " + state.getBushelsLong(Game.GrainType.MILLET) +
+                ", Rice: " + state.getBushelsLong(Game.GrainType.RICE) +
+                ", Rye: " + state.getBushelsLong(Game.GrainType.RYE) +
+                ", Wheat: " + state.getBushelsLong(Game.GrainType.WHEAT) +
                 "), Acres: " + state.getAcres() +
                 ", Residents: " + state.getResidents() +
-                ", Free Storage: " + state.getFreeStorage());
+                ", Free Storage: " + state.getFreeStorageLong());
     }
 	
 	/**
@@ -347,10 +347,10 @@ public class Dialog extends UserInterface{
 		
 		System.out.println("Rats ate "+result.getAteByRates()+" bushels.");
 		System.out.println(result.getBushelsDecayed()+" bushels decayed in the depot during the last year.");
-		System.out.println(result.getDepotCapacity() - result.getFreeStorageSpaces()+" of "+ result.getDepotCapacity() + " storage spaces in your depot are filled with "+result.getTotalNumberOfBushels()+" bushels:");
+		System.out.println(result.getDepotCapacityLong() - result.getFreeStorageSpacesLong()+" of "+ result.getDepotCapacityLong() + " storage spaces in your depot are filled with "+result.getTotalNumberOfBushelsLong()+" bushels:");
 		for (Game.GrainType grainType : Game.GrainType.values()) {
 		    int ordinal = grainType.ordinal();
-		    System.out.println("\t-" + result.getBushels()[ordinal] + " bushels of " + grainType.toString().toLowerCase());
+		    System.out.println("\t-" + result.getBushelsLong()[ordinal] + " bushels of " + grainType.toString().toLowerCase());
 		}
 			
 		System.out.println("Here is the detaild information on your depot:");
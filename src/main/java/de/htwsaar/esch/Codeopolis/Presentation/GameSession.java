@@ -0,0 +1,335 @@
+package de.htwsaar.esch.Codeopolis.Presentation;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.CityState;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+import de.htwsaar.esch.Codeopolis.DomainModel.GameConfig;
+import de.htwsaar.esch.Codeopolis.DomainModel.TurnResult;
+
+/**
+ * The GameSession class represents a user interface for a game played remotely, for example over a network connection.
+ *
+ * The game of a session runs on the thread calling {@link #start()}. Whenever the game needs a decision,
+ * the session posts a {@link Prompt} to its outbox and waits for the answer in its inbox, so the game thread is parked
+ * on a queue while the player thinks. Sessions are meant to run on virtual threads, see {@link SessionRegistry},
+ * so a waiting session does not block a platform thread.
+ * Notifications such as the end of a turn are posted to the outbox without waiting.
+ *
+ * Answers come from an untrusted remote player, so they are checked before they reach the city: negative numbers
+ * and numbers beyond what the city could possibly carry out are rejected with an {@link Prompt.Type#ILLEGAL_INPUT}
+ * notification, and the question is asked again. Every prompt carries a sequence number, and an answer is only
+ * accepted while a question is pending, so a stray answer is never taken for the answer to a later question.
+ */
+public final class GameSession extends UserInterface {
+	/**
+	 * The maximum number of silos a player can build in one year.
+	 */
+	public static final int MAX_NEW_SILOS = GameConfig.MAX_NEW_SILOS;
+
+	/**
+	 * The Prompt class represents a question or a notification of a game to its player.
+	 */
+	public static final class Prompt {
+		/**
+		 * The Type enum represents the kinds of prompts. Questions have to be answered with {@link GameSession#answer(int...)}.
+		 */
+		public enum Type {
+			EXPAND_DEPOT(true),
+			BUY(true),
+			SELL(true),
+			FEED(true),
+			PLANT(true),
+			TURN_END(false),
+			ILLEGAL_INPUT(false),
+			GAME_WON(false),
+			GAME_LOST(false);
+
+			private final boolean question;
+
+			private Type(boolean question) {
+				this.question = question;
+			}
+
+			/**
+			 * Checks whether prompts of this type have to be answered.
+			 *
+			 * @return true if the prompt is a question, false if it is a notification.
+			 */
+			public boolean isQuestion() {
+				return this.question;
+			}
+		}
+
+		private final long sequence;
+		private final Type type;
+		private final CityState cityState;
+		private final int[] values;
+		private final TurnResult result;
+		private final String message;
+
+		private Prompt(long sequence, Type type, CityState cityState, int[] values, TurnResult result, String message) {
+			this.sequence = sequence;
+			this.type = type;
+			this.cityState = cityState;
+			this.values = values;
+			this.result = result;
+			this.message = message;
+		}
+
+		/**
+		 * Returns the sequence number of the prompt. The prompts of a session are numbered consecutively, starting at 0.
+		 *
+		 * @return The sequence number.
+		 */
+		public long getSequence() {
+			return this.sequence;
+		}
+
+		/**
+		 * Returns the type of the prompt.
+		 *
+		 * @return The type.
+		 */
+		public Type getType() {
+			return this.type;
+		}
+
+		/**
+		 * Returns the state of the city the question refers to.
+		 *
+		 * @return The state of the city, or null for notifications.
+		 */
+		public CityState getCityState() {
+			return this.cityState;
+		}
+
+		/**
+		 * Returns the values of the question: the price per acre for {@link Type#BUY} and {@link Type#SELL},
+		 * the bushels per resident for {@link Type#FEED}, and the bushels per acre and acres per resident for {@link Type#PLANT}.
+		 *
+		 * @return The values of the question, empty if the prompt has none.
+		 */
+		public int[] getValues() {
+			return this.values.clone();
+		}
+
+		/**
+		 * Returns the result of the turn of a {@link Type#TURN_END} notification.
+		 *
+		 * @return The result of the turn, or null for other prompts.
+		 */
+		public TurnResult getResult() {
+			return this.result;
+		}
+
+		/**
+		 * Returns the message of a notification.
+		 *
+		 * @return The message, or null for other prompts.
+		 */
+		public String getMessage() {
+			return this.message;
+		}
+	}
+
+	private static final int[] NO_VALUES = new int[0];
+
+	private final String id;
+	private final Game game;
+	private final BlockingQueue<Prompt> outbox = new LinkedBlockingQueue<Prompt>();
+	private final BlockingQueue<int[]> inbox = new LinkedBlockingQueue<int[]>();
+	private final AtomicReference<Prompt> question = new AtomicReference<Prompt>();
+	private long sequence; // Only used by the game thread
+
+	/**
+	 * Constructs a session with a new game.
+	 *
+	 * @param id         The ID of the session and its game.
+	 * @param cityName   The name of the city.
+	 * @param difficulty The difficulty level of the game.
+	 */
+	public GameSession(String id, String cityName, Game.Difficulty difficulty) {
+		this.id = id;
+		this.game = new Game(id, cityName, difficulty, this);
+	}
+
+	/**
+	 * Plays the game of the session on the calling thread until the game is over or the thread is interrupted.
+	 */
+	@Override
+	public void start() {
+		try {
+			this.game.startGame();
+		}
+		catch(CancellationException e) {
+			// The session was closed while waiting for an answer
+		}
+	}
+
+	/**
+	 * Returns the ID of the session.
+	 *
+	 * @return The ID.
+	 */
+	public String getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the game of the session.
+	 *
+	 * @return The game.
+	 */
+	public Game getGame() {
+		return this.game;
+	}
+
+	/**
+	 * Takes the next prompt of the game, waiting up to the given time for the game to post one.
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @param unit    The unit of the timeout.
+	 * @return The next prompt, or null if the game did not post a prompt in time.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting.
+	 */
+	public Prompt nextPrompt(long timeout, TimeUnit unit) throws InterruptedException {
+		return this.outbox.poll(timeout, unit);
+	}
+
+	/**
+	 * Answers the pending question of the game.
+	 *
+	 * @param values The answer: a single number for all questions but {@link Prompt.Type#PLANT},
+	 *               which is answered with the acres to plant of each grain type.
+	 * @return true if the answer was accepted, false if no question was pending.
+	 */
+	public boolean answer(int... values) {
+		int[] answer = values.clone();
+		if(this.question.getAndSet(null) == null)
+			return false;
+		this.inbox.add(answer);
+		return true;
+	}
+
+	/**
+	 * Answers a question of the game if it is still pending.
+	 *
+	 * @param sequence The sequence number of the question, see {@link Prompt#getSequence()}.
+	 * @param values   The answer, see {@link #answer(int...)}.
+	 * @return true if the answer was accepted, false if the question is not pending.
+	 */
+	public boolean answer(long sequence, int... values) {
+		int[] answer = values.clone();
+		Prompt pending = this.question.get();
+		if(pending == null || pending.getSequence() != sequence || !this.question.compareAndSet(pending, null))
+			return false;
+		this.inbox.add(answer);
+		return true;
+	}
+
+	private void post(Prompt.Type type, CityState cityState, int[] values, TurnResult result, String message) {
+		Prompt prompt = new Prompt(this.sequence++, type, cityState, values, result, message);
+		if(type.isQuestion())
+			this.question.set(prompt); // Pending before the player can see it
+		this.outbox.add(prompt);
+	}
+
+	private int[] ask(Prompt.Type type, CityState cityState, int... values) {
+		this.post(type, cityState, values, null, null);
+		try {
+			return this.inbox.take();
+		}
+		catch(InterruptedException e) {
+			this.question.set(null);
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Session " + this.id + " was closed.");
+		}
+	}
+
+	/**
+	 * Asks a question until it is answered with a number between 0 and the given maximum.
+	 *
+	 * @param max    The largest acceptable answer.
+	 * @param action What the player does with the number, used in the message for too large answers.
+	 */
+	private int askNumber(Prompt.Type type, CityState cityState, long max, String action, int... values) {
+		while(true) {
+			int[] answer = this.ask(type, cityState, values);
+			int number = answer.length > 0 ? answer[0] : 0;
+			if(number >= 0 && number <= max)
+				return number;
+			this.reject(number, max, action);
+		}
+	}
+
+	private void reject(int number, long max, String action) {
+		if(number < 0)
+			this.illigleInput("You entered a negative integer. Please try again.");
+		else
+			this.illigleInput("You can " + action + " at most " + max + ". Please try again.");
+	}
+
+	@Override
+	public int expandDepot(CityState cityState) {
+		long affordable = (long) (cityState.getTotalAmountOfBushelsLong() / GameConfig.DEPOT_EXPANSION_COST);
+		return this.askNumber(Prompt.Type.EXPAND_DEPOT, cityState, Math.min(MAX_NEW_SILOS, affordable), "build silos");
+	}
+
+	@Override
+	public int buy(int pricePerAcre, CityState cityState) {
+		long affordable = cityState.getTotalAmountOfBushels() / Math.max(1, pricePerAcre);
+		return this.askNumber(Prompt.Type.BUY, cityState, affordable, "buy acres", pricePerAcre);
+	}
+
+	@Override
+	public int sell(int pricePerAcre, CityState cityState) {
+		return this.askNumber(Prompt.Type.SELL, cityState, cityState.getAcres(), "sell acres", pricePerAcre);
+	}
+
+	@Override
+	public int feed(int bushelsPerResident, CityState cityState) {
+		return this.askNumber(Prompt.Type.FEED, cityState, cityState.getTotalAmountOfBushels(), "feed bushels", bushelsPerResident);
+	}
+
+	@Override
+	public int[] plant(int bushelsPerAcre, int acrePerResident, CityState cityState) {
+		while(true) {
+			int[] answer = this.ask(Prompt.Type.PLANT, cityState, bushelsPerAcre, acrePerResident);
+			int[] acres = new int[Game.GrainType.values().length];
+			System.arraycopy(answer, 0, acres, 0, Math.min(answer.length, acres.length));
+			int invalid = -1;
+			for(int i = 0; i < acres.length && invalid < 0; i++) {
+				if(acres[i] < 0 || acres[i] > cityState.getAcres())
+					invalid = i;
+			}
+			if(invalid < 0)
+				return acres;
+			this.reject(acres[invalid], cityState.getAcres(), "plant acres of each grain type");
+		}
+	}
+
+	@Override
+	public void turnEnd(TurnResult result) {
+		this.post(Prompt.Type.TURN_END, null, NO_VALUES, result, null);
+	}
+
+	@Override
+	public void illigleInput(String message) {
+		this.post(Prompt.Type.ILLEGAL_INPUT, null, NO_VALUES, null, message);
+	}
+
+	@Override
+	public void gameWon(String message) {
+		this.post(Prompt.Type.GAME_WON, null, NO_VALUES, null, message);
+	}
+
+	@Override
+	public void gameLost(String message) {
+		this.post(Prompt.Type.GAME_LOST, null, NO_VALUES, null, message);
+	}
+}
@@ -0,0 +1,114 @@
+package de.htwsaar.esch.Codeopolis.Presentation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+
+/**
+ * The SessionRegistry class hosts many concurrent {@link GameSession}s in one JVM.
+ *
+ * Each session plays its game on a virtual thread of its own. While a game waits for its player,
+ * the virtual thread is parked on the queue of the session and does not occupy a platform thread,
+ * so the number of sessions is bounded by memory rather than by the number of threads.
+ * A session is removed from the registry as soon as its game is over or the session is closed.
+ */
+public class SessionRegistry implements AutoCloseable {
+	private final ConcurrentMap<String, GameSession> sessions = new ConcurrentHashMap<String, GameSession>();
+	private final ConcurrentMap<String, Thread> threads = new ConcurrentHashMap<String, Thread>();
+	private final ThreadFactory factory = Thread.ofVirtual().name("session-", 0).factory();
+
+	/**
+	 * Starts a session with a new game on a virtual thread of its own.
+	 *
+	 * @param cityName   The name of the city.
+	 * @param difficulty The difficulty level of the game.
+	 * @return The started session.
+	 */
+	public GameSession start(String cityName, Game.Difficulty difficulty) {
+		GameSession session = new GameSession(UUID.randomUUID().toString(), cityName, difficulty);
+		this.sessions.put(session.getId(), session);
+		Thread thread = this.factory.newThread(() -> {
+			try {
+				session.start();
+			}
+			finally {
+				this.sessions.remove(session.getId());
+				this.threads.remove(session.getId());
+			}
+		});
+		this.threads.put(session.getId(), thread);
+		thread.start();
+		return session;
+	}
+
+	/**
+	 * Retrieves a running session.
+	 *
+	 * @param id The ID of the session.
+	 * @return The session, or null if there is no running session with the ID.
+	 */
+	public GameSession get(String id) {
+		return this.sessions.get(id);
+	}
+
+	/**
+	 * Returns the running sessions.
+	 *
+	 * @return An unmodifiable view of the running sessions.
+	 */
+	public Collection<GameSession> getSessions() {
+		return Collections.unmodifiableCollection(this.sessions.values());
+	}
+
+	/**
+	 * Returns the number of running sessions.
+	 *
+	 * @return The number of sessions.
+	 */
+	public int size() {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Closes a session. The game of the session ends as soon as it waits for its player.
+	 *
+	 * @param id The ID of the session.
+	 * @return true if the session was running, false otherwise.
+	 */
+	public boolean close(String id) {
+		Thread thread = this.threads.get(id);
+		if(thread == null)
+			return false;
+		thread.interrupt();
+		return true;
+	}
+
+	/**
+	 * Closes all sessions and waits until their games have ended.
+	 * If the calling thread is interrupted while waiting, it keeps waiting and its interrupt status is restored afterwards.
+	 */
+	@Override
+	public void close() {
+		for(Thread thread : this.threads.values()) {
+			thread.interrupt();
+		}
+		boolean interrupted = false;
+		for(Thread thread : this.threads.values()) {
+			while(thread.isAlive()) {
+				try {
+					thread.join();
+				}
+				catch(InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+}
@@ -22,11 +22,19 @@ public class DepotVisualizer {
 		siloInfos.addLast(result);
 	}
 	
+	public void appendSiloInfo(int siloNumber, Silo silo) {
+		this.siloCount = siloNumber;
+		this.appendSiloInfo(silo);
+	}
+	
 	public String visualize() {
 		this.siloInfos.sort((o1, o2) -> o1.compareTo(o2));
 		return String.join("\n", this.siloInfos);
 	}
 	
+	public String visualizeInOrder() {
+		return String.join("\n", this.siloInfos);
+	}
 	
 	private String buildBar(double fillPercentage) {
 		StringBuilder builder = new StringBuilder("|");
@@ -1,13 +1,20 @@
 package de.htwsaar.esch.Codeopolis.Utils;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+public class LinkedList<T extends Comparable<T>> implements Iterable<T>, Serializable {
+	private static final long serialVersionUID = 1L;
 
-public class LinkedList<T extends Comparable<T>> implements Iterable<T> {
 	public class Node {
 		private T data;
 		private Node next;
@@ -39,27 +46,44 @@ public class LinkedList<T extends Comparable<T>> implements Iterable<T> {
 		
 	}
 	
-	private Node root;
-	private int size;
+	private transient Node root;
+	private transient Node tail;
+	private transient int size;
 	
 	public LinkedList() {
 		this.root = null;
+		this.tail = null;
 		this.size = 0;
 	}
 
+	/**
+	 * Writes the size and then the elements in order, so long lists do not nest the serialization of their nodes.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(this.size);
+		for(Node node = this.root; node != null; node = node.next)
+			out.writeObject(node.data);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		for(int i = 0; i < size; i++)
+			this.addLast((T) in.readObject());
+	}
+
 	public void addLast(T data) {
 		this.size++;
 		if(this.root == null) {
 			this.root = new Node(data, null);
+			this.tail = this.root;
 			return;
 		}
 		
-		Node oldRoot = this.root;
-		while(oldRoot.next != null) {
-			oldRoot = oldRoot.next;
-		}
-
-		oldRoot.next = new Node(data, null);
+		this.tail.next = new Node(data, null);
+		this.tail = this.tail.next;
 	}
 	
 	public T removeFirst() {
@@ -72,6 +96,9 @@ public class LinkedList<T extends Comparable<T>> implements Iterable<T> {
 		
 		this.root = newRoot;
 		this.size--;
+		if(this.root == null) {
+			this.tail = null;
+		}
 		
 		return deletedRootNode.data;
 	}
@@ -114,6 +141,7 @@ public class LinkedList<T extends Comparable<T>> implements Iterable<T> {
 
 	public void clear() {
 		this.root = null;
+		this.tail = null;
 		this.size = 0;
 	}
 
@@ -127,6 +155,9 @@ public class LinkedList<T extends Comparable<T>> implements Iterable<T> {
 			if(iterationIndex == index-1) {
 				Node toBeDeleted = iterationNode.next;
 				iterationNode.next = toBeDeleted.next;
+				if(toBeDeleted == this.tail) {
+					this.tail = iterationNode;
+				}
 				size--;
 				
 				return toBeDeleted.data;
@@ -180,6 +211,16 @@ public class LinkedList<T extends Comparable<T>> implements Iterable<T> {
 		return result;
 	}
 	
+	public long sumLong(ToLongFunction<T> function) {
+		long result = 0;
+		
+		for(T element: this) {
+			result += function.applyAsLong(element);
+		}
+		
+		return result;
+	}
+	
 	@Override
 	public Iterator<T> iterator() {
 		return this.new ListIterator();
@@ -0,0 +1,56 @@
+package de.htwsaar.esch.Codeopolis.Utils;
+
+/**
+ * The LongAccounting class provides helpers for the 64-bit accounting of bushels and storage capacities.
+ * Totals over many silos are accumulated as {@code long}. The existing {@code int} accessors report
+ * these totals saturated at {@link Integer#MAX_VALUE} instead of silently overflowing.
+ */
+public final class LongAccounting {
+
+	private LongAccounting() {
+	}
+
+	/**
+	 * Converts a long value to an int, saturating at the bounds of int instead of overflowing.
+	 *
+	 * @param value The value to convert.
+	 * @return The value if it fits into an int, otherwise {@link Integer#MAX_VALUE} or {@link Integer#MIN_VALUE}.
+	 */
+	public static int toIntSaturated(long value) {
+		if(value > Integer.MAX_VALUE) {
+			return Integer.MAX_VALUE;
+		}
+		if(value < Integer.MIN_VALUE) {
+			return Integer.MIN_VALUE;
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Converts an array of long values to an array of int values, saturating each value.
+	 *
+	 * @param values The values to convert.
+	 * @return A new array containing the saturated values.
+	 */
+	public static int[] toIntSaturated(long[] values) {
+		int[] result = new int[values.length];
+		for(int index = 0; index < values.length; index++) {
+			result[index] = toIntSaturated(values[index]);
+		}
+		return result;
+	}
+
+	/**
+	 * Converts an array of int values to an array of long values.
+	 *
+	 * @param values The values to convert.
+	 * @return A new array containing the values.
+	 */
+	public static long[] toLong(int[] values) {
+		long[] result = new long[values.length];
+		for(int index = 0; index < values.length; index++) {
+			result[index] = values[index];
+		}
+		return result;
+	}
+}
@@ -0,0 +1,89 @@
+package de.htwsaar.esch.Codeopolis.Utils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The SplitMixRandom class is a counter-based random generator (SplitMix64).
+ * The n-th number drawn from the generator only depends on its seed and on n, so the complete state of the generator
+ * consists of the seed and the number of numbers drawn so far, its position. Saving and restoring the position
+ * is O(1), and any number drawn in the past can be recomputed from the seed and its position.
+ *
+ * All numbers are derived from {@link #nextLong()}, so the position advances by one for every call of nextLong
+ * and by one or more for the methods derived from it, e.g. bounded numbers.
+ */
+public final class SplitMixRandom implements RandomGenerator {
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+	private long position;
+
+	/**
+	 * Constructs a generator at position 0.
+	 *
+	 * @param seed The seed of the generator.
+	 */
+	public SplitMixRandom(long seed) {
+		this(seed, 0);
+	}
+
+	/**
+	 * Constructs a generator at the given position, continuing where a generator with the same seed stopped.
+	 *
+	 * @param seed     The seed of the generator.
+	 * @param position The number of numbers already drawn.
+	 * @throws IllegalArgumentException If the position is negative.
+	 */
+	public SplitMixRandom(long seed, long position) {
+		this.seed = seed;
+		this.setPosition(position);
+	}
+
+	/**
+	 * Computes the number drawn at a position without drawing it.
+	 *
+	 * @param seed     The seed of the generator.
+	 * @param position The position of the number.
+	 * @return The number drawn by {@link #nextLong()} at the position.
+	 */
+	public static long numberAt(long seed, long position) {
+		long z = seed + GAMMA * (position + 1);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long nextLong() {
+		return numberAt(this.seed, this.position++);
+	}
+
+	/**
+	 * Returns the seed of the generator.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Returns the number of numbers drawn so far.
+	 *
+	 * @return The position of the generator.
+	 */
+	public long getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * Moves the generator to a position, so the next number drawn is the number at this position.
+	 *
+	 * @param position The new position.
+	 * @throws IllegalArgumentException If the position is negative.
+	 */
+	public void setPosition(long position) {
+		if(position < 0)
+			throw new IllegalArgumentException("The position must not be negative: " + position);
+		this.position = position;
+	}
+}
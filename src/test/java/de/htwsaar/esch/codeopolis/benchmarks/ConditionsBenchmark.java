@@ -0,0 +1,86 @@
+package de.htwsaar.esch.codeopolis.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
+
+/**
+ * Measures the generation of the conditions of a year. {@link #legacy()} repeats the generator that the bitmask conditions replaced,
+ * which created a Random and a HashMap for every call.
+ *
+ * The allocations per call are reported by the GC profiler; {@link #randomize()} should report no allocations at all.
+ * Run with:
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath org.openjdk.jmh.Main ConditionsBenchmark -prof gc"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConditionsBenchmark {
+	private final SplittableRandom random = new SplittableRandom(42);
+	private final Conditions conditions = Conditions.generateRandomConditions(this.random);
+
+	@Benchmark
+	public Conditions randomize() {
+		return this.conditions.randomize(this.random);
+	}
+
+	@Benchmark
+	public Conditions generate() {
+		return Conditions.generateRandomConditions(this.random);
+	}
+
+	@Benchmark
+	public Conditions generateThreadLocal() {
+		return Conditions.generateRandomConditions();
+	}
+
+	@Benchmark
+	public LegacyConditions legacy() {
+		return LegacyConditions.generateRandomConditions();
+	}
+
+	/**
+	 * The conditions before the events were packed into a bitmask.
+	 */
+	record LegacyConditions(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, boolean drought,
+			boolean fusarium, boolean leafDrought, boolean powdryMildrew, boolean barleyGoutFly, boolean delioFly, boolean fritFly) {
+
+		static LegacyConditions generateRandomConditions() {
+			Random random = new Random();
+			HashMap<String, Boolean> settings = new HashMap<String, Boolean>(Map.of("drought", false, "fusarium", false, "leadDrought", false,
+					"powdryMildrew", false, "barleyGoutFly", false, "delioFly", false, "fritFly", false));
+
+			long seed = random.nextLong(0x10000000000000L, 0x64646464646464L);
+			for (String key : settings.keySet()) {
+				long setting = seed & 0x64;
+				seed >>= 8;
+				if (setting >= 80) {
+					settings.put(key, true);
+				}
+			}
+
+			return new LegacyConditions(random.nextFloat(0.0f, 1.0f),
+					random.nextFloat(Conditions.SUMMER_TEMPERATURE_LOWER, Conditions.SUMMER_TEMPERATURE_HIGHER),
+					random.nextFloat(Conditions.WINTER_TEMPERATURE_LOWER, Conditions.WINTER_TEMPERATURE_HIGHER),
+					settings.get("drought"), settings.get("fusarium"), settings.get("leadDrought"), settings.get("powdryMildrew"),
+					settings.get("barleyGoutFly"), settings.get("delioFly"), settings.get("fritFly"));
+		}
+	}
+}
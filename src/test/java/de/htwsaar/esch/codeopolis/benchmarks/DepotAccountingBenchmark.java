@@ -0,0 +1,89 @@
+package de.htwsaar.esch.codeopolis.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Depot;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.Harvest;
+import de.htwsaar.esch.Codeopolis.DomainModel.Silo;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+
+/**
+ * Checks that the int accessors of the depot are not slowed down by the 64-bit accounting.
+ *
+ * {@link #doubleSum()} is the total fill level as it was calculated before the 64-bit accounting: a sum of boxed doubles
+ * over the list of silos, cast to int. {@link #longSum()} is the same sum with {@link LinkedList#sumLong}.
+ * {@link #totalFillLevel()} and {@link #totalFillLevelLong()} are the int and long accessors of the depot itself.
+ *
+ * Run with:
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath org.openjdk.jmh.Main DepotAccountingBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DepotAccountingBenchmark {
+	private static final int CAPACITY = 10_000;
+
+	@Param({"1000", "200000"})
+	private int silos;
+
+	private Depot depot;
+	private LinkedList<Silo> siloList;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		GrainType[] grainTypes = GrainType.values();
+		this.depot = new Depot(this.silos, CAPACITY);
+		for (int i = 0; i < this.silos; i++) {
+			this.depot.store(Harvest.createHarvest(grainTypes[i % grainTypes.length], random.nextInt(1, CAPACITY), 0));
+		}
+		this.siloList = this.depot.getSilos();
+	}
+
+	@Benchmark
+	public int doubleSum() {
+		return (int) this.siloList.sum(silo -> (double) silo.getFillLevel());
+	}
+
+	@Benchmark
+	public int longSum() {
+		return (int) this.siloList.sumLong(Silo::getFillLevel);
+	}
+
+	@Benchmark
+	public int totalFillLevel() {
+		return this.depot.getTotalFillLevel();
+	}
+
+	@Benchmark
+	public long totalFillLevelLong() {
+		return this.depot.getTotalFillLevelLong();
+	}
+
+	@Benchmark
+	public int totalCapacity() {
+		return this.depot.totalCapacity();
+	}
+
+	@Benchmark
+	public long totalCapacityLong() {
+		return this.depot.totalCapacityLong();
+	}
+}
@@ -0,0 +1,227 @@
+package de.htwsaar.esch.codeopolis.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.Harvest;
+
+/**
+ * Compares the final Harvest with the six harvest subclasses it replaced, see {@link LegacyHarvest}.
+ *
+ * With harvests of all six grain types in one array, the calls of decay, copy and getShelfLife on the legacy classes
+ * see six receiver classes and cannot be inlined, while the same calls on the final Harvest always have a single receiver.
+ * With a single grain type, both are monomorphic, which separates the cost of the dispatch from the cost of the decay formula.
+ * The inlining decisions can be printed by adding {@code -jvmArgsAppend "-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining"}.
+ *
+ * Run with:
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath org.openjdk.jmh.Main HarvestBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HarvestBenchmark {
+	private static final int HARVESTS = 4096;
+	private static final int CURRENT_YEAR = 8;
+
+	@Param({"1", "6"})
+	private int grainTypes;
+
+	private Harvest[] harvests;
+	private LegacyHarvest[] legacyHarvests;
+
+	/**
+	 * Creates the same harvests for both representations. The decay benchmarks reduce the amounts during an iteration,
+	 * so the harvests are created anew for every iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		GrainType[] types = GrainType.values();
+		this.harvests = new Harvest[HARVESTS];
+		this.legacyHarvests = new LegacyHarvest[HARVESTS];
+		for (int i = 0; i < HARVESTS; i++) {
+			GrainType grainType = types[random.nextInt(this.grainTypes)];
+			int amount = random.nextInt(1_000_000, 2_000_000);
+			int year = random.nextInt(CURRENT_YEAR);
+			this.harvests[i] = Harvest.createHarvest(grainType, amount, year);
+			this.legacyHarvests[i] = LegacyHarvest.create(grainType, amount, year);
+		}
+	}
+
+	@Benchmark
+	public long decay() {
+		long decayed = 0;
+		for (Harvest harvest : this.harvests) {
+			decayed += harvest.decay(CURRENT_YEAR);
+		}
+		return decayed;
+	}
+
+	@Benchmark
+	public long legacyDecay() {
+		long decayed = 0;
+		for (LegacyHarvest harvest : this.legacyHarvests) {
+			decayed += harvest.decay(CURRENT_YEAR);
+		}
+		return decayed;
+	}
+
+	@Benchmark
+	public void copy(Blackhole blackhole) {
+		for (Harvest harvest : this.harvests) {
+			blackhole.consume(harvest.copy());
+		}
+	}
+
+	@Benchmark
+	public void legacyCopy(Blackhole blackhole) {
+		for (LegacyHarvest harvest : this.legacyHarvests) {
+			blackhole.consume(harvest.copy());
+		}
+	}
+
+	@Benchmark
+	public int shelfLife() {
+		int sum = 0;
+		for (Harvest harvest : this.harvests) {
+			sum += harvest.getShelfLife() + harvest.getGrainType().ordinal();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int legacyShelfLife() {
+		int sum = 0;
+		for (LegacyHarvest harvest : this.legacyHarvests) {
+			sum += harvest.getShelfLife() + harvest.getGrainType().ordinal();
+		}
+		return sum;
+	}
+
+	/**
+	 * The harvest hierarchy before Harvest became final: every grain type overrides decay, copy, getShelfLife and getGrainType.
+	 * The decay percentages are calculated by the same loops as in the former subclasses.
+	 */
+	private abstract static class LegacyHarvest {
+		private int bushels;
+		private final int year;
+
+		private LegacyHarvest(int bushels, int year) {
+			this.bushels = bushels;
+			this.year = year;
+		}
+
+		static LegacyHarvest create(GrainType grainType, int bushels, int year) {
+			return switch (grainType) {
+				case BARLEY -> new Barley(bushels, year);
+				case CORN -> new Corn(bushels, year);
+				case MILLET -> new Millet(bushels, year);
+				case RICE -> new Rice(bushels, year);
+				case RYE -> new Rye(bushels, year);
+				case WHEAT -> new Wheat(bushels, year);
+			};
+		}
+
+		abstract int decay(int currentYear);
+
+		abstract LegacyHarvest copy();
+
+		abstract int getShelfLife();
+
+		abstract GrainType getGrainType();
+
+		int remove(int amount) {
+			int removed = Math.min(amount, this.bushels);
+			this.bushels -= removed;
+			return removed;
+		}
+
+		int decayLinear(int currentYear, double initialPercentage, double increment) {
+			if (currentYear > this.year + this.getShelfLife()) {
+				int yearsOfDecay = currentYear - this.year - this.getShelfLife();
+				double decayPercentage = initialPercentage;
+				for (int i = 1; i < yearsOfDecay; i++)
+					decayPercentage += increment;
+				return this.remove((int) (this.bushels * decayPercentage));
+			}
+			return 0;
+		}
+
+		int decayDoubling(int currentYear) {
+			if (currentYear > this.year + this.getShelfLife()) {
+				int yearsOfDecay = currentYear - this.year - this.getShelfLife();
+				double decayPercentage = 0.02;
+				for (int i = 1; i < yearsOfDecay; i++)
+					decayPercentage *= 2;
+				return this.remove((int) (this.bushels * decayPercentage));
+			}
+			return 0;
+		}
+	}
+
+	private static final class Barley extends LegacyHarvest {
+		Barley(int bushels, int year) { super(bushels, year); }
+		@Override int decay(int currentYear) { return this.decayLinear(currentYear, 0.02, 0.03); }
+		@Override LegacyHarvest copy() { return new Barley(super.bushels, super.year); }
+		@Override int getShelfLife() { return 2; }
+		@Override GrainType getGrainType() { return GrainType.BARLEY; }
+	}
+
+	private static final class Corn extends LegacyHarvest {
+		Corn(int bushels, int year) { super(bushels, year); }
+		@Override int decay(int currentYear) { return this.decayLinear(currentYear, 0.02, 0.03); }
+		@Override LegacyHarvest copy() { return new Corn(super.bushels, super.year); }
+		@Override int getShelfLife() { return 2; }
+		@Override GrainType getGrainType() { return GrainType.CORN; }
+	}
+
+	private static final class Millet extends LegacyHarvest {
+		Millet(int bushels, int year) { super(bushels, year); }
+		@Override int decay(int currentYear) { return this.decayLinear(currentYear, 0.01, 0.02); }
+		@Override LegacyHarvest copy() { return new Millet(super.bushels, super.year); }
+		@Override int getShelfLife() { return 4; }
+		@Override GrainType getGrainType() { return GrainType.MILLET; }
+	}
+
+	private static final class Rice extends LegacyHarvest {
+		Rice(int bushels, int year) { super(bushels, year); }
+		@Override int decay(int currentYear) { return this.decayDoubling(currentYear); }
+		@Override LegacyHarvest copy() { return new Rice(super.bushels, super.year); }
+		@Override int getShelfLife() { return 1; }
+		@Override GrainType getGrainType() { return GrainType.RICE; }
+	}
+
+	private static final class Rye extends LegacyHarvest {
+		Rye(int bushels, int year) { super(bushels, year); }
+		@Override int decay(int currentYear) { return this.decayLinear(currentYear, 0.01, 0.02); }
+		@Override LegacyHarvest copy() { return new Rye(super.bushels, super.year); }
+		@Override int getShelfLife() { return 4; }
+		@Override GrainType getGrainType() { return GrainType.RYE; }
+	}
+
+	private static final class Wheat extends LegacyHarvest {
+		Wheat(int bushels, int year) { super(bushels, year); }
+		@Override int decay(int currentYear) { return this.decayDoubling(currentYear); }
+		@Override LegacyHarvest copy() { return new Wheat(super.bushels, super.year); }
+		@Override int getShelfLife() { return 1; }
+		@Override GrainType getGrainType() { return GrainType.WHEAT; }
+	}
+}
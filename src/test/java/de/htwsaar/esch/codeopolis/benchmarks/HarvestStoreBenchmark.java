@@ -0,0 +1,90 @@
+package de.htwsaar.esch.codeopolis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.Harvest;
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.HarvestStore;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
+
+/**
+ * Compares the columnar HarvestStore with harvest objects in a LinkedList, the stock of a silo before the store,
+ * for one turn over millions of harvests: all harvests decay, then half of the grain is taken out from the front.
+ * Both operations change the harvests, so every invocation works on a fresh copy made outside of the measurement.
+ *
+ * Run with:
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath org.openjdk.jmh.Main HarvestStoreBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class HarvestStoreBenchmark {
+	private static final int YEARS = 10;
+	private static final int CURRENT_YEAR = YEARS + 2;
+	private static final int AMOUNT = 1000;
+
+	@Param({"1000000", "4000000"})
+	private int harvests;
+
+	private HarvestStore template;
+	private HarvestStore store;
+	private LinkedList<Harvest> list;
+
+	/**
+	 * Fills the template with harvests in the order of their years. Adjacent harvests have different grain types,
+	 * so the store does not coalesce them.
+	 */
+	@Setup
+	public void setUp() {
+		GrainType[] grainTypes = GrainType.values();
+		this.template = new HarvestStore();
+		for (int i = 0; i < this.harvests; i++) {
+			this.template.append(grainTypes[i % grainTypes.length], AMOUNT, (int) ((long) i * YEARS / this.harvests));
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void copy() {
+		this.store = this.template.copy();
+		this.list = this.template.toHarvests();
+	}
+
+	@Benchmark
+	public long store() {
+		long decayed = this.store.decay(CURRENT_YEAR);
+		return decayed + this.store.takeOut(this.harvests / 2 * AMOUNT / 2);
+	}
+
+	@Benchmark
+	public long list() {
+		long decayed = 0;
+		for (Harvest harvest : this.list) {
+			decayed += harvest.decay(CURRENT_YEAR);
+		}
+		int amount = this.harvests / 2 * AMOUNT / 2;
+		while (amount > 0 && !this.list.isEmpty()) {
+			Harvest first = this.list.get(0);
+			amount -= first.remove(amount);
+			if (first.getAmount() == 0) {
+				this.list.removeFirst();
+			}
+		}
+		return decayed + amount;
+	}
+}
@@ -0,0 +1,158 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.CityJournal;
+import de.htwsaar.esch.Codeopolis.DomainModel.CityState;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+
+public class CityJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static final long SEED = 42;
+
+    /**
+     * Plays one year with orders that the city can always carry out, feeding at most half of its bushels.
+     */
+    private static void playYear(CityJournal journal) {
+        CityState state = journal.getState();
+        int bushelsPerResident = journal.getConfig().getBushelsPerResident();
+        int bushelsPerAcre = journal.getConfig().getBushelsPerAcre();
+        if (state.getTotalAmountOfBushels() > 100) {
+            journal.buy(20, 1);
+        }
+        journal.feed((int) Math.min(journal.getState().getTotalAmountOfBushelsLong() / 2, (long) bushelsPerResident * state.getResidents()));
+
+        state = journal.getState();
+        int[] acres = new int[GrainType.values().length];
+        int perType = Math.min(state.getAcres(), state.getResidents() * journal.getConfig().getAcrePerResident()) / acres.length;
+        for (GrainType grainType : GrainType.values()) {
+            acres[grainType.ordinal()] = Math.min(perType, state.getBushels(grainType) / bushelsPerAcre);
+        }
+        journal.plant(acres);
+        journal.runTurn();
+    }
+
+    private static void assertSameState(CityState expected, CityState actual) {
+        assertEquals(expected.getYear(), actual.getYear());
+        assertEquals(expected.getResidents(), actual.getResidents());
+        assertEquals(expected.getAcres(), actual.getAcres());
+        assertArrayEquals(expected.getBushels(), actual.getBushels());
+        assertEquals(expected.getFreeStorageLong(), actual.getFreeStorageLong());
+    }
+
+    @Test
+    public void testRestoreContinuesIdentically() throws IOException {
+        Path interrupted = this.directory.resolve("interrupted");
+        Path uninterrupted = this.directory.resolve("uninterrupted");
+
+        try (CityJournal journal = CityJournal.create(interrupted, "1", "Phoenix", Difficulty.EASY, SEED, 3)) {
+            for (int year = 0; year < 4 && !journal.cityExtinct(); year++) {
+                playYear(journal);
+            }
+            journal.feed(0); // Orders after the last snapshot are part of the tail
+        }
+        try (CityJournal journal = CityJournal.open(interrupted)) {
+            assertEquals(3, journal.getSnapshotInterval());
+            for (int year = 0; year < 3 && !journal.cityExtinct(); year++) {
+                playYear(journal);
+            }
+        }
+
+        try (CityJournal journal = CityJournal.create(uninterrupted, "1", "Phoenix", Difficulty.EASY, SEED, 3)) {
+            for (int year = 0; year < 4 && !journal.cityExtinct(); year++) {
+                playYear(journal);
+            }
+            journal.feed(0);
+            for (int year = 0; year < 3 && !journal.cityExtinct(); year++) {
+                playYear(journal);
+            }
+            try (CityJournal restored = CityJournal.open(interrupted)) {
+                assertSameState(journal.getState(), restored.getState());
+                assertEquals(7, journal.getState().getYear());
+                assertEquals(journal.getDepotSnapshot().toString(), restored.getDepotSnapshot().toString());
+                assertEquals(journal.getLogSize(), restored.getLogSize());
+            }
+        }
+        assertEquals(-1, Files.mismatch(interrupted.resolve("commands.log"), uninterrupted.resolve("commands.log")));
+    }
+
+    @Test
+    public void testAudit() throws IOException {
+        List<CityState> states = new ArrayList<>();
+        try (CityJournal journal = CityJournal.create(this.directory, "2", "Memphis", Difficulty.EASY, SEED, 3)) {
+            states.add(journal.getState());
+            while (states.size() <= 8 && !journal.cityExtinct()) {
+                playYear(journal);
+                states.add(journal.getState());
+            }
+            assertEquals(9, states.size());
+            assertTrue(journal.getLogSize() < 64 * states.size(), "Log size: " + journal.getLogSize());
+        }
+
+        for (int year = 0; year < states.size(); year++) {
+            assertSameState(states.get(year), CityJournal.audit(this.directory, year));
+        }
+        int lastYear = states.size();
+        assertThrows(IllegalArgumentException.class, () -> CityJournal.audit(this.directory, lastYear));
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        CityState state;
+        long logSize;
+        try (CityJournal journal = CityJournal.create(this.directory, "3", "Thebes", Difficulty.EASY, SEED)) {
+            playYear(journal);
+            state = journal.getState();
+            logSize = journal.getLogSize();
+        }
+        // The process died in the middle of writing a buy order
+        Files.write(this.directory.resolve("commands.log"), new byte[] {2, 0, 0}, StandardOpenOption.APPEND);
+
+        try (CityJournal journal = CityJournal.open(this.directory)) {
+            assertSameState(state, journal.getState());
+            assertEquals(logSize, journal.getLogSize());
+            assertEquals(logSize, Files.size(this.directory.resolve("commands.log")));
+            playYear(journal);
+            state = journal.getState();
+        }
+        try (CityJournal journal = CityJournal.open(this.directory)) {
+            assertSameState(state, journal.getState());
+        }
+    }
+
+    @Test
+    public void testDivergingLogIsDetected() throws IOException {
+        try (CityJournal journal = CityJournal.create(this.directory, "4", "Ur", Difficulty.EASY, SEED)) {
+            playYear(journal);
+        }
+        // Replace the residents of the turn record at the end of the log
+        Path log = this.directory.resolve("commands.log");
+        byte[] bytes = Files.readAllBytes(log);
+        Arrays.fill(bytes, bytes.length - 20, bytes.length - 16, (byte) 0x7F);
+        Files.write(log, bytes);
+
+        assertThrows(IllegalStateException.class, () -> CityJournal.open(this.directory));
+    }
+
+    @Test
+    public void testCreateRejectsExistingJournal() throws IOException {
+        CityJournal.create(this.directory, "5", "Uruk", Difficulty.HARD, SEED).close();
+        assertThrows(IOException.class, () -> CityJournal.create(this.directory, "5", "Uruk", Difficulty.HARD, SEED));
+        assertThrows(IllegalArgumentException.class, () -> CityJournal.create(this.directory.resolve("other"), "6", "Kish", Difficulty.HARD, SEED, 0));
+    }
+}
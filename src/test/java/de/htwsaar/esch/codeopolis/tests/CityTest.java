@@ -1,6 +1,11 @@
 package de.htwsaar.esch.codeopolis.tests;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +17,7 @@ import de.htwsaar.esch.Codeopolis.DomainModel.CityState;
 import de.htwsaar.esch.Codeopolis.DomainModel.Game;
 import de.htwsaar.esch.Codeopolis.DomainModel.GameConfig;
 import de.htwsaar.esch.Codeopolis.DomainModel.TurnResult;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Field;
 import de.htwsaar.esch.Codeopolis.Exceptions.*;
 import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
 
@@ -227,7 +233,157 @@ class CityTest {
         assertThrows(LandOperationException.class, () -> 
         this.testCity.plant(acres)); 
   	}
-	 
-	
 
-}
\ No newline at end of file
+	/**
+	 * Test for planting a field: the bushels for the placed acres are taken out of the depot,
+	 * and only the grain types placed on the field are harvested.
+	 */
+	@Test
+	void testPlantField() throws GameException {
+		GameConfig config = new GameConfig(Difficulty.EASY, new SplittableRandom(11));
+		City city = new City("field", "Field City", config, new SplittableRandom(11));
+		CityState state = city.getState();
+		Game.GrainType planted = Game.GrainType.CORN; // The grain type with the most stock
+		for (Game.GrainType grainType : Game.GrainType.values()) {
+			if (state.getBushels(grainType) > state.getBushels(planted))
+				planted = grainType;
+		}
+		Game.GrainType other = planted == Game.GrainType.RYE ? Game.GrainType.WHEAT : Game.GrainType.RYE;
+		int bushels = state.getBushels(planted);
+		int otherBushels = state.getBushels(other);
+		int acres = Math.min(50, bushels / config.getBushelsPerAcre());
+		assertTrue(acres > 0);
+
+		Field field = new Field(10, 50);
+		field.plant(planted, 2, 0, 1, acres);
+		city.plant(field);
+		assertEquals(bushels - acres * config.getBushelsPerAcre(), city.getState().getBushels(planted));
+		assertEquals(otherBushels, city.getState().getBushels(other));
+
+		TurnResult result = city.runTurn();
+		for (Game.GrainType grainType : Game.GrainType.values()) {
+			if (grainType != planted)
+				assertEquals(0, result.getBushelsHarvested()[grainType.ordinal()]);
+		}
+		assertEquals(0, field.getAcres(planted)); // Harvested fields are cleared
+	}
+
+	/**
+	 * Test that grain and a field cannot both be planted in the same year, and that nothing is taken out of the depot
+	 * for the rejected planting.
+	 */
+	@Test
+	void testPlantFieldAndGrainExcludeEachOther() throws GameException {
+		GameConfig config = new GameConfig(Difficulty.EASY, new SplittableRandom(11));
+		City city = new City("field", "Field City", config, new SplittableRandom(11));
+		Game.GrainType grainType = Game.GrainType.values()[0];
+		for (Game.GrainType candidate : Game.GrainType.values()) {
+			if (city.getState().getBushels(candidate) > city.getState().getBushels(grainType))
+				grainType = candidate;
+		}
+		int[] acres = new int[Game.GrainType.values().length];
+		acres[grainType.ordinal()] = 1;
+		Field field = new Field(10, 50);
+		field.plant(grainType, 0, 0, 1, 1);
+
+		city.plant(acres);
+		long bushels = city.getState().getTotalAmountOfBushelsLong();
+		assertThrows(LandOperationException.class, () -> city.plant(field));
+		assertEquals(bushels, city.getState().getTotalAmountOfBushelsLong());
+
+		city.feed((int) Math.min(city.getState().getTotalAmountOfBushelsLong(), (long) config.getBushelsPerResident() * city.getState().getResidents()));
+		city.runTurn(); // A new year starts with nothing planted
+		city.plant(field);
+		bushels = city.getState().getTotalAmountOfBushelsLong();
+		assertThrows(LandOperationException.class, () -> city.plant(acres));
+		assertThrows(LandOperationException.class, () -> city.plant(new Field(10, 50)));
+		assertEquals(bushels, city.getState().getTotalAmountOfBushelsLong());
+	}
+
+	/**
+	 * Plays a city created from a seed for several years and records the result of every year.
+	 */
+	private static String playSeededCity(long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		GameConfig config = new GameConfig(Difficulty.EASY, random.split());
+		City city = new City("id", "Seeded City", config, random.split());
+		StringBuilder trace = new StringBuilder();
+		for (int year = 0; year < 10; year++) {
+			try {
+				city.feed(config.getBushelsPerResident() * city.getState().getResidents());
+				int[] acres = new int[Game.GrainType.values().length];
+				for (Game.GrainType grainType : Game.GrainType.values())
+					acres[grainType.ordinal()] = Math.min(100, city.getState().getBushels(grainType) / 2);
+				city.plant(acres);
+			} catch (GameException e) {
+				trace.append(e.getMessage());
+			}
+			TurnResult result = city.runTurn();
+			trace.append(Arrays.toString(result.getBushelsHarvested())).append(result.getResidents()).append(result.getAteByRates())
+				.append(result.getBushelsDecayed()).append(Arrays.toString(city.getState().getBushels())).append('\n');
+		}
+		return trace.toString();
+	}
+
+	/**
+	 * Test that cities created from the same seed develop identically, also when they are played in parallel.
+	 */
+	@Test
+	void testSeededCitiesAreReproducible() throws Exception {
+		String first = playSeededCity(2024);
+		assertEquals(first, playSeededCity(2024));
+		assertNotEquals(first, playSeededCity(2025));
+		GameConfig config = new GameConfig(Difficulty.HARD, new SplittableRandom(1));
+		GameConfig sameConfig = new GameConfig(Difficulty.HARD, new SplittableRandom(1));
+		for (Game.GrainType grainType : Game.GrainType.values())
+			assertEquals(config.getInitialBushels(grainType.ordinal()), sameConfig.getInitialBushels(grainType.ordinal()));
+
+		List<String> parallel = IntStream.range(0, 8).parallel().mapToObj(i -> playSeededCity(2024 + i % 2)).toList();
+		for (int i = 0; i < parallel.size(); i++)
+			assertEquals(i % 2 == 0 ? first : playSeededCity(2025), parallel.get(i));
+	}
+
+	/**
+	 * Test that the state of the city is cached between mutations and cannot be changed through the cache.
+	 */
+	@Test
+	void testStateIsCachedUntilMutation() {
+		CityState state = testCity.getState();
+		assertSame(state, testCity.getState());
+
+		state.getBushels()[0] = -1;
+		state.getSilos().forEach(silo -> silo.takeOut(silo.getFillLevel()));
+		assertEquals(3000, testCity.getState().getTotalAmountOfBushels());
+		assertNotEquals(-1, testCity.getState().getBushels()[0]);
+		int[] stored = {0};
+		testCity.getState().getSilos().forEach(silo -> stored[0] += silo.getFillLevel());
+		assertEquals(3000, stored[0]);
+
+		testCity.feed(100);
+		CityState fed = testCity.getState();
+		assertNotSame(state, fed);
+		assertEquals(2900, fed.getTotalAmountOfBushels());
+		assertSame(fed, testCity.getState());
+
+		testCity.expandDepot(1, 10);
+		assertNotSame(fed, testCity.getState());
+		assertEquals(fed.getSilos().size() + 1, testCity.getState().getSilos().size());
+
+		testCity.runTurn();
+		assertEquals(1, testCity.getState().getYear());
+	}
+
+	/**
+	 * Test that rejected orders keep the cached state of the city.
+	 */
+	@Test
+	void testRejectedOrderKeepsCachedState() {
+		CityState state = testCity.getState();
+		assertThrows(InsufficientResourcesException.class, () -> testCity.buy(10, 1000));
+		assertThrows(LandOperationException.class, () -> testCity.sell(1, 2000));
+		assertThrows(InsufficientResourcesException.class, () -> testCity.feed(5000));
+		int[] acres = {state.getBushels(Game.GrainType.BARLEY) + 1, 0, 0, 0, 0, 0};
+		assertThrows(InsufficientResourcesException.class, () -> testCity.plant(acres));
+		assertSame(state, testCity.getState());
+	}
+}
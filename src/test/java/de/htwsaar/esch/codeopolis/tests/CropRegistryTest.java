@@ -0,0 +1,113 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
+
+public class CropRegistryTest {
+
+    @Test
+    public void testDefaultVariants() {
+        CropRegistry registry = CropRegistry.createDefault();
+        // A single variant is created without a random number
+        RandomGenerator noRandom = () -> { throw new AssertionError("No random number expected"); };
+        assertInstanceOf(Barley.class, registry.create(Game.GrainType.BARLEY, noRandom));
+        assertInstanceOf(Rye.class, registry.create(Game.GrainType.RYE, noRandom));
+        assertEquals(2, registry.getVariantCount(Game.GrainType.WHEAT));
+
+        SplittableRandom random = new SplittableRandom(7);
+        int g13Amnesia = 0;
+        for (int i = 0; i < 100_000; i++) {
+            Grain wheat = registry.create(Game.GrainType.WHEAT, random);
+            assertInstanceOf(Wheat.class, wheat);
+            if (wheat instanceof G13Amnesia) {
+                g13Amnesia++;
+            }
+        }
+        assertEquals(10_000, g13Amnesia, 500); // Weight 10 against 90
+    }
+
+    @Test
+    public void testG13AmnesiaDoublesTheHarvest() {
+        Conditions conditions = Conditions.generateRandomConditions(new SplittableRandom(3));
+        Grain wheat = new Wheat();
+        Grain g13Amnesia = new G13Amnesia();
+        wheat.plant(100);
+        g13Amnesia.plant(100);
+        wheat.grow(conditions);
+        g13Amnesia.grow(conditions);
+        assertEquals(2 * wheat.harvest(), g13Amnesia.harvest());
+    }
+
+    @Test
+    public void testRegister() {
+        CropRegistry registry = new CropRegistry();
+        assertThrows(IllegalStateException.class, () -> registry.create(Game.GrainType.CORN, new SplittableRandom()));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(Game.GrainType.CORN, Corn::new, 0));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(null, Corn::new, 1));
+
+        registry.register(Game.GrainType.CORN, Corn::new, 1).register(Game.GrainType.CORN, Millet::new, 3);
+        SplittableRandom random = new SplittableRandom(11);
+        int corn = 0;
+        for (int i = 0; i < 40_000; i++) {
+            if (registry.create(Game.GrainType.CORN, random) instanceof Corn) {
+                corn++;
+            }
+        }
+        assertEquals(10_000, corn, 500);
+    }
+
+    /**
+     * A corn variant which does not suffer from drought.
+     */
+    private static class DroughtResistantCorn extends Corn {
+        @Override
+        public void drought() {
+        }
+    }
+
+    @Test
+    public void testVariantsGrowByTheirOwnRules() {
+        YieldEngine engine = YieldEngine.getInstance();
+        assertEquals(Game.GrainType.WHEAT, engine.findTable(new G13Amnesia()));
+        assertEquals(Game.GrainType.MILLET, engine.findTable(new Millet()));
+        assertNull(engine.findTable(new DroughtResistantCorn()));
+
+        Conditions conditions = Conditions.generateRandomConditions(new SplittableRandom(5));
+        for (int events = 0; events <= YieldEngine.FRIT_FLY << 1; events += YieldEngine.DROUGHT) {
+            // Millet registered as corn grows like millet, not like corn
+            assertEquals(engine.yieldRatio(Game.GrainType.MILLET, conditions, events), engine.yieldRatio(new Millet(), conditions, events));
+            assertEquals(engine.yieldRatio(Game.GrainType.CORN, conditions, events & ~YieldEngine.DROUGHT),
+                    engine.yieldRatio(new DroughtResistantCorn(), conditions, events));
+        }
+    }
+
+    @Test
+    public void testFieldIsPlantedWithVariants() {
+        Conditions conditions = Conditions.generateRandomConditions(new SplittableRandom(9));
+        Field field = new Field(40, 50);
+        field.randomizeSoil(new SplittableRandom(9));
+        field.plant(Game.GrainType.WHEAT, 0, 0, 20, 50);
+        field.plant(Game.GrainType.CORN, 20, 0, 20, 50);
+        int wheat = Game.GrainType.WHEAT.ordinal();
+        int corn = Game.GrainType.CORN.ordinal();
+
+        CropRegistry plain = new CropRegistry().register(Game.GrainType.WHEAT, Wheat::new, 1).register(Game.GrainType.CORN, Corn::new, 1);
+        CropRegistry variants = new CropRegistry().register(Game.GrainType.WHEAT, G13Amnesia::new, 1).register(Game.GrainType.CORN, DroughtResistantCorn::new, 1);
+        long[] crops = field.harvest(conditions, YieldEngine.DROUGHT, null, plain, new SplittableRandom());
+        assertEquals(field.harvest(conditions, YieldEngine.DROUGHT)[wheat], crops[wheat], 1);
+        assertEquals(field.harvest(conditions, YieldEngine.DROUGHT)[corn], crops[corn], 1);
+
+        long[] variantCrops = field.harvest(conditions, YieldEngine.DROUGHT, null, variants, new SplittableRandom());
+        assertEquals(2 * crops[wheat], variantCrops[wheat]);
+        assertEquals(field.harvest(conditions, 0, null, plain, new SplittableRandom())[corn], variantCrops[corn], 1);
+        assertTrue(variantCrops[corn] > crops[corn]);
+    }
+}
@@ -2,10 +2,19 @@ package de.htwsaar.esch.codeopolis.tests;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import de.htwsaar.esch.Codeopolis.DomainModel.Depot;
+import de.htwsaar.esch.Codeopolis.DomainModel.DepotQuery;
+import de.htwsaar.esch.Codeopolis.DomainModel.DepotEvent;
+import de.htwsaar.esch.Codeopolis.DomainModel.DepotListener;
+import de.htwsaar.esch.Codeopolis.DomainModel.DepotSnapshot;
+import de.htwsaar.esch.Codeopolis.DomainModel.DepotTurnSummary;
+import de.htwsaar.esch.Codeopolis.DomainModel.Silo;
+import de.htwsaar.esch.Codeopolis.Utils.LinkedList;
 import de.htwsaar.esch.Codeopolis.DomainModel.Game;
 import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.*;
 
@@ -58,5 +67,266 @@ public class DepotTest {
         assertEquals(6000, depot.getCapacity(Game.GrainType.CORN));
     }
 
-  
+    @Test
+    public void testSnapshotIsImmutable() {
+        depot.store(wheatHarvest);
+        DepotSnapshot snapshot = depot.snapshot();
+        
+        depot.store(cornHarvest);
+        depot.takeOut(200, Game.GrainType.WHEAT);
+        depot.decay(2030);
+        depot.expand(1, 1000);
+        
+        assertEquals(500, snapshot.getFillLevel(Game.GrainType.WHEAT));
+        assertEquals(0, snapshot.getFillLevel(Game.GrainType.CORN));
+        assertEquals(3000, snapshot.totalCapacity());
+        assertNotEquals(snapshot.getVersion(), depot.getVersion());
+        assertTrue(depot.getFillLevel(Game.GrainType.WHEAT) < 300);
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilModification() {
+        DepotSnapshot snapshot = depot.snapshot();
+        assertSame(snapshot, depot.snapshot());
+        
+        depot.store(wheatHarvest);
+        assertNotSame(snapshot, depot.snapshot());
+        assertEquals(500, depot.snapshot().getTotalFillLevel());
+    }
+
+    @Test
+    public void testSnapshotSilosAreCopies() {
+        depot.store(wheatHarvest);
+        DepotSnapshot snapshot = depot.snapshot();
+        
+        snapshot.getSilos().forEach(silo -> silo.takeOut(100));
+        
+        assertEquals(500, snapshot.getTotalFillLevel());
+        assertEquals(500, depot.getTotalFillLevel());
+    }
+
+    @Test
+    public void testSnapshotPredicateSeesCopies() {
+        depot.store(wheatHarvest);
+        DepotSnapshot snapshot = depot.snapshot();
+        
+        snapshot.toString(silo -> silo.takeOut(100) >= 0, (a, b) -> Integer.compare(a.takeOut(1), b.takeOut(1)));
+        depot.toString(silo -> silo.takeOut(100) >= 0, (a, b) -> 0);
+        
+        assertEquals(500, snapshot.getTotalFillLevel());
+        assertEquals(500, snapshot.getSilos().sumLong(Silo::getFillLevel));
+        assertEquals(500, depot.getTotalFillLevel());
+        assertEquals(500, depot.getSilos().sumLong(Silo::getFillLevel));
+    }
+
+    @Test
+    public void testQueryFiltersAndSorts() {
+        depot.expand(3, 1000);
+        depot.store(Harvest.createHarvest(Game.GrainType.CORN, 300, 2021));
+        depot.store(Harvest.createHarvest(Game.GrainType.CORN, 1000, 2020));
+        depot.store(Harvest.createHarvest(Game.GrainType.WHEAT, 800, 2022));
+        
+        LinkedList<Silo> corn = depot.query().grainType(Game.GrainType.CORN).sortBy(DepotQuery.SortKey.FILL_LEVEL, true).execute();
+        assertEquals(2, corn.size());
+        assertEquals(1000, corn.get(0).getFillLevel());
+        assertEquals(300, corn.get(1).getFillLevel());
+        
+        assertEquals(2, depot.query().fillLevel(500, 1000).count());
+        assertEquals(3, depot.query().fillLevel(0, 0).count());
+        
+        LinkedList<Silo> oldest = depot.query().fillLevel(1, Integer.MAX_VALUE).sortBy(DepotQuery.SortKey.OLDEST_HARVEST, false).limit(1).execute();
+        assertEquals(2020, oldest.get(0).getOldestHarvestYear());
+    }
+
+    @Test
+    public void testQuerySortsDescending() {
+        depot.expand(3, 2000); // Silos 3 to 5 are larger, silos 4 and 5 stay empty
+        depot.store(Harvest.createHarvest(Game.GrainType.CORN, 300, 2021));
+        depot.store(Harvest.createHarvest(Game.GrainType.WHEAT, 1000, 2020));
+        depot.store(Harvest.createHarvest(Game.GrainType.RICE, 800, 2022));
+        depot.store(Harvest.createHarvest(Game.GrainType.BARLEY, 50, 2019));
+        
+        LinkedList<Silo> byGrainType = depot.query().sortBy(DepotQuery.SortKey.GRAIN_TYPE, true).execute();
+        assertEquals(Game.GrainType.WHEAT, byGrainType.get(0).getGrainType());
+        assertEquals(Game.GrainType.BARLEY, byGrainType.get(3).getGrainType());
+        assertNull(byGrainType.get(4).getGrainType()); // Empty silos last
+        assertNull(byGrainType.get(5).getGrainType());
+        
+        LinkedList<Silo> byOldestHarvest = depot.query().sortBy(DepotQuery.SortKey.OLDEST_HARVEST, true).execute();
+        assertEquals(2022, byOldestHarvest.get(0).getOldestHarvestYear());
+        assertEquals(2019, byOldestHarvest.get(3).getOldestHarvestYear());
+        assertEquals(0, byOldestHarvest.get(4).getFillLevel()); // Empty silos last
+        assertEquals(0, byOldestHarvest.get(5).getFillLevel());
+        
+        LinkedList<Silo> byFillLevel = depot.query().sortBy(DepotQuery.SortKey.FILL_LEVEL, true).execute();
+        assertEquals(1000, byFillLevel.get(0).getFillLevel());
+        assertEquals(800, byFillLevel.get(1).getFillLevel());
+        assertEquals(0, byFillLevel.get(5).getFillLevel());
+        
+        LinkedList<Silo> byCapacity = depot.query().sortBy(DepotQuery.SortKey.CAPACITY, true).execute();
+        assertEquals(2000, byCapacity.get(0).getCapacity());
+        assertEquals(2000, byCapacity.get(2).getCapacity());
+        assertEquals(1000, byCapacity.get(3).getCapacity());
+    }
+
+    @Test
+    public void testQueryPagesThroughLargeDepot() {
+        Depot largeDepot = new Depot(100000, 100);
+        for (int i = 0; i < 1000; i++) {
+            largeDepot.store(Harvest.createHarvest(Game.GrainType.RICE, 100, 2020));
+        }
+        
+        DepotQuery query = largeDepot.query().grainType(Game.GrainType.RICE);
+        assertEquals(1000, query.count());
+        assertEquals(10, query.offset(990).limit(20).execute().size());
+        assertEquals(0, query.offset(1000).execute().size());
+        assertEquals(99000, largeDepot.query().fillLevel(0, 0).count());
+    }
+
+    @Test
+    public void testLargeDepotUsesLongAccounting() {
+        Depot largeDepot = new Depot(4, Integer.MAX_VALUE);
+        long amount = 3L * Integer.MAX_VALUE;
+        assertTrue(largeDepot.store(Game.GrainType.MILLET, amount, 2020));
+        
+        assertEquals(4L * Integer.MAX_VALUE, largeDepot.totalCapacityLong());
+        assertEquals(amount, largeDepot.getTotalFillLevelLong());
+        assertEquals(amount, largeDepot.getFillLevelLong(Game.GrainType.MILLET));
+        assertEquals(amount, largeDepot.getBushelsCategorizedByGrainTypeLong()[Game.GrainType.MILLET.ordinal()]);
+        assertEquals(Integer.MAX_VALUE, largeDepot.getTotalFillLevel());
+        assertEquals(Integer.MAX_VALUE, largeDepot.totalCapacity());
+        assertEquals(amount, largeDepot.snapshot().getTotalFillLevelLong());
+    }
+
+    @Test
+    public void testWarehouseSubtotalsMatchSilos() {
+        Depot largeDepot = new Depot(1000, 100);
+        for (int i = 0; i < 600; i++) {
+            largeDepot.store(Harvest.createHarvest(Game.GrainType.values()[i % 6], 150, 2020));
+        }
+        DepotSnapshot before = largeDepot.snapshot();
+        largeDepot.takeOut(2000, Game.GrainType.RYE);
+        largeDepot.expand(100, 50);
+        largeDepot.decay(2024);
+        
+        long[] expected = new long[Game.GrainType.values().length];
+        long total = 0;
+        long capacity = 0;
+        for (Silo silo : largeDepot.getSilos()) {
+            if (silo.getGrainType() != null) {
+                expected[silo.getGrainType().ordinal()] += silo.getFillLevel();
+            }
+            total += silo.getFillLevel();
+            capacity += silo.getCapacity();
+        }
+        assertArrayEquals(expected, largeDepot.getBushelsCategorizedByGrainTypeLong());
+        assertEquals(total, largeDepot.getTotalFillLevelLong());
+        assertEquals(capacity, largeDepot.totalCapacityLong());
+        assertEquals(90000, before.getTotalFillLevel());
+        assertEquals(100000, before.totalCapacity());
+    }
+
+    private static Depot createRandomDepot(long seed) {
+        Random random = new Random(seed);
+        Depot randomDepot = new Depot(6 + random.nextInt(150), 1000);
+        int harvests = random.nextInt(randomDepot.totalCapacity() / 200);
+        for (int i = 0; i < harvests; i++) {
+            randomDepot.store(Harvest.createHarvest(Game.GrainType.values()[random.nextInt(6)], 1 + random.nextInt(300), 2015 + random.nextInt(6)));
+        }
+        return randomDepot;
+    }
+
+    private static Harvest[] createRandomHarvests(long seed) {
+        Random random = new Random(seed);
+        Harvest[] harvests = new Harvest[Game.GrainType.values().length];
+        for (Game.GrainType grainType : Game.GrainType.values()) {
+            harvests[grainType.ordinal()] = Harvest.createHarvest(grainType, random.nextInt(3000), 2021);
+        }
+        return harvests;
+    }
+
+    @Test
+    public void testEndOfYearMatchesSeparateOperations() {
+        for (long seed = 0; seed < 200; seed++) {
+            Depot expected = createRandomDepot(seed);
+            Depot actual = createRandomDepot(seed);
+            Random ratsExpected = new Random(seed);
+            Random ratsActual = new Random(seed);
+            
+            for (Harvest harvest : createRandomHarvests(seed)) {
+                expected.store(harvest);
+            }
+            int ateByRats = expected.getTotalFillLevel() > 0 ? ratsExpected.nextInt(expected.getTotalFillLevel() / 10) : 0;
+            expected.takeOut(ateByRats);
+            int decayed = expected.decay(2021);
+            
+            DepotTurnSummary summary = actual.endOfYear(createRandomHarvests(seed), (total) -> total > 0 ? ratsActual.nextInt(total / 10) : 0, 2021);
+            
+            assertEquals(ateByRats, summary.getAteByRats());
+            assertEquals(decayed, summary.getBushelsDecayed());
+            assertArrayEquals(expected.getBushelsCategorizedByGrainTypeLong(), summary.getBushels());
+            assertEquals(expected.getTotalFillLevelLong(), summary.getTotalFillLevel());
+            assertEquals(expected.totalCapacityLong(), summary.getTotalCapacity());
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void testListenerReceivesOneBatchPerOperation() {
+        java.util.List<DepotEvent[]> batches = new java.util.ArrayList<>();
+        DepotListener listener = (changedDepot, events) -> batches.add(events);
+        depot.store(wheatHarvest);
+        depot.addListener(listener);
+        
+        depot.store(Harvest.createHarvest(Game.GrainType.CORN, 1500, 2023));
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).length);
+        assertEquals(DepotEvent.Type.STORED, batches.get(0)[0].getType());
+        assertEquals(1, batches.get(0)[0].getSiloIndex());
+        assertEquals(Game.GrainType.CORN, batches.get(0)[0].getGrainType());
+        assertEquals(1000, batches.get(0)[0].getDelta());
+        assertEquals(500, batches.get(0)[1].getDelta());
+        
+        depot.expand(20, 100);
+        DepotEvent[] expansion = batches.get(1);
+        assertEquals(DepotEvent.Type.EXPANDED, expansion[0].getType());
+        assertEquals(3, expansion[0].getSiloIndex());
+        int taken = 0;
+        for (DepotEvent event : expansion) {
+            if (event.getType() == DepotEvent.Type.TAKEN) {
+                taken -= event.getDelta();
+            }
+        }
+        assertEquals(1, taken);
+        
+        depot.removeListener(listener);
+        depot.takeOut(100, Game.GrainType.CORN);
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void testFailedOperationNotifiesNoListener() {
+        depot.store(wheatHarvest);
+        int[] calls = new int[1];
+        depot.addListener((changedDepot, events) -> {
+            calls[0]++;
+            throw new IllegalStateException("Listener failed");
+        });
+        
+        // The exception of the operation is not replaced by the exception of the listener
+        assertThrows(NullPointerException.class, () -> depot.store((Harvest) null));
+        assertEquals(0, calls[0]);
+        
+        // After a completed operation, every listener is notified before the first exception is rethrown
+        int[] laterCalls = new int[1];
+        depot.addListener((changedDepot, events) -> {
+            laterCalls[0]++;
+            throw new IllegalArgumentException("Second listener failed");
+        });
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> depot.takeOut(100, Game.GrainType.WHEAT));
+        assertEquals(1, calls[0]);
+        assertEquals(1, laterCalls[0]);
+        assertEquals(1, failure.getSuppressed().length);
+        assertEquals(400, depot.getFillLevel(Game.GrainType.WHEAT));
+    }
 }
@@ -0,0 +1,75 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
+
+public class FieldTest {
+
+    @Test
+    public void testUniformSoilMatchesGrain() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int year = 0; year < 50; year++) {
+            Conditions conditions = Conditions.generateRandomConditions(random);
+            Field field = new Field(40, 25);
+            field.plant(Game.GrainType.RYE, 0, 0, 20, 25);   // 500 acres
+            field.plant(Game.GrainType.RICE, 20, 5, 10, 20); // 200 acres
+            long[] crops = field.harvest(conditions, conditions.getEvents());
+
+            assertEquals(YieldEngine.getInstance().harvest(Game.GrainType.RYE, 500, conditions, conditions.getEvents()), crops[Game.GrainType.RYE.ordinal()], 1);
+            assertEquals(YieldEngine.getInstance().harvest(Game.GrainType.RICE, 200, conditions, conditions.getEvents()), crops[Game.GrainType.RICE.ordinal()], 1);
+            assertEquals(0, crops[Game.GrainType.CORN.ordinal()]);
+        }
+    }
+
+    @Test
+    public void testParallelHarvestOfLargeField() {
+        Field field = new Field(1000, 1000); // One million acres
+        field.randomizeSoil(new SplittableRandom(1));
+        field.plant(Game.GrainType.WHEAT, 0, 0, 600, 1000);
+        field.plant(Game.GrainType.MILLET, 600, 0, 400, 500);
+        assertEquals(600_000, field.getAcres(Game.GrainType.WHEAT));
+        assertEquals(Game.GrainType.MILLET, field.getCrop(999, 499));
+        assertNull(field.getCrop(999, 500));
+
+        Conditions conditions = Conditions.generateRandomConditions(new SplittableRandom(2));
+        long[] crops = field.harvest(conditions, YieldEngine.DROUGHT);
+
+        // Sum the plots one by one
+        double[] expected = new double[Game.GrainType.values().length];
+        for (int row = 0; row < field.getRows(); row++) {
+            for (int column = 0; column < field.getColumns(); column++) {
+                Game.GrainType crop = field.getCrop(row, column);
+                if (crop != null) {
+                    expected[crop.ordinal()] += YieldEngine.getInstance().yieldRatio(crop, conditions.getSoilConditions() * field.getSoilQuality(row, column),
+                            conditions.getAverageTemperatureSummer(), conditions.getAverageTemperatureWinter(), YieldEngine.DROUGHT);
+                }
+            }
+        }
+        for (Game.GrainType grainType : Game.GrainType.values()) {
+            assertEquals(Math.round(expected[grainType.ordinal()]), crops[grainType.ordinal()], 1e-6 * expected[grainType.ordinal()] + 1);
+        }
+    }
+
+    @Test
+    public void testPlantInvalidPlots() {
+        Field field = new Field(10, 10);
+        field.plant(Game.GrainType.CORN, 2, 2, 3, 3);
+        assertThrows(IllegalArgumentException.class, () -> field.plant(Game.GrainType.BARLEY, 4, 4, 2, 2)); // Overlaps the corn
+        assertThrows(IllegalArgumentException.class, () -> field.plant(Game.GrainType.BARLEY, 8, 8, 3, 1)); // Outside the field
+        assertThrows(IllegalArgumentException.class, () -> field.setSoilQuality(0, 0, 1.5f));
+        assertThrows(IndexOutOfBoundsException.class, () -> field.getCrop(10, 0));
+        assertEquals(9, field.getAcres(Game.GrainType.CORN));
+        assertEquals(0, field.getAcres(Game.GrainType.BARLEY)); // Nothing planted by the failed attempts
+
+        field.clear();
+        assertEquals(0, field.getAcres(Game.GrainType.CORN));
+        assertNull(field.getCrop(3, 3));
+    }
+}
@@ -0,0 +1,67 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+import de.htwsaar.esch.Codeopolis.DomainModel.Harvest.*;
+
+public class HarvestStoreTest {
+
+    @Test
+    public void testDecayMatchesHarvests() {
+        HarvestStore store = new HarvestStore();
+        Harvest[] harvests = new Harvest[60];
+        for (int i = 0; i < harvests.length; i++) {
+            Game.GrainType grainType = Game.GrainType.values()[i % 6];
+            harvests[i] = Harvest.createHarvest(grainType, 1000 + 37 * i, 2000 + i % 7);
+            store.append(grainType, harvests[i].getAmount(), harvests[i].getYear());
+        }
+
+        for (int year = 2000; year < 2020; year++) {
+            long expected = 0;
+            for (Harvest harvest : harvests) {
+                expected += harvest.decay(year);
+            }
+            assertEquals(expected, store.decay(year));
+            for (int i = 0; i < harvests.length; i++) {
+                assertEquals(harvests[i].getAmount(), store.getAmount(i));
+            }
+        }
+    }
+
+    @Test
+    public void testTakeOutRemovesHarvestsFromTheFront() {
+        HarvestStore store = new HarvestStore();
+        store.append(Game.GrainType.RYE, 100, 2020);
+        store.append(Game.GrainType.RYE, 200, 2021);
+        store.append(Game.GrainType.RYE, 300, 2022);
+
+        assertEquals(150, store.takeOut(150));
+        assertEquals(2, store.size()); // First harvest removed
+        assertEquals(150, store.getAmount(0));
+        assertEquals(2021, store.getYear(0));
+
+        assertEquals(450, store.takeOut(1000)); // Only 450 left
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testAppendAfterTakeOutAndCopy() {
+        HarvestStore store = new HarvestStore();
+        for (int i = 0; i < 100; i++) {
+            store.append(Game.GrainType.CORN, 10, 2000 + i);
+            store.takeOut(5);
+        }
+        assertEquals(50, store.size());
+        assertEquals(2050, store.getOldestYear());
+
+        HarvestStore copy = store.copy();
+        copy.takeOut(1000);
+        assertEquals(0, copy.size());
+        assertEquals(50, store.size()); // The original is not affected
+        assertEquals(50, store.toHarvests().size());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getAmount(50));
+    }
+}
@@ -108,4 +108,26 @@ public class HarvestTest {
     	Harvest wheatHarvest = Harvest.createHarvest(Game.GrainType.WHEAT, 1000, 2020);
         assertEquals(Game.GrainType.WHEAT, wheatHarvest.getGrainType());
     }
+
+    @Test
+    public void testLongTermRyeHarvestDecay() {
+    	Harvest ryeHarvest = Harvest.createHarvest(Game.GrainType.RYE, 1000000, 2020);
+    	int amount = 1000000;
+    	double decayPercentage = 0.01;
+    	for (int year = 2025; year < 2070; year++) { // Decay well beyond the first decades
+    		int decayedAmount = (int) (amount * decayPercentage);
+    		amount -= Math.min(decayedAmount, amount);
+    		assertEquals(decayedAmount, ryeHarvest.decay(year));
+    		assertEquals(amount, ryeHarvest.getAmount());
+    		decayPercentage += 0.02;
+    	}
+    }
+
+    @Test
+    public void testCopyKeepsGrainType() {
+    	Harvest riceHarvest = Harvest.createHarvest(Game.GrainType.RICE, 1000, 2020);
+    	assertEquals(Game.GrainType.RICE, riceHarvest.copy().getGrainType());
+    	assertEquals(Game.GrainType.RICE, riceHarvest.split(400).getGrainType());
+    	assertEquals(1, riceHarvest.getShelfLife());
+    }
 }
@@ -0,0 +1,65 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
+
+public class InfestationTest {
+
+    @Test
+    public void testSpreadToSusceptibleNeighbours() {
+        Field field = new Field(5, 5);
+        field.plant(Game.GrainType.BARLEY, 0, 0, 5, 2); // Barley gout fly reduces barley
+        field.plant(Game.GrainType.CORN, 0, 2, 5, 3);   // but not corn
+        Infestation infestation = new Infestation(field, 1, 0);
+        while (infestation.count(YieldEngine.BARLEY_GOUT_FLY) == 0) {
+            infestation.start(YieldEngine.BARLEY_GOUT_FLY, 1, new SplittableRandom());
+        }
+        infestation.spread(10);
+        assertEquals(10, infestation.count(YieldEngine.BARLEY_GOUT_FLY)); // All barley, no corn
+        assertEquals(0, infestation.getEvents(2, 2));
+        assertThrows(IllegalArgumentException.class, () -> infestation.start(YieldEngine.DROUGHT, 1, new SplittableRandom()));
+    }
+
+    @Test
+    public void testSpreadIsReproducible() {
+        Field field = new Field(1000, 1000);
+        field.plant(Game.GrainType.RICE, 0, 0, 1000, 1000);
+        int[] counts = new int[2];
+        for (int run = 0; run < 2; run++) {
+            Infestation infestation = new Infestation(field, 0.3, 17);
+            infestation.start(YieldEngine.DELIA_FLY, 50, new SplittableRandom(3));
+            long start = System.nanoTime();
+            infestation.spread(Infestation.SEASONS_PER_YEAR);
+            long elapsed = System.nanoTime() - start;
+            counts[run] = infestation.count(YieldEngine.DELIA_FLY);
+            assertTrue(elapsed < 5_000_000_000L, "Spread took " + elapsed / 1_000_000 + " ms");
+        }
+        assertEquals(counts[0], counts[1]);
+        assertTrue(counts[0] > 50 && counts[0] < 1_000_000);
+    }
+
+    @Test
+    public void testInfestationOnlyReducesInfestedPlots() {
+        Field field = new Field(100, 100);
+        field.plant(Game.GrainType.WHEAT, 0, 0, 100, 100);
+        Conditions conditions = Conditions.generateRandomConditions(new SplittableRandom(8));
+        conditions.setSoilConditions(0.9f);
+        long healthy = field.harvest(conditions, 0)[Game.GrainType.WHEAT.ordinal()];
+        long flat = field.harvest(conditions, YieldEngine.FRIT_FLY)[Game.GrainType.WHEAT.ordinal()];
+
+        Infestation infestation = new Infestation(field, 0.35, 5);
+        infestation.outbreak(YieldEngine.FRIT_FLY, new SplittableRandom(5));
+        int infested = infestation.count(YieldEngine.FRIT_FLY);
+        long spread = field.harvest(conditions, YieldEngine.FRIT_FLY, infestation)[Game.GrainType.WHEAT.ordinal()];
+
+        assertTrue(infested > 0 && infested < field.getSize());
+        assertEquals(healthy - (healthy - flat) * infested / field.getSize(), spread, 2);
+    }
+}
@@ -0,0 +1,155 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
+import de.htwsaar.esch.Codeopolis.Presentation.GameSession;
+import de.htwsaar.esch.Codeopolis.Presentation.GameSession.Prompt;
+import de.htwsaar.esch.Codeopolis.Presentation.SessionRegistry;
+
+public class SessionRegistryTest {
+
+    private static Prompt next(GameSession session) throws InterruptedException {
+        Prompt prompt = session.nextPrompt(30, TimeUnit.SECONDS);
+        assertNotNull(prompt, "The game did not prompt in time");
+        return prompt;
+    }
+
+    private static void awaitEmpty(SessionRegistry registry) throws InterruptedException {
+        for (int i = 0; i < 300 && registry.size() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testPlayYear() throws InterruptedException {
+        try (SessionRegistry registry = new SessionRegistry()) {
+            GameSession session = registry.start("Remote City", Difficulty.EASY);
+            assertSame(session, registry.get(session.getId()));
+
+            assertEquals(Prompt.Type.EXPAND_DEPOT, next(session).getType());
+            session.answer(0);
+            Prompt buy = next(session);
+            assertEquals(Prompt.Type.BUY, buy.getType());
+            assertEquals(1, buy.getValues().length);
+            session.answer(0);
+            assertEquals(Prompt.Type.SELL, next(session).getType());
+            session.answer(0);
+
+            Prompt feed = next(session);
+            assertEquals(Prompt.Type.FEED, feed.getType());
+            int bushels = feed.getCityState().getTotalAmountOfBushels();
+            session.answer(bushels + 1);
+            assertEquals(Prompt.Type.ILLEGAL_INPUT, next(session).getType());
+            assertEquals(Prompt.Type.FEED, next(session).getType());
+            session.answer(Math.min(bushels, feed.getValues()[0] * feed.getCityState().getResidents()));
+
+            assertEquals(Prompt.Type.PLANT, next(session).getType());
+            session.answer();
+            Prompt turnEnd = next(session);
+            assertEquals(Prompt.Type.TURN_END, turnEnd.getType());
+            assertEquals(1, turnEnd.getResult().getYear());
+
+            assertTrue(registry.close(session.getId()));
+            awaitEmpty(registry);
+            assertFalse(registry.close(session.getId()));
+        }
+    }
+
+    @Test
+    public void testInvalidAnswersAreAskedAgain() throws InterruptedException {
+        try (SessionRegistry registry = new SessionRegistry()) {
+            GameSession session = registry.start("Remote City", Difficulty.EASY);
+
+            Prompt expand = next(session);
+            assertEquals(Prompt.Type.EXPAND_DEPOT, expand.getType());
+            assertTrue(session.answer(Integer.MAX_VALUE)); // Far more silos than any player may build
+            assertEquals(Prompt.Type.ILLEGAL_INPUT, next(session).getType());
+            Prompt again = next(session);
+            assertEquals(Prompt.Type.EXPAND_DEPOT, again.getType());
+            assertTrue(again.getSequence() > expand.getSequence());
+            session.answer(0);
+
+            assertEquals(Prompt.Type.BUY, next(session).getType());
+            session.answer(0);
+            Prompt sell = next(session);
+            assertEquals(Prompt.Type.SELL, sell.getType());
+            session.answer(-10);
+            assertEquals(Prompt.Type.ILLEGAL_INPUT, next(session).getType());
+            assertEquals(Prompt.Type.SELL, next(session).getType());
+            session.answer(0);
+
+            Prompt feed = next(session);
+            assertEquals(sell.getCityState().getAcres(), feed.getCityState().getAcres()); // The negative sale was never carried out
+        }
+    }
+
+    @Test
+    public void testStrayAnswersAreDropped() throws InterruptedException {
+        assertFalse(new GameSession("idle", "Idle City", Difficulty.EASY).answer(1)); // No question pending
+
+        try (SessionRegistry registry = new SessionRegistry()) {
+            GameSession session = registry.start("Remote City", Difficulty.EASY);
+            Prompt expand = next(session);
+            assertFalse(session.answer(expand.getSequence() + 1, 0));
+            assertTrue(session.answer(expand.getSequence(), 0));
+            assertFalse(session.answer(expand.getSequence(), 7)); // Already answered
+
+            Prompt buy = next(session);
+            assertEquals(Prompt.Type.BUY, buy.getType());
+            assertTrue(session.answer(buy.getSequence(), 0));
+            assertEquals(Prompt.Type.SELL, next(session).getType());
+        }
+    }
+
+    @Test
+    public void testManyIdleSessions() throws InterruptedException {
+        final int sessions = 10_000;
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        int platformThreadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        try (SessionRegistry registry = new SessionRegistry()) {
+            List<GameSession> started = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                started.add(registry.start("City " + i, Difficulty.values()[i % Difficulty.values().length]));
+            }
+            for (GameSession session : started) {
+                assertEquals(Prompt.Type.EXPAND_DEPOT, next(session).getType()); // Every game is waiting for its player
+            }
+            assertEquals(sessions, registry.size());
+
+            // The waiting games are parked on their queues instead of occupying platform threads
+            int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            assertTrue(platformThreads - platformThreadsBefore < 100, "Platform threads: " + platformThreads);
+
+            System.gc();
+            long heapPerSession = (runtime.totalMemory() - runtime.freeMemory() - heapBefore) / sessions;
+            assertTrue(heapPerSession < 256 * 1024, "Heap per session: " + heapPerSession);
+
+            // Waiting sessions still respond
+            GameSession session = started.get(sessions / 2);
+            session.answer(1);
+            assertEquals(Prompt.Type.BUY, next(session).getType());
+        }
+    }
+
+    @Test
+    public void testCloseAll() throws InterruptedException {
+        SessionRegistry registry = new SessionRegistry();
+        for (int i = 0; i < 100; i++) {
+            registry.start("City " + i, Difficulty.MEDIUM);
+        }
+        registry.close();
+        assertEquals(0, registry.size());
+    }
+}
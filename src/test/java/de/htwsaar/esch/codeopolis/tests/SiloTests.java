@@ -44,6 +44,18 @@ public class SiloTests {
         assertEquals(Game.GrainType.CORN, silo.getGrainType()); // Silo grain type should be corn
     }
 
+    @Test
+    public void testStoreEmptyHarvest() {
+        assertNull(silo.store(Harvest.createHarvest(GrainType.CORN, 0, 2020)));
+        assertEquals(0, silo.getFillLevel());
+        assertNull(silo.getGrainType()); // The empty harvest does not label the silo
+
+        assertNull(silo.store(Harvest.createHarvest(GrainType.MILLET, 300, 2020)));
+        assertEquals(GrainType.MILLET, silo.getGrainType());
+        assertEquals(300, silo.takeOut(300));
+        assertEquals(0, silo.getFillLevel());
+    }
+
     @Test
     public void testEmptySilo() {
         Harvest cornHarvest = Harvest.createHarvest(GrainType.CORN, 500, 2020);
@@ -116,4 +128,40 @@ public class SiloTests {
 
         assertEquals(2, silo.getHarvestCount()); // Two harvests stored
     }
+
+    @Test
+    public void testDecayHorizon() {
+        assertEquals(Integer.MAX_VALUE, silo.getDecayHorizon()); // Empty silo never decays
+
+        Harvest cornHarvest = Harvest.createHarvest(GrainType.CORN, 500, 2020);
+        Harvest cornHarvest2 = Harvest.createHarvest(GrainType.CORN, 300, 2021);
+        silo.store(cornHarvest2);
+        silo.store(cornHarvest);
+        assertEquals(2023, silo.getDecayHorizon()); // Corn keeps for two years, the older harvest decays first
+
+        assertEquals(0, silo.decay(2022)); // Still within shelf life
+        assertEquals(800, silo.getFillLevel());
+
+        assertTrue(silo.decay(2023) > 0);
+        assertEquals(2023, silo.getDecayHorizon());
+
+        silo.emptySilo();
+        assertEquals(Integer.MAX_VALUE, silo.getDecayHorizon());
+    }
+
+    @Test
+    public void testCoalesceSameYearFragments() {
+        silo.store(Harvest.createHarvest(GrainType.CORN, 300, 2020));
+        silo.store(Harvest.createHarvest(GrainType.CORN, 200, 2020));
+        silo.store(Harvest.createHarvest(GrainType.CORN, 100, 2021));
+        silo.store(Harvest.createHarvest(GrainType.CORN, 100, 2021));
+
+        assertEquals(2, silo.getHarvestCount()); // One harvest per year
+        assertEquals(4, silo.getFragmentCount());
+        assertEquals(700, silo.getFillLevel());
+
+        assertEquals(600, silo.takeOut(600)); // Takes out the 2020 harvest first
+        assertEquals(1, silo.getHarvestCount());
+        assertEquals(2021, silo.getOldestHarvestYear());
+    }
 }
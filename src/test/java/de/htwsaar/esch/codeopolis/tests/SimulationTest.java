@@ -0,0 +1,102 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+
+public class SimulationTest {
+
+    private static final Simulation.Strategy FEED_ONLY = (city, orders) ->
+            orders.feed((int) Math.min(city.getTotalBushels(), (long) city.getConfig().getBushelsPerResident() * city.getResidents()));
+
+    private static final Simulation.Strategy FARMER = (city, orders) -> {
+        orders.feed((int) Math.min(city.getTotalBushels() / 2, (long) city.getConfig().getBushelsPerResident() * city.getResidents()));
+        for (GrainType grainType : GrainType.values()) {
+            orders.plant(grainType, city.getAcres() / GrainType.values().length);
+        }
+    };
+
+    @Test
+    public void testReproducible() {
+        Simulation.Summary summary = new Simulation(Difficulty.MEDIUM, new SplittableRandom(7)).run(FARMER, 10);
+        assertEquals(summary, new Simulation(Difficulty.MEDIUM, new SplittableRandom(7)).run(FARMER, 10));
+
+        Simulation continued = new Simulation(Difficulty.MEDIUM, new SplittableRandom(7));
+        continued.run(FARMER, 4);
+        assertEquals(summary, continued.run(FARMER, 6));
+    }
+
+    @Test
+    public void testOrdersAreAdjusted() {
+        Simulation simulation = new Simulation(Difficulty.EASY, new SplittableRandom(3));
+        Simulation.Summary summary = simulation.run((city, orders) -> {
+            orders.expandDepot(-1).buy(Integer.MAX_VALUE).sell(-5).feed(Integer.MAX_VALUE);
+            for (GrainType grainType : GrainType.values()) {
+                orders.plant(grainType, Integer.MAX_VALUE);
+            }
+        }, 1);
+        assertEquals(1, summary.getYears());
+        assertTrue(summary.getAdjustedOrders() >= 5);
+        assertEquals(1, simulation.getCityState().getYear());
+    }
+
+    @Test
+    public void testOversizedSiloOrderIsReduced() {
+        Simulation simulation = new Simulation(Difficulty.EASY, new SplittableRandom(3));
+        int silos = simulation.getCityState().getSilos().size();
+        Simulation.Summary summary = simulation.run((city, orders) -> orders.expandDepot(Integer.MAX_VALUE), 1);
+        assertEquals(1, summary.getAdjustedOrders());
+        assertEquals(silos + GameConfig.MAX_NEW_SILOS, simulation.getCityState().getSilos().size());
+    }
+
+    @Test
+    public void testOutcome() {
+        Simulation.Summary starving = new Simulation(Difficulty.EASY, new SplittableRandom(5)).run((city, orders) -> {}, 100);
+        assertNotEquals(Simulation.Outcome.SURVIVED, starving.getOutcome());
+        assertNotEquals(Simulation.Outcome.WON, starving.getOutcome());
+        assertEquals(1, starving.getYears());
+
+        Simulation simulation = new Simulation(Difficulty.EASY, new SplittableRandom(5));
+        Simulation.Summary summary = simulation.run(FEED_ONLY, 1);
+        assertEquals(Simulation.Outcome.SURVIVED, summary.getOutcome());
+        assertEquals(1, summary.getYears());
+
+        assertThrows(IllegalArgumentException.class, () -> simulation.run(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> simulation.run(FEED_ONLY, -1));
+    }
+
+    @Test
+    public void testSameAsGame() {
+        List<TurnResult> results = new ArrayList<>();
+        Game game = new Game("id", Simulation.class.getSimpleName(), Difficulty.HARD, new UserInterface() {
+            public int expandDepot(CityState cityState) { return 0; }
+            public int buy(int pricePerAcre, CityState cityState) { return 0; }
+            public int sell(int pricePerAcre, CityState cityState) { return 0; }
+            public int feed(int bushelsPerResident, CityState cityState) {
+                return Math.min(cityState.getTotalAmountOfBushels(), bushelsPerResident * cityState.getResidents());
+            }
+            public int[] plant(int bushelsPerAcre, int acrePerResident, CityState cityState) { return new int[GrainType.values().length]; }
+            public void turnEnd(TurnResult result) { results.add(result); }
+            public void illigleInput(String message) { fail(message); }
+            public void gameWon(String message) { }
+            public void gameLost(String message) { }
+        }, new SplittableRandom(11));
+        game.startGame();
+
+        Simulation simulation = new Simulation(Difficulty.HARD, new SplittableRandom(11));
+        Simulation.Summary summary = simulation.run(FEED_ONLY, Integer.MAX_VALUE);
+        assertEquals(results.size(), summary.getYears());
+        assertEquals(results.stream().mapToLong(TurnResult::getStarved).sum(), summary.getStarved());
+        assertEquals(game.getCityState().getResidents(), summary.getResidents());
+        assertEquals(game.getCityState().getTotalAmountOfBushelsLong(), summary.getBushels());
+        assertEquals(0, summary.getAdjustedOrders());
+    }
+}
@@ -0,0 +1,132 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
+
+public class TurnPipelineTest {
+
+    private static City createCity(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return new City("id", "Pipeline City", new GameConfig(Difficulty.EASY, random.split()), random.split());
+    }
+
+    private static TurnResult feedAndRunTurn(City city) {
+        city.feed(Math.min(city.getState().getTotalAmountOfBushels(), 20 * city.getState().getResidents()));
+        return city.runTurn();
+    }
+
+    @Test
+    public void testDefaultStages() {
+        assertEquals(List.of(TurnPipeline.STARVATION, TurnPipeline.POPULATION, TurnPipeline.WEATHER, TurnPipeline.GROWTH,
+                TurnPipeline.STORAGE, TurnPipeline.RESULT), TurnPipeline.createDefault().getStageNames());
+    }
+
+    @Test
+    public void testProfiling() {
+        City city = createCity(1);
+        TurnPipeline pipeline = city.getTurnPipeline();
+        feedAndRunTurn(city);
+        assertEquals(0, pipeline.getTimings().get(0).getRuns()); // Not profiled yet
+
+        pipeline.setProfiling(true);
+        feedAndRunTurn(city);
+        feedAndRunTurn(city);
+        for (TurnPipeline.StageTiming timing : pipeline.getTimings()) {
+            assertEquals(2, timing.getRuns(), timing.getName());
+            assertTrue(timing.getNanos() > 0, timing.getName());
+            assertTrue(timing.getAllocatedBytes() >= -1, timing.getName()); // -1 if the JVM does not measure allocations
+        }
+        TurnPipeline.StageTiming result = pipeline.getTimings().get(pipeline.getStageNames().indexOf(TurnPipeline.RESULT));
+        assertNotEquals(0, result.getAllocatedBytes()); // The result is allocated
+        pipeline.resetTimings();
+        assertEquals(0, pipeline.getTimings().get(0).getRuns());
+    }
+
+    @Test
+    public void testReplaceAndRemoveStages() {
+        City city = createCity(2);
+        List<String> ran = new ArrayList<>();
+        city.getTurnPipeline()
+            .replace(TurnPipeline.GROWTH, context -> context.getHarvested()[Game.GrainType.RYE.ordinal()] = 42)
+            .insertBefore(TurnPipeline.GROWTH, "log", context -> ran.add("log " + context.getYear()))
+            .remove(TurnPipeline.STORAGE);
+        city.feed(1000);
+        int bushels = city.getState().getTotalAmountOfBushels();
+
+        TurnResult result = city.runTurn();
+        assertEquals(List.of("log 0"), ran);
+        assertEquals(42, result.getBushelsHarvested()[Game.GrainType.RYE.ordinal()]);
+        assertEquals(0, result.getAteByRates()); // Without the storage stage, nothing is stored, eaten or decayed
+        assertEquals(bushels, result.getTotalNumberOfBushels());
+        assertEquals(1, result.getYear());
+
+        city.getTurnPipeline().remove(TurnPipeline.RESULT);
+        assertNull(feedAndRunTurn(city));
+        assertEquals(1, city.getState().getYear()); // The year is advanced by the result stage
+
+        assertThrows(IllegalArgumentException.class, () -> city.getTurnPipeline().add("log", context -> {}));
+        assertThrows(IllegalArgumentException.class, () -> city.getTurnPipeline().remove("missing"));
+    }
+
+    @Test
+    public void testLazyDepotState() {
+        City city = createCity(3);
+        TurnResult result = feedAndRunTurn(city);
+        String expected = city.getDepotSnapshot().toString();
+        feedAndRunTurn(city); // Changes the depot after the result was created
+        String depotState = result.getDepotState();
+        assertEquals(expected, depotState);
+        assertSame(depotState, result.getDepotState());
+
+        AtomicInteger renders = new AtomicInteger();
+        TurnResult lazy = new TurnResult("name", 1, 0, new int[0], 0, new long[0], 0, 0, 0, 0, 0, 0L, 0L,
+                () -> "depot " + renders.incrementAndGet());
+        assertEquals(0, renders.get());
+        assertEquals("depot 1", lazy.getDepotState());
+        assertEquals("depot 1", lazy.getDepotState());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    public void testDepotStateIsRenderedOnceForConcurrentReaders() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch rendering = new CountDownLatch(1);
+        TurnResult result = new TurnResult("name", 1, 0, new int[0], 0, new long[0], 0, 0, 0, 0, 0, 0L, 0L, () -> {
+            rendering.countDown();
+            try {
+                Thread.sleep(50); // Keeps the other readers waiting while the state is rendered
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "depot " + renders.incrementAndGet();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> states = new ArrayList<>();
+            states.add(executor.submit(result::getDepotState));
+            rendering.await();
+            for (int i = 0; i < 7; i++) {
+                states.add(executor.submit(result::getDepotState));
+            }
+            for (Future<String> state : states) {
+                assertEquals("depot 1", state.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, renders.get());
+    }
+}
@@ -0,0 +1,84 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.YieldEngine;
+import de.htwsaar.esch.Codeopolis.DomainModel.Weather.*;
+
+public class WeatherTest {
+
+    private static double autocorrelation(float[] values) {
+        double mean = 0;
+        for (float value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double covariance = 0, variance = 0;
+        for (int i = 0; i < values.length; i++) {
+            variance += (values[i] - mean) * (values[i] - mean);
+            if (i > 0) {
+                covariance += (values[i] - mean) * (values[i - 1] - mean);
+            }
+        }
+        return covariance / variance;
+    }
+
+    @Test
+    public void testSameSeedSameWeather() {
+        WeatherSeries series = new AutoregressiveWeather(0.7).generate(42L, 50);
+        WeatherSeries again = new AutoregressiveWeather(0.7).generate(42L, 50);
+        assertEquals(50, series.length());
+        assertArrayEquals(series.getSoilConditions(), again.getSoilConditions());
+        assertArrayEquals(series.getAverageTemperatureSummer(), again.getAverageTemperatureSummer());
+        assertArrayEquals(series.getAverageTemperatureWinter(), again.getAverageTemperatureWinter());
+        assertArrayEquals(series.getEvents(), again.getEvents());
+
+        Conditions conditions = series.apply(7, Conditions.generateRandomConditions());
+        assertEquals(series.getSoilConditions(7), conditions.getSoilConditions());
+        assertEquals(series.getAverageTemperatureWinter(7), conditions.getAverageTemperatureWinter());
+        assertEquals(series.getEvents(7), conditions.getEvents());
+    }
+
+    @Test
+    public void testIndependentWeatherMatchesRandomConditions() {
+        WeatherSeries series = IndependentWeather.getInstance().generate(5L, 20);
+        SplittableRandom random = new SplittableRandom(5L);
+        Conditions conditions = Conditions.generateRandomConditions(random); // The year before the first year
+        for (int year = 0; year < series.length(); year++) {
+            conditions.randomize(random);
+            assertEquals(conditions.getAverageTemperatureSummer(), series.getAverageTemperatureSummer(year));
+            assertEquals(conditions.getEvents(), series.getEvents(year));
+        }
+    }
+
+    @Test
+    public void testAutoregressiveWeatherIsCorrelated() {
+        int years = 20_000;
+        WeatherSeries correlated = new AutoregressiveWeather(0.8).generate(1L, years);
+        WeatherSeries independent = IndependentWeather.getInstance().generate(1L, years);
+        assertTrue(autocorrelation(correlated.getAverageTemperatureSummer()) > 0.6);
+        assertTrue(autocorrelation(correlated.getSoilConditions()) > 0.6);
+        assertEquals(0, autocorrelation(independent.getAverageTemperatureSummer()), 0.05);
+
+        // Droughts are more likely after hot summers, but about as frequent as in the game overall
+        int droughts = 0, hotYears = 0, hotDroughts = 0;
+        for (int year = 0; year < years; year++) {
+            float summer = correlated.getAverageTemperatureSummer(year);
+            assertTrue(summer >= Conditions.SUMMER_TEMPERATURE_LOWER && summer <= Conditions.SUMMER_TEMPERATURE_HIGHER);
+            boolean drought = (correlated.getEvents(year) & YieldEngine.DROUGHT) != 0;
+            if (drought) droughts++;
+            if (summer > 20) {
+                hotYears++;
+                if (drought) hotDroughts++;
+            }
+        }
+        assertEquals(Conditions.EVENT_PROBABILITY, (double) droughts / years, 0.02);
+        assertTrue((double) hotDroughts / hotYears > 0.25);
+        assertThrows(IllegalArgumentException.class, () -> new AutoregressiveWeather(1));
+    }
+}
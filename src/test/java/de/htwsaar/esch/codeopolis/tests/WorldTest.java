@@ -0,0 +1,79 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.Difficulty;
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+
+public class WorldTest {
+
+    private static final Simulation.Strategy FARMER = (city, orders) -> {
+        orders.feed((int) Math.min(city.getTotalBushels() / 2, (long) city.getConfig().getBushelsPerResident() * city.getResidents()));
+        for (GrainType grainType : GrainType.values()) {
+            orders.plant(grainType, city.getAcres() / GrainType.values().length);
+        }
+    };
+
+    @Test
+    public void testSameAsSimulations() {
+        World world = new World(Difficulty.MEDIUM, 1000, new SplittableRandom(1));
+        World.Statistics statistics = null;
+        for (int year = 0; year < 3; year++) {
+            statistics = world.advance(FARMER);
+        }
+
+        SplittableRandom random = new SplittableRandom(1);
+        long residents = 0;
+        long starved = 0;
+        int running = 0;
+        for (int i = 0; i < 1000; i++) {
+            Simulation.Summary summary = new Simulation(Difficulty.MEDIUM, random.split()).run(FARMER, 3);
+            residents += summary.getResidents();
+            starved += summary.getStarved();
+            if (summary.getOutcome() == Simulation.Outcome.SURVIVED) {
+                running++;
+            }
+        }
+        assertEquals(3, statistics.getYear());
+        assertEquals(1000, statistics.getCities());
+        assertEquals(residents, statistics.getResidents());
+        assertEquals(starved, statistics.getStarved());
+        assertEquals(running, statistics.getRunning());
+        assertEquals(1000 - running, statistics.getLost() + statistics.getWon());
+    }
+
+    @Test
+    public void testIndependentOfParallelism() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            World sequentialWorld = new World(Difficulty.HARD, 2000, new SplittableRandom(2), single);
+            World parallelWorld = new World(Difficulty.HARD, 2000, new SplittableRandom(2), parallel);
+            for (int year = 0; year < 4; year++) {
+                assertEquals(sequentialWorld.advance(FARMER), parallelWorld.advance(FARMER));
+            }
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void testStatisticsDoNotAdvance() {
+        World world = new World(Difficulty.EASY, 300, new SplittableRandom(3));
+        World.Statistics statistics = world.getStatistics();
+        assertEquals(statistics, world.getStatistics());
+        assertEquals(0, world.getYear());
+        assertEquals(300, statistics.getRunning());
+        assertEquals(0, world.getCity(0).getCityState().getYear());
+
+        assertThrows(IllegalArgumentException.class, () -> world.advance(null));
+        assertThrows(IllegalArgumentException.class, () -> new World(Difficulty.EASY, -1, new SplittableRandom(3)));
+    }
+}
@@ -0,0 +1,195 @@
+package de.htwsaar.esch.codeopolis.tests;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import de.htwsaar.esch.Codeopolis.DomainModel.Game.GrainType;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.*;
+import de.htwsaar.esch.Codeopolis.DomainModel.Plants.Grain.Conditions;
+
+/**
+ * Checks the YieldEngine against the test data of the grains in GrainTests and against the grains themselves.
+ * Each column of the test data adds one more event to the events of the previous column.
+ */
+public class YieldEngineTest {
+
+	// Order of the columns: none, drought, frit fly, delia fly, barley gout fly, powdery mildew, leaf drought, fusarium
+	private static final int[] COLUMNS = {0, YieldEngine.DROUGHT, YieldEngine.FRIT_FLY, YieldEngine.DELIA_FLY, YieldEngine.BARLEY_GOUT_FLY,
+			YieldEngine.POWDERY_MILDEW, YieldEngine.LEAF_DROUGHT, YieldEngine.FUSARIUM};
+
+	private static void assertCrops(GrainType grainType, float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int... expectedCrops) {
+		Conditions conditions = Conditions.generateRandomConditions();
+		conditions.setSoilConditions(soilConditions);
+		conditions.setAverageTemperatureSummer(averageTemperatureSummer);
+		conditions.setAverageTemperatureWinter(averageTemperatureWinter);
+
+		int events = 0;
+		for (int column = 0; column < COLUMNS.length; column++) {
+			events |= COLUMNS[column];
+			int crop = YieldEngine.getInstance().harvest(grainType, acres, conditions, events);
+			
+			// Same tolerance as GrainTests, which applies the events in the order of the columns
+			Assertions.assertEquals(expectedCrops[column], crop, 1, "Column " + column);
+			Assertions.assertEquals(harvestGrain(grainType, acres, conditions, events), crop, "Column " + column);
+		}
+	}
+
+	/**
+	 * Harvests a grain after applying the events in the same order as the city.
+	 */
+	private static int harvestGrain(GrainType grainType, int acres, Conditions conditions, int events) {
+		Grain grain = switch (grainType) {
+			case BARLEY -> new Barley();
+			case CORN -> new Corn();
+			case MILLET -> new Millet();
+			case RICE -> new Rice();
+			case RYE -> new Rye();
+			case WHEAT -> new Wheat();
+		};
+		grain.plant(acres);
+		grain.grow(conditions);
+		if ((events & YieldEngine.DROUGHT) != 0) grain.drought();
+		if ((events & YieldEngine.FUSARIUM) != 0) grain.diseaseOutbreak(Grain.Diseases.Fusarium, conditions);
+		if ((events & YieldEngine.LEAF_DROUGHT) != 0) grain.diseaseOutbreak(Grain.Diseases.LeafDrought, conditions);
+		if ((events & YieldEngine.POWDERY_MILDEW) != 0) grain.diseaseOutbreak(Grain.Diseases.PowderyMildew, conditions);
+		if ((events & YieldEngine.BARLEY_GOUT_FLY) != 0) grain.pestInfestation(Grain.Pests.BarleyGoutFly, conditions);
+		if ((events & YieldEngine.DELIA_FLY) != 0) grain.pestInfestation(Grain.Pests.DeliaFly, conditions);
+		if ((events & YieldEngine.FRIT_FLY) != 0) grain.pestInfestation(Grain.Pests.FritFly, conditions);
+		return grain.harvest();
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/barleyTestData.csv", numLinesToSkip = 1, encoding = "UTF-8" )
+	public void testBarley(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int expectedCrop, int expectedCropDrought, int expectedCropFritFly, int expectedCropDeliaFly, int expectedCropBarleyGoutFly, int expectedCropPowderyMildew, int expectedCropLeafDrought, int expectedCropFusarium) {
+		assertCrops(GrainType.BARLEY, soilConditions, averageTemperatureSummer, averageTemperatureWinter, acres, expectedCrop, expectedCropDrought, expectedCropFritFly, expectedCropDeliaFly, expectedCropBarleyGoutFly, expectedCropPowderyMildew, expectedCropLeafDrought, expectedCropFusarium);
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/cornTestData.csv", numLinesToSkip = 1, encoding = "UTF-8" )
+	public void testCorn(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int expectedCrop, int expectedCropDrought, int expectedCropFritFly, int expectedCropDeliaFly, int expectedCropBarleyGoutFly, int expectedCropPowderyMildew, int expectedCropLeafDrought, int expectedCropFusarium) {
+		assertCrops(GrainType.CORN, soilConditions, averageTemperatureSummer, averageTemperatureWinter, acres, expectedCrop, expectedCropDrought, expectedCropFritFly, expectedCropDeliaFly, expectedCropBarleyGoutFly, expectedCropPowderyMildew, expectedCropLeafDrought, expectedCropFusarium);
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/milletTestData.csv", numLinesToSkip = 1, encoding = "UTF-8" )
+	public void testMillet(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int expectedCrop, int expectedCropDrought, int expectedCropFritFly, int expectedCropDeliaFly, int expectedCropBarleyGoutFly, int expectedCropPowderyMildew, int expectedCropLeafDrought, int expectedCropFusarium) {
+		assertCrops(GrainType.MILLET, soilConditions, averageTemperatureSummer, averageTemperatureWinter, acres, expectedCrop, expectedCropDrought, expectedCropFritFly, expectedCropDeliaFly, expectedCropBarleyGoutFly, expectedCropPowderyMildew, expectedCropLeafDrought, expectedCropFusarium);
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/riceTestData.csv", numLinesToSkip = 1, encoding = "UTF-8" )
+	public void testRice(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int expectedCrop, int expectedCropDrought, int expectedCropFritFly, int expectedCropDeliaFly, int expectedCropBarleyGoutFly, int expectedCropPowderyMildew, int expectedCropLeafDrought, int expectedCropFusarium) {
+		assertCrops(GrainType.RICE, soilConditions, averageTemperatureSummer, averageTemperatureWinter, acres, expectedCrop, expectedCropDrought, expectedCropFritFly, expectedCropDeliaFly, expectedCropBarleyGoutFly, expectedCropPowderyMildew, expectedCropLeafDrought, expectedCropFusarium);
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/ryeTestData.csv", numLinesToSkip = 1, encoding = "UTF-8" )
+	public void testRye(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int expectedCrop, int expectedCropDrought, int expectedCropFritFly, int expectedCropDeliaFly, int expectedCropBarleyGoutFly, int expectedCropPowderyMildew, int expectedCropLeafDrought, int expectedCropFusarium) {
+		assertCrops(GrainType.RYE, soilConditions, averageTemperatureSummer, averageTemperatureWinter, acres, expectedCrop, expectedCropDrought, expectedCropFritFly, expectedCropDeliaFly, expectedCropBarleyGoutFly, expectedCropPowderyMildew, expectedCropLeafDrought, expectedCropFusarium);
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/wheatTestData.csv", numLinesToSkip = 1, encoding = "UTF-8" )
+	public void testWheat(float soilConditions, float averageTemperatureSummer, float averageTemperatureWinter, int acres, int expectedCrop, int expectedCropDrought, int expectedCropFritFly, int expectedCropDeliaFly, int expectedCropBarleyGoutFly, int expectedCropPowderyMildew, int expectedCropLeafDrought, int expectedCropFusarium) {
+		assertCrops(GrainType.WHEAT, soilConditions, averageTemperatureSummer, averageTemperatureWinter, acres, expectedCrop, expectedCropDrought, expectedCropFritFly, expectedCropDeliaFly, expectedCropBarleyGoutFly, expectedCropPowderyMildew, expectedCropLeafDrought, expectedCropFusarium);
+	}
+
+	@Test
+	public void testConditionsFromSeed() {
+		Conditions conditions = Conditions.generateRandomConditions(new SplittableRandom(42));
+		Conditions reused = Conditions.generateRandomConditions();
+		SplittableRandom random = new SplittableRandom(42);
+		for (int year = 0; year < 100; year++) {
+			Conditions expected = Conditions.generateRandomConditions(new SplittableRandom(year));
+			Assertions.assertSame(reused, reused.randomize(new SplittableRandom(year)));
+			Assertions.assertEquals(expected.getSoilConditions(), reused.getSoilConditions());
+			Assertions.assertEquals(expected.getAverageTemperatureSummer(), reused.getAverageTemperatureSummer());
+			Assertions.assertEquals(expected.getAverageTemperatureWinter(), reused.getAverageTemperatureWinter());
+			Assertions.assertEquals(expected.getEvents(), reused.getEvents());
+		}
+		Assertions.assertEquals(Conditions.generateRandomConditions(random).getEvents(), conditions.getEvents());
+
+		// The getters of the events read the bits of the bitmask
+		conditions.setEvents(YieldEngine.DROUGHT | YieldEngine.DELIA_FLY);
+		Assertions.assertTrue(conditions.isDrought());
+		Assertions.assertTrue(conditions.isDelioFly());
+		Assertions.assertFalse(conditions.isFusarium());
+		conditions.setFritFly(true);
+		conditions.setDrought(false);
+		Assertions.assertEquals(YieldEngine.DELIA_FLY | YieldEngine.FRIT_FLY, conditions.getEvents());
+	}
+
+	/**
+	 * Calculates all columns of the test data of every grain type in one batch, repeated with varying acres
+	 * until the batch is large enough to be calculated in parallel, and compares each crop with the grain.
+	 */
+	@Test
+	public void testBatchHarvest() throws IOException {
+		for (GrainType grainType : GrainType.values()) {
+			List<float[]> rows = readTestData("/" + grainType.name().toLowerCase() + "TestData.csv");
+			int plots = 100_000;
+			int[] acres = new int[plots];
+			float[] soilConditions = new float[plots];
+			float[] averageTemperatureSummer = new float[plots];
+			float[] averageTemperatureWinter = new float[plots];
+			int[] events = new int[plots];
+			int[] crops = new int[plots];
+			for (int plot = 0; plot < plots; plot++) {
+				float[] row = rows.get(plot % rows.size());
+				int column = (plot / rows.size()) % COLUMNS.length;
+				soilConditions[plot] = row[0];
+				averageTemperatureSummer[plot] = row[1];
+				averageTemperatureWinter[plot] = row[2];
+				acres[plot] = (int) row[3] + plot % 1000;
+				for (int i = 0; i <= column; i++) {
+					events[plot] |= COLUMNS[i];
+				}
+			}
+
+			YieldEngine.getInstance().harvest(grainType, acres, soilConditions, averageTemperatureSummer, averageTemperatureWinter, events, crops);
+
+			Conditions conditions = Conditions.generateRandomConditions();
+			for (int plot = 0; plot < plots; plot++) {
+				conditions.setSoilConditions(soilConditions[plot]);
+				conditions.setAverageTemperatureSummer(averageTemperatureSummer[plot]);
+				conditions.setAverageTemperatureWinter(averageTemperatureWinter[plot]);
+				Assertions.assertEquals(harvestGrain(grainType, acres[plot], conditions, events[plot]), crops[plot], grainType + " plot " + plot);
+				if (acres[plot] == (int) rows.get(plot % rows.size())[3]) {
+					int column = (plot / rows.size()) % COLUMNS.length;
+					Assertions.assertEquals((int) rows.get(plot % rows.size())[4 + column], crops[plot], 1, grainType + " plot " + plot);
+				}
+			}
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> YieldEngine.getInstance().harvest(GrainType.RYE,
+				new int[2], new float[2], new float[2], new float[2], new int[2], new int[1]));
+	}
+
+	private static List<float[]> readTestData(String resource) throws IOException {
+		List<float[]> rows = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(YieldEngineTest.class.getResourceAsStream(resource), StandardCharsets.UTF_8))) {
+			reader.readLine(); // Header
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				if (line.isBlank()) {
+					continue;
+				}
+				String[] values = line.split(",");
+				float[] row = new float[values.length];
+				for (int i = 0; i < values.length; i++) {
+					row[i] = Float.parseFloat(values[i].trim());
+				}
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+}